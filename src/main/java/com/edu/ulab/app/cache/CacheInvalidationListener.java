@@ -0,0 +1,121 @@
+package com.edu.ulab.app.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Слушает {@link CacheInvalidationPublisher#USER_CHANNEL} на выделенном соединении из пула и вытесняет
+ * пользователей из локального {@link UserCache}. Пока соединения нет, уведомления теряются,
+ * поэтому после каждого (пере)подключения кэш очищается целиком.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.service.user-cache.invalidation", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class CacheInvalidationListener {
+    private final DataSource dataSource;
+    private final ObjectProvider<UserCache> userCacheProvider;
+    private final Duration pollTimeout;
+    private final Duration reconnectDelay;
+
+    private UserCache userCache;
+    private Thread listener;
+    private volatile boolean running;
+    private volatile boolean listening;
+
+    public CacheInvalidationListener(DataSource dataSource,
+                                     ObjectProvider<UserCache> userCacheProvider,
+                                     @Value("${app.service.user-cache.invalidation.poll-timeout:500ms}") Duration pollTimeout,
+                                     @Value("${app.service.user-cache.invalidation.reconnect-delay:5s}") Duration reconnectDelay) {
+        this.dataSource = dataSource;
+        this.userCacheProvider = userCacheProvider;
+        this.pollTimeout = pollTimeout;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    @PostConstruct
+    public void start() {
+        userCache = userCacheProvider.getIfAvailable();
+        if (userCache == null) {
+            log.info("User cache is disabled, cache invalidation listener is not started");
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listenLoop, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (listener != null) {
+            listener.join(pollTimeout.multipliedBy(2).toMillis() + reconnectDelay.toMillis());
+        }
+    }
+
+    /**
+     * @return подписано ли соединение на канал в данный момент
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CacheInvalidationPublisher.USER_CHANNEL);
+                }
+                userCache.evictAll();
+                listening = true;
+                log.info("Listening for user cache invalidations on {}", CacheInvalidationPublisher.USER_CHANNEL);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            evict(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException ex) {
+                log.warn("Cache invalidation listener lost its connection, reconnecting in {}", reconnectDelay, ex);
+                sleepBeforeReconnect();
+            } finally {
+                listening = false;
+            }
+        }
+    }
+
+    private void evict(String payload) {
+        try {
+            userCache.evictLocally(Long.valueOf(payload));
+        } catch (NumberFormatException ex) {
+            log.warn("Ignored malformed user cache invalidation: {}", payload);
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(reconnectDelay.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.edu.ulab.app.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Публикует id изменённых пользователей через Postgres {@code NOTIFY} на соединении текущей транзакции.
+ * Postgres доставляет уведомления слушателям только после коммита и не доставляет их при откате,
+ * одинаковые уведомления одной транзакции схлопываются. При выключенном user-cache ничего не публикуется.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationPublisher {
+    public static final String USER_CHANNEL = "ulab_edu_user_changed";
+
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, ?)";
+    private static final String NOTIFY_ALL_SQL = "SELECT pg_notify(?, id::text) FROM unnest(?::bigint[]) id";
+    private static final RowCallbackHandler IGNORE_RESULT = rs -> {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public CacheInvalidationPublisher(JdbcTemplate jdbcTemplate,
+                                      @Value("${app.service.user-cache.invalidation.enabled:true}") boolean enabled,
+                                      @Value("${app.service.user-cache.enabled:true}") boolean userCacheEnabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled && userCacheEnabled;
+    }
+
+    public void userChanged(Long userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        jdbcTemplate.query(NOTIFY_SQL, IGNORE_RESULT, USER_CHANNEL, userId.toString());
+        log.debug("Published change of user {}", userId);
+    }
+
+    /**
+     * Публикует изменения пользователей, которым принадлежат изменённые книги, одним запросом.
+     */
+    public void usersChanged(Collection<Long> userIds) {
+        if (!enabled) {
+            return;
+        }
+        List<Long> distinctIds = userIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (distinctIds.size() <= 1) {
+            distinctIds.forEach(this::userChanged);
+            return;
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(NOTIFY_ALL_SQL);
+            ps.setString(1, USER_CHANNEL);
+            ps.setArray(2, connection.createArrayOf("bigint", distinctIds.toArray()));
+            return ps;
+        }, IGNORE_RESULT);
+        log.debug("Published change of users {}", distinctIds);
+    }
+}
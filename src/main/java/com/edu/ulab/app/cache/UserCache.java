@@ -0,0 +1,85 @@
+package com.edu.ulab.app.cache;
+
+import com.edu.ulab.app.dto.UserDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Локальный кэш собранных {@link UserDto} с id книг. Размер ограничен, записи устаревают через заданное время
+ * после загрузки. Наружу отдаются копии, чтобы вызывающий код не мог изменить закэшированное значение.
+ */
+@Slf4j
+public class UserCache {
+    public static final String CACHE_NAME = "users";
+
+    private final Cache<Long, UserDto> cache;
+
+    public UserCache(long maximumSize, Duration expireAfterWrite, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public UserDto get(Long id, Function<Long, UserDto> loader) {
+        return cache.get(id, loader).copy();
+    }
+
+    /**
+     * Возвращает закэшированных пользователей и одним вызовом {@code loader} загружает остальных.
+     * Пользователи, которых {@code loader} не вернул, не кэшируются и отсутствуют в результате.
+     */
+    public Map<Long, UserDto> getAll(Collection<Long> ids, Function<Collection<Long>, List<UserDto>> loader) {
+        Map<Long, UserDto> found = cache.getAll(ids, missingIds -> {
+            List<Long> idsToLoad = new ArrayList<>();
+            missingIds.forEach(idsToLoad::add);
+            Map<Long, UserDto> loaded = new LinkedHashMap<>();
+            loader.apply(idsToLoad).forEach(user -> loaded.put(user.getId(), user));
+            return loaded;
+        });
+        Map<Long, UserDto> copies = new LinkedHashMap<>();
+        found.forEach((id, user) -> copies.put(id, user.copy()));
+        return copies;
+    }
+
+    /**
+     * Вытесняет пользователя сейчас и, если есть активная транзакция, ещё раз после её коммита,
+     * чтобы параллельное чтение не вернуло в кэш незакоммиченное или старое состояние.
+     */
+    public void evict(Long id) {
+        evictLocally(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictLocally(id);
+                }
+            });
+        }
+    }
+
+    public void evictLocally(Long id) {
+        cache.invalidate(id);
+        log.debug("Evicted user {} from cache", id);
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+        log.debug("Evicted all users from cache");
+    }
+}
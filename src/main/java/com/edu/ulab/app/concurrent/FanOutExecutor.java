@@ -0,0 +1,104 @@
+package com.edu.ulab.app.concurrent;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Ограниченный пул для независимой от базы работы запроса: списки обрабатываются кусками по {@code chunkSize}
+ * параллельно. Когда очередь пула заполнена, кусок выполняет вызывающий поток.
+ * Задачи пула не ждут других задач пула, поэтому пул не может заблокироваться сам на себе.
+ * <p>
+ * Не реализует {@link java.util.concurrent.Executor}, чтобы бин не отключал {@code applicationTaskExecutor}
+ * Spring Boot.
+ */
+public class FanOutExecutor implements DisposableBean {
+    private final ThreadPoolExecutor executor;
+    private final int chunkSize;
+
+    public FanOutExecutor(int threads, int queueCapacity, int chunkSize) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "facade-fan-out-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Запускает {@code function} для элементов списка. Списки короче {@code chunkSize} обрабатываются сразу
+     * в вызывающем потоке: передача в пул обошлась бы дороже самой работы.
+     *
+     * @return результаты в порядке элементов
+     */
+    public <T, R> CompletableFuture<List<R>> mapAsync(List<T> items, Function<? super T, ? extends R> function) {
+        if (items.size() < chunkSize) {
+            try {
+                return CompletableFuture.completedFuture(mapAll(items, function));
+            } catch (RuntimeException ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        }
+
+        List<CompletableFuture<List<R>>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            List<T> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> mapAll(chunk, function), executor));
+        }
+        return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    List<R> results = new ArrayList<>(items.size());
+                    chunks.forEach(chunk -> results.addAll(chunk.join()));
+                    return results;
+                });
+    }
+
+    /**
+     * То же, что {@link #mapAsync}, с ожиданием результата. Нельзя вызывать из задач этого пула.
+     */
+    public <T, R> List<R> map(List<T> items, Function<? super T, ? extends R> function) {
+        return join(mapAsync(items, function));
+    }
+
+    /**
+     * Ждёт результат и выбрасывает исключение задачи как есть.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private static <T, R> List<R> mapAll(List<T> items, Function<? super T, ? extends R> function) {
+        List<R> results = new ArrayList<>(items.size());
+        for (T item : items) {
+            results.add(function.apply(item));
+        }
+        return results;
+    }
+}
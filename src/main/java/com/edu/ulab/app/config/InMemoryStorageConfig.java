@@ -0,0 +1,25 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.storage.memory.BookTable;
+import com.edu.ulab.app.storage.memory.HeapBookTable;
+import com.edu.ulab.app.storage.memory.OffHeapBookTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class InMemoryStorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.storage.memory", name = "book-table", havingValue = "heap", matchIfMissing = true)
+    public BookTable heapBookTable() {
+        return new HeapBookTable();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.storage.memory", name = "book-table", havingValue = "offheap")
+    public BookTable offHeapBookTable(@Value("${app.storage.memory.slab-size:" + OffHeapBookTable.DEFAULT_SLAB_SIZE + "}") int slabSize) {
+        return new OffHeapBookTable(slabSize);
+    }
+}
@@ -0,0 +1,56 @@
+package com.edu.ulab.app.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Пул соединений R2DBC для реактивного backend ({@code app.service.reactive.enabled}).
+ * Пул и менеджер транзакций не регистрируются бинами: при бине {@code ConnectionFactory} Spring Boot не создаёт
+ * DataSource, а {@link R2dbcTransactionManager} вытеснил бы менеджер транзакций JPA. По той же причине
+ * автоконфигурация R2DBC отключена в {@link com.edu.ulab.app.AppApplication}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.service.reactive", name = "enabled", havingValue = "true")
+public class R2dbcConfig implements DisposableBean {
+    private final ConnectionPool connectionPool;
+
+    public R2dbcConfig(@Value("${app.service.reactive.url}") String url,
+                       @Value("${app.service.reactive.username}") String username,
+                       @Value("${app.service.reactive.password}") String password,
+                       @Value("${app.service.reactive.pool.max-size:10}") int maxSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(Math.min(maxSize, 10))
+                .maxSize(maxSize)
+                .name("r2dbc")
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator() {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionPool));
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+}
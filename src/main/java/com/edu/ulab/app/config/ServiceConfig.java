@@ -0,0 +1,66 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.cache.UserCache;
+import com.edu.ulab.app.concurrent.FanOutExecutor;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.ServiceBackend;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.service.impl.CachingUserService;
+import com.edu.ulab.app.service.impl.CoalescingUserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Сервисы, которые использует фасад: реализация выбирается свойством {@code app.service.backend},
+ * сервис пользователей оборачивается в {@link CachingUserService} при включённом кэше
+ * или в {@link CoalescingUserService} без него: загрузчик Caffeine в кэше сам объединяет одновременные промахи.
+ * {@code app.service.coalescing.enabled} задаёт объединение явно.
+ * При {@code app.facade.parallel.enabled} фасад и сервисы в памяти сопоставляют книги в {@link FanOutExecutor}.
+ */
+@Configuration
+public class ServiceConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.service.user-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public UserCache userCache(@Value("${app.service.user-cache.maximum-size:10000}") long maximumSize,
+                               @Value("${app.service.user-cache.expire-after-write:1m}") Duration expireAfterWrite,
+                               MeterRegistry meterRegistry) {
+        return new UserCache(maximumSize, expireAfterWrite, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.facade.parallel", name = "enabled", havingValue = "true")
+    public FanOutExecutor fanOutExecutor(@Value("${app.facade.parallel.threads:0}") int threads,
+                                         @Value("${app.facade.parallel.queue-capacity:1000}") int queueCapacity,
+                                         @Value("${app.facade.parallel.chunk-size:64}") int chunkSize) {
+        return new FanOutExecutor(threads > 0 ? threads : Runtime.getRuntime().availableProcessors(),
+                queueCapacity, chunkSize);
+    }
+
+    @Bean
+    public UserService userService(BeanFactory beanFactory,
+                                   @Value("${app.service.backend:jpa}") ServiceBackend backend,
+                                   @Value("${app.service.coalescing.enabled:#{null}}") Boolean coalescing,
+                                   ObjectProvider<UserCache> userCache,
+                                   MeterRegistry meterRegistry) {
+        UserService userService = beanFactory.getBean(backend.getUserServiceName(), UserService.class);
+        UserCache cache = userCache.getIfAvailable();
+        if (coalescing != null ? coalescing : cache == null) {
+            userService = new CoalescingUserService(userService, meterRegistry);
+        }
+        return cache == null ? userService : new CachingUserService(userService, cache);
+    }
+
+    @Bean
+    public BookService bookService(BeanFactory beanFactory,
+                                   @Value("${app.service.backend:jpa}") ServiceBackend backend) {
+        return beanFactory.getBean(backend.getBookServiceName(), BookService.class);
+    }
+}
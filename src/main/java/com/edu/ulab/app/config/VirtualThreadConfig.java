@@ -0,0 +1,66 @@
+package com.edu.ulab.app.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Режим {@code app.threads.mode: virtual}: запросы Tomcat и асинхронные ответы MVC (выгрузка) выполняются
+ * на виртуальных потоках, поэтому фасад и JDBC блокируют не поток пула, а только свой виртуальный поток.
+ * Одновременные обращения к базе ограничивает пул соединений. Режим требует запуска на Java 21+
+ * (сборка под JDK 21 - профиль {@code java21}), на более старой JVM приложение не стартует.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "app.threads", name = "mode", havingValue = "virtual")
+public class VirtualThreadConfig implements WebMvcConfigurer {
+    private final ExecutorService executor;
+    private final int maxConnections;
+    private final int acceptCount;
+
+    public VirtualThreadConfig(@Value("${app.threads.virtual.max-connections:10000}") int maxConnections,
+                               @Value("${app.threads.virtual.accept-count:1000}") int acceptCount) {
+        executor = VirtualThreads.newThreadPerTaskExecutor("http-virtual-")
+                .orElseThrow(() -> new IllegalStateException("app.threads.mode: virtual requires Java 21+, "
+                        + "running on Java " + Runtime.version().feature()));
+        this.maxConnections = maxConnections;
+        this.acceptCount = acceptCount;
+        log.info("Requests are served on virtual threads");
+    }
+
+    /**
+     * Поток на запрос не ограничивает одновременные запросы, поэтому Tomcat принимает больше соединений,
+     * чем в режиме platform.
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            protocolHandler.setExecutor(executor);
+            if (protocolHandler instanceof AbstractProtocol<?> protocol) {
+                protocol.setMaxConnections(maxConnections);
+                protocol.setAcceptCount(acceptCount);
+            }
+        };
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new ConcurrentTaskExecutor(executor));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
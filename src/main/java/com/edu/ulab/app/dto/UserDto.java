@@ -12,4 +12,18 @@ public class UserDto {
     private int age;
     private String preferredGenre;
     private List<Long> bookIds;
+
+    /**
+     * Копия с неизменяемым списком id книг, чтобы общий для нескольких вызывающих результат не менялся.
+     */
+    public UserDto copy() {
+        UserDto copy = new UserDto();
+        copy.setId(id);
+        copy.setFullName(fullName);
+        copy.setTitle(title);
+        copy.setAge(age);
+        copy.setPreferredGenre(preferredGenre);
+        copy.setBookIds(bookIds == null ? null : List.copyOf(bookIds));
+        return copy;
+    }
 }
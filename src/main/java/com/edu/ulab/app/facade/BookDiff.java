@@ -0,0 +1,63 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.dto.BookDto;
+import lombok.Getter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разница между сохранёнными книгами пользователя и книгами из запроса.
+ * Книги сопоставляются по естественному ключу (название, автор), повторяющиеся ключи - по порядку.
+ * Сопоставленным книгам из запроса проставляется id сохранённой книги.
+ */
+@Getter
+class BookDiff {
+    private final List<BookDto> unchanged = new ArrayList<>();
+    private final List<BookDto> updated = new ArrayList<>();
+    private final List<BookDto> inserted = new ArrayList<>();
+    private final List<BookDto> deleted = new ArrayList<>();
+
+    static BookDiff of(List<BookDto> storedBooks, List<BookDto> requestedBooks) {
+        Map<NaturalKey, Deque<BookDto>> storedByKey = new HashMap<>();
+        storedBooks.forEach(book ->
+                storedByKey.computeIfAbsent(NaturalKey.of(book), key -> new ArrayDeque<>()).add(book));
+
+        BookDiff diff = new BookDiff();
+        for (BookDto requested : requestedBooks) {
+            Deque<BookDto> candidates = storedByKey.get(NaturalKey.of(requested));
+            BookDto stored = candidates == null ? null : candidates.poll();
+            if (stored == null) {
+                diff.inserted.add(requested);
+                continue;
+            }
+            requested.setId(stored.getId());
+            if (requested.getPageCount() == stored.getPageCount()) {
+                diff.unchanged.add(requested);
+            } else {
+                diff.updated.add(requested);
+            }
+        }
+        storedByKey.values().forEach(diff.deleted::addAll);
+        return diff;
+    }
+
+    /**
+     * Id сохранённых книг, которых нет в запросе.
+     */
+    List<Long> deletedIds() {
+        return deleted.stream()
+                .map(BookDto::getId)
+                .toList();
+    }
+
+    private record NaturalKey(String title, String author) {
+        static NaturalKey of(BookDto book) {
+            return new NaturalKey(book.getTitle(), book.getAuthor());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.edu.ulab.app.facade;
+
+/**
+ * Способ обновления книг пользователя в {@link UserDataFacade#updateUserWithBooks}.
+ */
+public enum BookUpdateMode {
+    /**
+     * Удалить все книги пользователя и вставить книги из запроса.
+     */
+    REPLACE,
+    /**
+     * Сравнить книги из запроса с сохранёнными по названию и автору и применить только разницу.
+     */
+    DIFF
+}
@@ -0,0 +1,102 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.ReactiveBookService;
+import com.edu.ulab.app.service.ReactiveUserService;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Вариант {@link UserDataFacade} на реактивном backend R2DBC: транзакции задаются {@link TransactionalOperator},
+ * потоки не блокируются в ожидании базы. Обновление всегда заменяет книги пользователя
+ * ({@link BookUpdateMode#REPLACE}).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.service.reactive", name = "enabled", havingValue = "true")
+public class ReactiveUserDataFacade {
+    private final ReactiveUserService userService;
+    private final ReactiveBookService bookService;
+    private final UserMapper userMapper;
+    private final BookMapper bookMapper;
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveUserDataFacade(ReactiveUserService userService,
+                                  ReactiveBookService bookService,
+                                  UserMapper userMapper,
+                                  BookMapper bookMapper,
+                                  TransactionalOperator transactionalOperator) {
+        this.userService = userService;
+        this.bookService = bookService;
+        this.userMapper = userMapper;
+        this.bookMapper = bookMapper;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    public Mono<UserBookResponse> createUserWithBooks(UserBookRequest userBookRequest) {
+        log.debug("Got user book create request: {}", userBookRequest);
+        UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
+
+        return userService.createUser(userDto)
+                .flatMap(createdUser -> createBooks(userBookRequest.getBookRequests(), createdUser.getId())
+                        .map(bookIds -> response(createdUser.getId(), bookIds)))
+                .doOnNext(response -> log.info("Created user {} with {} books", response.getUserId(),
+                        response.getBooksIdList().size()))
+                .as(transactionalOperator::transactional);
+    }
+
+    public Mono<UserBookResponse> updateUserWithBooks(UserBookRequest userBookRequest, Long userId) {
+        log.debug("Got user book update request: id={}, {}", userId, userBookRequest);
+        UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
+        userDto.setId(userId);
+
+        return userService.updateUser(userDto)
+                .flatMap(updatedUser -> createBooks(userBookRequest.getBookRequests(), updatedUser.getId()))
+                .map(bookIds -> response(userId, bookIds))
+                .doOnNext(response -> log.info("Updated user {} with {} books", userId,
+                        response.getBooksIdList().size()))
+                .as(transactionalOperator::transactional);
+    }
+
+    public Mono<UserBookResponse> getUserWithBooks(Long userId) {
+        log.debug("Got user with books request: userId={}", userId);
+        return userService.getUserById(userId)
+                .map(userDto -> response(userDto.getId(), userDto.getBookIds()));
+    }
+
+    public Mono<Void> deleteUserWithBooks(Long userId) {
+        log.info("Deleting user {}", userId);
+        return userService.deleteUserById(userId)
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<List<Long>> createBooks(List<BookRequest> bookRequests, Long userId) {
+        List<BookDto> bookDtos = bookRequests.stream()
+                .filter(Objects::nonNull)
+                .map(bookMapper::bookRequestToBookDto)
+                .peek(bookDto -> bookDto.setUserId(userId))
+                .toList();
+        return bookService.createBooks(bookDtos)
+                .map(BookDto::getId)
+                .collectList();
+    }
+
+    private static UserBookResponse response(Long userId, List<Long> bookIds) {
+        return UserBookResponse.builder()
+                .userId(userId)
+                .booksIdList(bookIds)
+                .build();
+    }
+}
@@ -1,51 +1,80 @@
 package com.edu.ulab.app.facade;
 
+import com.edu.ulab.app.concurrent.FanOutExecutor;
 import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.BadRequestException;
 import com.edu.ulab.app.mapper.BookMapper;
 import com.edu.ulab.app.mapper.UserMapper;
 import com.edu.ulab.app.service.BookService;
 import com.edu.ulab.app.service.UserService;
 import com.edu.ulab.app.web.request.BookRequest;
 import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.UserBatchResponse;
 import com.edu.ulab.app.web.response.UserBookResponse;
+import com.edu.ulab.app.web.response.UserPageResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * При наличии {@link FanOutExecutor} книги запроса сопоставляются в его пуле, пока в потоке запроса
+ * пишется или читается пользователь. Сервисы вызываются только из потока запроса, в его транзакции.
+ */
 @Slf4j
 @Component
 public class UserDataFacade {
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_BATCH_SIZE = 1000;
+
     private final UserService userService;
     private final BookService bookService;
     private final UserMapper userMapper;
     private final BookMapper bookMapper;
+    private final BookUpdateMode bookUpdateMode;
+    private final FanOutExecutor fanOutExecutor;
 
-    public UserDataFacade(@Qualifier("userJpaService") UserService userService,
-                          @Qualifier("bookJpaService") BookService bookService,
+    public UserDataFacade(@Qualifier("userService") UserService userService,
+                          @Qualifier("bookService") BookService bookService,
                           UserMapper userMapper,
-                          BookMapper bookMapper) {
+                          BookMapper bookMapper,
+                          @Value("${app.facade.book-update-mode:replace}") BookUpdateMode bookUpdateMode,
+                          @Nullable FanOutExecutor fanOutExecutor) {
         this.userService = userService;
         this.bookService = bookService;
         this.userMapper = userMapper;
         this.bookMapper = bookMapper;
+        this.bookUpdateMode = bookUpdateMode;
+        this.fanOutExecutor = fanOutExecutor;
     }
 
     @Transactional
     public UserBookResponse createUserWithBooks(UserBookRequest userBookRequest) {
-        log.info("Got user book create request: {}", userBookRequest);
+        log.debug("Got user book create request: {}", userBookRequest);
         UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
-        log.info("Mapped user request: {}", userDto);
+        log.debug("Mapped user request: {}", userDto);
+        CompletableFuture<List<BookDto>> mappedBooks = mapBookRequests(userBookRequest.getBookRequests());
 
         UserDto createdUser = userService.createUser(userDto);
-        log.info("Created user: {}", createdUser);
+        log.debug("Created user: {}", createdUser);
 
-        List<Long> bookIdList = createBooks(userBookRequest.getBookRequests(), createdUser.getId());
-        log.info("Collected book ids: {}", bookIdList);
+        List<Long> bookIdList = createBooks(mappedBooks, createdUser.getId());
+        log.info("Created user {} with {} books", createdUser.getId(), bookIdList.size());
+        log.debug("Collected book ids: {}", bookIdList);
 
         return UserBookResponse.builder()
                 .userId(createdUser.getId())
@@ -55,16 +84,16 @@ public class UserDataFacade {
 
     @Transactional
     public UserBookResponse updateUserWithBooks(UserBookRequest userBookRequest, Long userId) {
-        log.info("Got user book update request: id={}, {}", userId, userBookRequest);
+        log.debug("Got user book update request: id={}, {}", userId, userBookRequest);
         UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
         userDto.setId(userId);
-        log.info("Mapped user request: {}", userDto);
-
-        UserDto updatedUser = userService.updateUser(userDto);
-        log.info("Updated user: {}", updatedUser);
+        log.debug("Mapped user request: {}", userDto);
 
-        List<Long> bookIds = createBooks(userBookRequest.getBookRequests(), updatedUser.getId());
-        log.info("Collected book ids: {}", bookIds);
+        List<Long> bookIds = bookUpdateMode == BookUpdateMode.DIFF
+                ? updateUserWithBookDiff(userDto, userBookRequest.getBookRequests())
+                : replaceUserWithBooks(userDto, userBookRequest.getBookRequests());
+        log.info("Updated user {} with {} books", userId, bookIds.size());
+        log.debug("Collected book ids: {}", bookIds);
 
         return UserBookResponse.builder()
                 .userId(userId)
@@ -74,30 +103,144 @@ public class UserDataFacade {
 
     @Transactional(readOnly = true)
     public UserBookResponse getUserWithBooks(Long userId) {
-        log.info("Got user with books request: userId={}", userId);
+        log.debug("Got user with books request: userId={}", userId);
         UserDto userDto = userService.getUserById(userId);
-        log.info("Mapped user: {}", userDto);
+        log.debug("Mapped user: {}", userDto);
         return UserBookResponse.builder()
                 .userId(userDto.getId())
                 .booksIdList(userDto.getBookIds())
                 .build();
     }
 
+    /**
+     * Читает пользователей одним обращением к сервису. Повторяющиеся id возвращаются один раз,
+     * ненайденные перечисляются в {@link UserBatchResponse#getMissingIds()}.
+     */
+    @Transactional(readOnly = true)
+    public UserBatchResponse getUsersWithBooks(List<Long> userIds) {
+        if (userIds == null || userIds.isEmpty() || userIds.size() > MAX_BATCH_SIZE || userIds.contains(null)) {
+            throw new BadRequestException("Request must contain from 1 to " + MAX_BATCH_SIZE + " user ids");
+        }
+        Set<Long> requestedIds = new LinkedHashSet<>(userIds);
+        Map<Long, UserDto> foundUsers = userService.getUsersByIds(requestedIds).stream()
+                .collect(Collectors.toMap(UserDto::getId, Function.identity()));
+        log.debug("Found {} of {} requested users", foundUsers.size(), requestedIds.size());
+
+        List<UserBookResponse> users = new ArrayList<>(foundUsers.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            UserDto userDto = foundUsers.get(id);
+            if (userDto == null) {
+                missingIds.add(id);
+            } else {
+                users.add(UserBookResponse.builder()
+                        .userId(userDto.getId())
+                        .booksIdList(userDto.getBookIds())
+                        .build());
+            }
+        }
+        return UserBatchResponse.builder()
+                .users(users)
+                .missingIds(missingIds)
+                .build();
+    }
+
+    /**
+     * Keyset-пагинация по id: читается на одного пользователя больше страницы, чтобы знать, есть ли следующая.
+     */
+    @Transactional(readOnly = true)
+    public UserPageResponse getUsersPage(String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Long afterId = cursor == null || cursor.isEmpty() ? null : UserPageCursor.decode(cursor);
+        List<UserDto> users = userService.getUsersAfter(afterId, limit + 1);
+        boolean hasNextPage = users.size() > limit;
+        List<UserDto> page = hasNextPage ? users.subList(0, limit) : users;
+        log.debug("Got page of {} users after {}", page.size(), afterId);
+
+        return UserPageResponse.builder()
+                .users(page.stream()
+                        .map(userDto -> UserBookResponse.builder()
+                                .userId(userDto.getId())
+                                .booksIdList(userDto.getBookIds())
+                                .build())
+                        .toList())
+                .nextCursor(hasNextPage ? UserPageCursor.encode(page.get(page.size() - 1).getId()) : null)
+                .build();
+    }
+
     @Transactional
     public void deleteUserWithBooks(Long userId) {
-        log.info("Got delete user request: userId={}", userId);
+        log.info("Deleting user {}", userId);
         userService.deleteUserById(userId);
     }
 
-    private List<Long> createBooks(List<BookRequest> bookRequests, Long userId) {
-        return bookRequests.stream()
-                .filter(Objects::nonNull)
-                .map(bookMapper::bookRequestToBookDto)
-                .peek(bookDto -> bookDto.setUserId(userId))
-                .peek(mappedBookDto -> log.info("mapped book: {}", mappedBookDto))
-                .map(bookService::createBook)
-                .peek(createdBook -> log.info("Created book: {}", createdBook))
+    private List<Long> replaceUserWithBooks(UserDto userDto, List<BookRequest> bookRequests) {
+        CompletableFuture<List<BookDto>> mappedBooks = mapBookRequests(bookRequests);
+        UserDto updatedUser = userService.updateUser(userDto);
+        log.debug("Updated user: {}", updatedUser);
+
+        return createBooks(mappedBooks, updatedUser.getId());
+    }
+
+    /**
+     * Сравнивает книги из запроса с сохранёнными и применяет только изменения через
+     * {@link BookService#applyBookDiff}: лишние книги удаляются, изменённые обновляются, новые вставляются.
+     * Поля пользователя обновляются без его книг, неизменённые книги не трогаются.
+     *
+     * @return id книг в порядке запроса
+     */
+    private List<Long> updateUserWithBookDiff(UserDto userDto, List<BookRequest> bookRequests) {
+        CompletableFuture<List<BookDto>> mappedBooks = mapBookRequests(bookRequests);
+        List<BookDto> storedBooks = bookService.getBooksByUserId(userDto.getId());
+        List<BookDto> requestedBooks = withUserId(FanOutExecutor.join(mappedBooks), userDto.getId());
+        BookDiff diff = BookDiff.of(storedBooks, requestedBooks);
+        log.debug("Book diff for user {}: {} unchanged, {} updated, {} inserted, {} deleted", userDto.getId(),
+                diff.getUnchanged().size(), diff.getUpdated().size(), diff.getInserted().size(),
+                diff.getDeleted().size());
+
+        UserDto updatedUser = userService.updateUserDetails(userDto);
+        log.debug("Updated user: {}", updatedUser);
+
+        List<BookDto> createdBooks = bookService.applyBookDiff(userDto.getId(), diff.deletedIds(),
+                diff.getUpdated(), diff.getInserted());
+        log.debug("Created books: {}", createdBooks);
+        Iterator<Long> insertedIds = createdBooks.stream()
                 .map(BookDto::getId)
+                .iterator();
+        return requestedBooks.stream()
+                .map(book -> book.getId() != null ? book.getId() : insertedIds.next())
                 .toList();
     }
+
+    private List<Long> createBooks(CompletableFuture<List<BookDto>> mappedBooks, Long userId) {
+        List<BookDto> createdBooks = bookService.createBooks(withUserId(FanOutExecutor.join(mappedBooks), userId));
+        log.debug("Created books: {}", createdBooks);
+        return createdBooks.stream()
+                .map(BookDto::getId)
+                .toList();
+    }
+
+    /**
+     * Сопоставляет книги запроса без обращения к сервисам: в пуле {@link FanOutExecutor}, если он есть,
+     * иначе сразу в вызывающем потоке.
+     */
+    private CompletableFuture<List<BookDto>> mapBookRequests(List<BookRequest> bookRequests) {
+        List<BookRequest> nonNullRequests = bookRequests.stream()
+                .filter(Objects::nonNull)
+                .toList();
+        if (fanOutExecutor == null) {
+            return CompletableFuture.completedFuture(nonNullRequests.stream()
+                    .map(bookMapper::bookRequestToBookDto)
+                    .toList());
+        }
+        return fanOutExecutor.mapAsync(nonNullRequests, bookMapper::bookRequestToBookDto);
+    }
+
+    private static List<BookDto> withUserId(List<BookDto> bookDtos, Long userId) {
+        bookDtos.forEach(bookDto -> bookDto.setUserId(userId));
+        log.debug("Mapped books: {}", bookDtos);
+        return bookDtos;
+    }
 }
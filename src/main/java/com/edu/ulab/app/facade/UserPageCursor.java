@@ -0,0 +1,39 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.exception.BadRequestException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор страницы пользователей: id последнего пользователя страницы в base64url.
+ * Клиент передаёт его обратно как есть, формат можно менять без изменения API.
+ */
+final class UserPageCursor {
+    private static final byte VERSION = 1;
+    private static final int SIZE = 1 + Long.BYTES;
+
+    private UserPageCursor() {
+    }
+
+    static String encode(long lastUserId) {
+        byte[] bytes = ByteBuffer.allocate(SIZE)
+                .put(VERSION)
+                .putLong(lastUserId)
+                .array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    static long decode(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid page cursor: " + cursor);
+        }
+        if (bytes.length != SIZE || bytes[0] != VERSION) {
+            throw new BadRequestException("Invalid page cursor: " + cursor);
+        }
+        return ByteBuffer.wrap(bytes, 1, Long.BYTES).getLong();
+    }
+}
@@ -2,16 +2,41 @@ package com.edu.ulab.app.mapper;
 
 import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.storage.jpa.PersonView;
 import com.edu.ulab.app.web.request.UserRequest;
+import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.ReportingPolicy;
 
-@Mapper(componentModel = "spring")
+/**
+ * Свойства, которые не переносятся, перечислены явно: id книг и книги заполняют сервисы,
+ * а новое свойство без сопоставления не компилируется.
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
 public interface UserMapper {
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "bookIds", ignore = true)
     UserDto userRequestToUserDto(UserRequest userRequest);
 
     UserRequest userDtoToUserRequest(UserDto userDto);
 
+    @Mapping(target = "books", ignore = true)
     Person userDtoToUserEntity(UserDto userDto);
 
+    /**
+     * Переносит только поля пользователя в загруженную сущность: id остаётся от сущности,
+     * а книги по {@link UserDto#getBookIds()} сервис удаляет отдельным запросом, не загружая коллекцию.
+     */
+    @BeanMapping(ignoreUnmappedSourceProperties = "bookIds")
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "books", ignore = true)
+    void updateUserEntity(UserDto userDto, @MappingTarget Person person);
+
+    @Mapping(target = "bookIds", ignore = true)
     UserDto userEntityToUserDto(Person person);
+
+    @Mapping(target = "bookIds", source = "bookIds")
+    UserDto personViewToUserDto(PersonView personView);
 }
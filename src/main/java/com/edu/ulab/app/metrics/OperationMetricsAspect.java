@@ -0,0 +1,113 @@
+package com.edu.ulab.app.metrics;
+
+import com.edu.ulab.app.service.ServiceBackend;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.service.impl.BookServiceInMemoryImpl;
+import com.edu.ulab.app.service.impl.BookServiceJpaImpl;
+import com.edu.ulab.app.service.impl.BookServiceTemplateImpl;
+import com.edu.ulab.app.service.impl.CachingUserService;
+import com.edu.ulab.app.service.impl.CoalescingUserService;
+import com.edu.ulab.app.service.impl.UserServiceInMemoryImpl;
+import com.edu.ulab.app.service.impl.UserServiceJpaImpl;
+import com.edu.ulab.app.service.impl.UserServiceTemplateImpl;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Таймеры с гистограммами для методов {@link com.edu.ulab.app.facade.UserDataFacade} и всех реализаций
+ * {@link UserService}/{@link com.edu.ulab.app.service.BookService} с тегами {@code layer}, {@code backend},
+ * {@code operation} и {@code exception}. Для операций фасада дополнительно записываются число книг в запросе
+ * и число выполненных JDBC-запросов.
+ */
+@Aspect
+@Component
+public class OperationMetricsAspect {
+    public static final String OPERATION_TIMER = "app.operation";
+    public static final String BOOKS_PER_REQUEST = "app.facade.books.per.request";
+    public static final String STATEMENTS_PER_REQUEST = "app.facade.db.statements.per.request";
+
+    private static final String CACHE_BACKEND = "cache";
+    private static final String COALESCING_BACKEND = "coalescing";
+    private static final Map<Class<?>, String> SERVICE_BACKENDS = Map.of(
+            UserServiceJpaImpl.class, ServiceBackend.JPA.getMetricTag(),
+            BookServiceJpaImpl.class, ServiceBackend.JPA.getMetricTag(),
+            UserServiceTemplateImpl.class, ServiceBackend.TEMPLATE.getMetricTag(),
+            BookServiceTemplateImpl.class, ServiceBackend.TEMPLATE.getMetricTag(),
+            UserServiceInMemoryImpl.class, ServiceBackend.IN_MEMORY.getMetricTag(),
+            BookServiceInMemoryImpl.class, ServiceBackend.IN_MEMORY.getMetricTag(),
+            CachingUserService.class, CACHE_BACKEND,
+            CoalescingUserService.class, COALESCING_BACKEND);
+
+    private final MeterRegistry registry;
+    private final String facadeBackend;
+
+    public OperationMetricsAspect(MeterRegistry registry,
+                                  @Value("${app.service.backend:jpa}") ServiceBackend backend) {
+        this.registry = registry;
+        this.facadeBackend = backend.getMetricTag();
+    }
+
+    @Around("within(com.edu.ulab.app.facade.UserDataFacade) && execution(public * *(..))")
+    public Object timeFacadeOperation(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        for (Object arg : joinPoint.getArgs()) {
+            if (arg instanceof UserBookRequest request && request.getBookRequests() != null) {
+                DistributionSummary.builder(BOOKS_PER_REQUEST)
+                        .tag("operation", operation)
+                        .publishPercentileHistogram()
+                        .register(registry)
+                        .record(request.getBookRequests().size());
+            }
+        }
+
+        long statementsBefore = StatementCounter.current();
+        try {
+            return time("facade", facadeBackend, operation, joinPoint);
+        } finally {
+            DistributionSummary.builder(STATEMENTS_PER_REQUEST)
+                    .tag("operation", operation)
+                    .tag("backend", facadeBackend)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(StatementCounter.current() - statementsBefore);
+        }
+    }
+
+    @Around("execution(public * com.edu.ulab.app.service.UserService+.*(..)) "
+            + "|| execution(public * com.edu.ulab.app.service.BookService+.*(..))")
+    public Object timeServiceOperation(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object target = joinPoint.getTarget();
+        String service = target instanceof UserService ? "UserService" : "BookService";
+        String backend = SERVICE_BACKENDS.getOrDefault(target.getClass(), target.getClass().getSimpleName());
+        return time("service", backend, service + "." + joinPoint.getSignature().getName(), joinPoint);
+    }
+
+    private Object time(String layer, String backend, String operation, ProceedingJoinPoint joinPoint)
+            throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            exception = ex.getClass().getSimpleName();
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder(OPERATION_TIMER)
+                    .tag("layer", layer)
+                    .tag("backend", backend)
+                    .tag("operation", operation)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.edu.ulab.app.metrics;
+
+/**
+ * Счётчик выполненных JDBC-запросов текущего потока. Значение только растёт,
+ * число запросов операции - разность значений до и после неё.
+ */
+public final class StatementCounter {
+    private static final ThreadLocal<long[]> EXECUTED = ThreadLocal.withInitial(() -> new long[1]);
+
+    private StatementCounter() {
+    }
+
+    public static long current() {
+        return EXECUTED.get()[0];
+    }
+
+    static void increment() {
+        EXECUTED.get()[0]++;
+    }
+}
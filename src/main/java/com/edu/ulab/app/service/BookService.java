@@ -3,12 +3,28 @@ package com.edu.ulab.app.service;
 
 import com.edu.ulab.app.dto.BookDto;
 
+import java.util.List;
+
 public interface BookService {
     BookDto createBook(BookDto bookDto);
 
+    List<BookDto> createBooks(List<BookDto> bookDtos);
+
     BookDto updateBook(BookDto bookDto);
 
+    List<BookDto> updateBooks(List<BookDto> bookDtos);
+
     BookDto getBookById(Long id);
 
+    List<BookDto> getBooksByUserId(Long userId);
+
     void deleteBookById(Long id);
+
+    /**
+     * Применяет к книгам пользователя разницу: удаляет книги {@code deletedIds}, обновляет {@code updated}
+     * и вставляет {@code inserted}. Остальные книги пользователя не затрагиваются.
+     *
+     * @return вставленные книги с выданными id
+     */
+    List<BookDto> applyBookDiff(Long userId, List<Long> deletedIds, List<BookDto> updated, List<BookDto> inserted);
 }
@@ -0,0 +1,16 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.dto.BookDto;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Неблокирующий вариант {@link BookService}.
+ */
+public interface ReactiveBookService {
+    /**
+     * @return созданные книги в порядке аргумента
+     */
+    Flux<BookDto> createBooks(List<BookDto> bookDtos);
+}
@@ -0,0 +1,21 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.dto.UserDto;
+import reactor.core.publisher.Mono;
+
+/**
+ * Неблокирующий вариант {@link UserService}. Методы не открывают транзакцию сами,
+ * границы транзакции задаёт вызывающий код.
+ */
+public interface ReactiveUserService {
+    Mono<UserDto> createUser(UserDto userDto);
+
+    /**
+     * Обновляет пользователя и удаляет его книги, кроме перечисленных в {@link UserDto#getBookIds()}.
+     */
+    Mono<UserDto> updateUser(UserDto userDto);
+
+    Mono<UserDto> getUserById(Long id);
+
+    Mono<Void> deleteUserById(Long id);
+}
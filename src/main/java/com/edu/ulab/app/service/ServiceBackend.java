@@ -0,0 +1,22 @@
+package com.edu.ulab.app.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Реализация сервисов пользователей и книг, с которой работает фасад.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ServiceBackend {
+    JPA("userJpaService", "bookJpaService", "jpa"),
+    TEMPLATE("userTemplateService", "bookTemplateService", "template"),
+    IN_MEMORY("userInMemoryService", "bookInMemoryService", "inmemory");
+
+    private final String userServiceName;
+    private final String bookServiceName;
+    /**
+     * Значение тега {@code backend} в метриках.
+     */
+    private final String metricTag;
+}
@@ -0,0 +1,14 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.web.response.UserExportRow;
+
+import java.util.function.Consumer;
+
+public interface UserExportService {
+    /**
+     * Передаёт всех пользователей в порядке id по одному, не загружая таблицу в память.
+     *
+     * @return количество выгруженных пользователей
+     */
+    long exportUsers(Consumer<UserExportRow> rows);
+}
@@ -0,0 +1,17 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.web.response.UserImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface UserImportService {
+    /**
+     * Импортирует пользователей с книгами из JSON-массива или NDJSON, не загружая тело целиком в память.
+     *
+     * @param chunkResults получает результаты каждого чанка в порядке записей
+     */
+    void importUsers(InputStream body, Consumer<List<UserImportResult>> chunkResults) throws IOException;
+}
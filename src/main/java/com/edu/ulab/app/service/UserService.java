@@ -2,12 +2,32 @@ package com.edu.ulab.app.service;
 
 import com.edu.ulab.app.dto.UserDto;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface UserService {
     UserDto createUser(UserDto userDto);
 
     UserDto updateUser(UserDto userDto);
 
+    /**
+     * Обновляет поля пользователя, не затрагивая его книги, в отличие от {@link #updateUser(UserDto)}.
+     */
+    UserDto updateUserDetails(UserDto userDto);
+
     UserDto getUserById(Long id);
 
     void deleteUserById(Long id);
+
+    /**
+     * Пользователи с id книг по списку id. Отсутствующие пользователи пропускаются, порядок не гарантируется.
+     */
+    List<UserDto> getUsersByIds(Collection<Long> ids);
+
+    /**
+     * Страница пользователей с id книг в порядке id, начиная после {@code afterId} (keyset-пагинация).
+     *
+     * @param afterId id последнего пользователя предыдущей страницы или {@code null} для первой страницы
+     */
+    List<UserDto> getUsersAfter(Long afterId, int limit);
 }
@@ -1,5 +1,6 @@
 package com.edu.ulab.app.service.impl;
 
+import com.edu.ulab.app.concurrent.FanOutExecutor;
 import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.exception.EntityDoesNotExistException;
@@ -7,16 +8,26 @@ import com.edu.ulab.app.exception.NotFoundException;
 import com.edu.ulab.app.mapper.BookMapper;
 import com.edu.ulab.app.service.BookService;
 import com.edu.ulab.app.storage.memory.BookInMemoryRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.function.Function;
+
 @Slf4j
 @Service("bookInMemoryService")
-@RequiredArgsConstructor
 public class BookServiceInMemoryImpl implements BookService {
     private final BookInMemoryRepository repository;
     private final BookMapper mapper;
+    private final FanOutExecutor fanOutExecutor;
+
+    public BookServiceInMemoryImpl(BookInMemoryRepository repository, BookMapper mapper,
+                                   @Nullable FanOutExecutor fanOutExecutor) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.fanOutExecutor = fanOutExecutor;
+    }
 
     @Override
     public BookDto createBook(BookDto bookDto) {
@@ -25,6 +36,16 @@ public class BookServiceInMemoryImpl implements BookService {
         return mapper.bookEntityToBookDto(savedBook);
     }
 
+    /**
+     * Книги сохраняются в хранилище одним вызовом, сопоставление до и после него при наличии
+     * {@link FanOutExecutor} идёт на нескольких ядрах.
+     */
+    @Override
+    public List<BookDto> createBooks(List<BookDto> bookDtos) {
+        List<Book> books = map(bookDtos, mapper::bookDtoToBookEntity);
+        return map(repository.saveAll(books), mapper::bookEntityToBookDto);
+    }
+
     @Override
     public BookDto updateBook(BookDto bookDto) {
         try {
@@ -36,6 +57,13 @@ public class BookServiceInMemoryImpl implements BookService {
         }
     }
 
+    @Override
+    public List<BookDto> updateBooks(List<BookDto> bookDtos) {
+        return bookDtos.stream()
+                .map(this::updateBook)
+                .toList();
+    }
+
     @Override
     public BookDto getBookById(Long id) {
         return mapper.bookEntityToBookDto(
@@ -43,8 +71,36 @@ public class BookServiceInMemoryImpl implements BookService {
                         .orElseThrow(() -> new NotFoundException("Book with id " + id + " not found")));
     }
 
+    @Override
+    public List<BookDto> getBooksByUserId(Long userId) {
+        return repository.getAllBooksByUserId(userId).stream()
+                .map(mapper::bookEntityToBookDto)
+                .toList();
+    }
+
     @Override
     public void deleteBookById(Long id) {
         repository.deleteBookById(id);
     }
+
+    /**
+     * Разница применяется одним вызовом хранилища, затрагиваются только перечисленные книги.
+     */
+    @Override
+    public List<BookDto> applyBookDiff(Long userId, List<Long> deletedIds, List<BookDto> updated,
+                                       List<BookDto> inserted) {
+        try {
+            List<Book> insertedBooks = repository.applyDiff(userId, deletedIds,
+                    map(updated, mapper::bookDtoToBookEntity), map(inserted, mapper::bookDtoToBookEntity));
+            return map(insertedBooks, mapper::bookEntityToBookDto);
+        } catch (EntityDoesNotExistException ex) {
+            throw new NotFoundException(ex);
+        }
+    }
+
+    private <T, R> List<R> map(List<T> items, Function<? super T, ? extends R> function) {
+        return fanOutExecutor == null
+                ? items.stream().<R>map(function).toList()
+                : fanOutExecutor.map(items, function);
+    }
 }
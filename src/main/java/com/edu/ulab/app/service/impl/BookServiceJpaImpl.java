@@ -1,5 +1,6 @@
 package com.edu.ulab.app.service.impl;
 
+import com.edu.ulab.app.cache.CacheInvalidationPublisher;
 import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.exception.NotFoundException;
@@ -10,22 +11,25 @@ import com.edu.ulab.app.storage.jpa.BookJpaRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Slf4j
 @Service("bookJpaService")
 @RequiredArgsConstructor
 public class BookServiceJpaImpl implements BookService {
     private final BookJpaRepository repository;
     private final BookMapper mapper;
+    private final CacheInvalidationPublisher invalidationPublisher;
 
     @Override
     public BookDto createBook(BookDto bookDto) {
         try {
             Book book = mapper.bookDtoToBookEntity(bookDto);
             Book savedBook = repository.save(book);
-            log.info("Created book jpa entity: {}", savedBook);
+            log.debug("Created book jpa entity: {}", savedBook);
+            invalidationPublisher.userChanged(savedBook.getUserId());
             return mapper.bookEntityToBookDto(savedBook);
 
         } catch (DataAccessException ex) {
@@ -33,17 +37,56 @@ public class BookServiceJpaImpl implements BookService {
         }
     }
 
+    @Override
+    public List<BookDto> createBooks(List<BookDto> bookDtos) {
+        try {
+            List<Book> books = bookDtos.stream()
+                    .map(mapper::bookDtoToBookEntity)
+                    .toList();
+            List<Book> savedBooks = repository.saveAll(books);
+            log.info("Created {} book jpa entities", savedBooks.size());
+            invalidationPublisher.usersChanged(savedBooks.stream().map(Book::getUserId).toList());
+            return savedBooks.stream()
+                    .map(mapper::bookEntityToBookDto)
+                    .toList();
+
+        } catch (DataAccessException ex) {
+            throw new ServiceException(ex);
+        }
+    }
+
     @Override
     public BookDto updateBook(BookDto bookDto) {
         try {
             Book book = mapper.bookDtoToBookEntity(bookDto);
-            if (repository.existsById(book.getId())) {
-                Book savedBook = repository.save(book);
-                log.info("Updated book jpa entity: {}", savedBook);
-                return mapper.bookEntityToBookDto(savedBook);
-            } else {
-                throw new NotFoundException("Book with id " + book.getId() + " not found");
-            }
+            Book storedBook = repository.findById(book.getId())
+                    .orElseThrow(() -> new NotFoundException("Book with id " + book.getId() + " not found"));
+            invalidationPublisher.userChanged(storedBook.getUserId());
+            Book savedBook = repository.save(book);
+            log.debug("Updated book jpa entity: {}", savedBook);
+            invalidationPublisher.userChanged(savedBook.getUserId());
+            return mapper.bookEntityToBookDto(savedBook);
+
+        } catch (DataAccessException ex) {
+            throw new ServiceException(ex);
+        }
+    }
+
+    /**
+     * Обновляет существующие книги, UPDATE отправляются одним JDBC batch при flush.
+     */
+    @Override
+    public List<BookDto> updateBooks(List<BookDto> bookDtos) {
+        try {
+            List<Book> books = bookDtos.stream()
+                    .map(mapper::bookDtoToBookEntity)
+                    .toList();
+            List<Book> savedBooks = repository.saveAll(books);
+            log.info("Updated {} book jpa entities", savedBooks.size());
+            invalidationPublisher.usersChanged(savedBooks.stream().map(Book::getUserId).toList());
+            return savedBooks.stream()
+                    .map(mapper::bookEntityToBookDto)
+                    .toList();
 
         } catch (DataAccessException ex) {
             throw new ServiceException(ex);
@@ -62,15 +105,47 @@ public class BookServiceJpaImpl implements BookService {
         }
     }
 
+    @Override
+    public List<BookDto> getBooksByUserId(Long userId) {
+        try {
+            return repository.findAllByUserIdOrderById(userId).stream()
+                    .map(mapper::bookEntityToBookDto)
+                    .toList();
+
+        } catch (DataAccessException ex) {
+            throw new ServiceException(ex);
+        }
+    }
+
     @Override
     public void deleteBookById(Long id) {
         try {
-            repository.deleteById(id);
-        } catch (EmptyResultDataAccessException ex) {
-            throw new NotFoundException("Book with id " + id + " does not exist - deleted nothing");
+            Book book = repository.findById(id)
+                    .orElseThrow(() -> new NotFoundException("Book with id " + id + " does not exist - deleted nothing"));
+            repository.delete(book);
+            invalidationPublisher.userChanged(book.getUserId());
         } catch (DataAccessException ex) {
             throw new ServiceException(ex);
         }
     }
 
+    /**
+     * Удаляет книги одним DELETE, обновления и вставки отправляются batch-ами при flush.
+     */
+    @Override
+    public List<BookDto> applyBookDiff(Long userId, List<Long> deletedIds, List<BookDto> updated,
+                                       List<BookDto> inserted) {
+        if (!deletedIds.isEmpty()) {
+            try {
+                int deletedBooks = repository.deleteAllByUserIdAndIdIn(userId, deletedIds);
+                log.debug("Deleted {} books of user {}", deletedBooks, userId);
+                invalidationPublisher.userChanged(userId);
+            } catch (DataAccessException ex) {
+                throw new ServiceException(ex);
+            }
+        }
+        updateBooks(updated);
+        return createBooks(inserted);
+    }
+
 }
@@ -0,0 +1,90 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.exception.ServiceException;
+import com.edu.ulab.app.service.ReactiveBookService;
+import com.edu.ulab.app.storage.jdbc.PooledIdAllocator;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Slf4j
+@Service("bookR2dbcService")
+@ConditionalOnProperty(prefix = "app.service.reactive", name = "enabled", havingValue = "true")
+public class BookServiceR2dbcImpl implements ReactiveBookService {
+    private static final String NEXT_BLOCKS_SQL = "SELECT nextval($1::regclass) FROM generate_series(1, $2)";
+    private static final String INSERT_SQL =
+            "INSERT INTO ulab_edu.book(ID, USER_ID, TITLE, AUTHOR, PAGE_COUNT) VALUES ($1, $2, $3, $4, $5)";
+
+    private final DatabaseClient databaseClient;
+
+    public BookServiceR2dbcImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Выделяет id одним запросом, как {@link PooledIdAllocator}, и вставляет книги одним statement
+     * с набором привязок на каждую книгу: драйвер отправляет все вставки на одно соединение,
+     * не дожидаясь ответа на предыдущую.
+     */
+    @Override
+    public Flux<BookDto> createBooks(List<BookDto> bookDtos) {
+        if (bookDtos.isEmpty()) {
+            return Flux.empty();
+        }
+
+        return databaseClient.sql(NEXT_BLOCKS_SQL)
+                .bind(0, PooledIdAllocator.BOOK_SEQUENCE)
+                .bind(1, PooledIdAllocator.blocksFor(bookDtos.size()))
+                .map(row -> row.get(0, Long.class))
+                .all()
+                .collectList()
+                .flatMap(blockStarts -> {
+                    long[] ids = PooledIdAllocator.expand(blockStarts, bookDtos.size());
+                    for (int i = 0; i < ids.length; i++) {
+                        bookDtos.get(i).setId(ids[i]);
+                    }
+                    return databaseClient.inConnectionMany(connection -> {
+                        Statement statement = connection.createStatement(INSERT_SQL);
+                        for (int i = 0; i < bookDtos.size(); i++) {
+                            if (i > 0) {
+                                statement.add();
+                            }
+                            bindBook(statement, bookDtos.get(i));
+                        }
+                        return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+                    }).then();
+                })
+                .doOnSuccess(ignored -> log.info("Created {} books", bookDtos.size()))
+                .thenMany(Flux.fromIterable(bookDtos))
+                .onErrorMap(DataAccessException.class, ServiceException::new);
+    }
+
+    private static void bindBook(Statement statement, BookDto book) {
+        statement.bind(0, book.getId());
+        if (book.getUserId() == null) {
+            statement.bindNull(1, Long.class);
+        } else {
+            statement.bind(1, book.getUserId());
+        }
+        bind(statement, 2, book.getTitle());
+        bind(statement, 3, book.getAuthor());
+        statement.bind(4, book.getPageCount());
+    }
+
+    private static void bind(Statement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index, String.class);
+        } else {
+            statement.bind(index, value);
+        }
+    }
+}
@@ -1,20 +1,26 @@
 package com.edu.ulab.app.service.impl;
 
+import com.edu.ulab.app.cache.CacheInvalidationPublisher;
 import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.exception.NotFoundException;
 import com.edu.ulab.app.exception.ServiceException;
 import com.edu.ulab.app.mapper.BookMapper;
 import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.storage.jdbc.PooledIdAllocator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Service("bookTemplateService")
@@ -24,52 +30,101 @@ public class BookServiceTemplateImpl implements BookService {
 
     private final JdbcTemplate jdbcTemplate;
     private final BookMapper mapper;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final PooledIdAllocator idAllocator;
 
     private static final BeanPropertyRowMapper<Book> bookRowMapper = new BeanPropertyRowMapper<>(Book.class);
 
+    /**
+     * Вставляет книгу одним запросом: id берётся из {@code book_sequence} в самом INSERT.
+     */
     @Override
     public BookDto createBook(BookDto bookDto) {
-        final String INSERT_SQL = "INSERT INTO BOOK(TITLE, AUTHOR, PAGE_COUNT, USER_ID) VALUES (?,?,?,?)";
-        KeyHolder keyHolder = new GeneratedKeyHolder();
+        final String INSERT_SQL = """
+                INSERT INTO ulab_edu.book(ID, TITLE, AUTHOR, PAGE_COUNT, USER_ID)
+                VALUES (nextval('ulab_edu.book_sequence'), ?, ?, ?, ?)
+                RETURNING ID""";
 
         try {
-            jdbcTemplate.update(
-                    connection -> {
-                        var ps = connection.prepareStatement(INSERT_SQL, new String[]{"id"});
-                        ps.setString(1, bookDto.getTitle());
-                        ps.setString(2, bookDto.getAuthor());
-                        ps.setLong(3, bookDto.getPageCount());
-                        ps.setLong(4, bookDto.getUserId());
-                        return ps;
-                    },
-                    keyHolder);
+            Long id = jdbcTemplate.queryForObject(INSERT_SQL, Long.class,
+                    bookDto.getTitle(),
+                    bookDto.getAuthor(),
+                    bookDto.getPageCount(),
+                    bookDto.getUserId());
+            bookDto.setId(id);
+            invalidationPublisher.userChanged(bookDto.getUserId());
         } catch (DataAccessException ex) {
             throw new ServiceException(ex);
         }
 
-        bookDto.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
         log.info("Created book with id {}", bookDto.getId());
         return bookDto;
     }
 
+    /**
+     * Выделяет id книг одним запросом к {@code book_sequence} через {@link PooledIdAllocator}
+     * и вставляет книги одним JDBC batch. Одна книга вставляется через {@link #createBook(BookDto)}.
+     */
+    @Override
+    public List<BookDto> createBooks(List<BookDto> bookDtos) {
+        final String INSERT_SQL = "INSERT INTO ulab_edu.book(ID, TITLE, AUTHOR, PAGE_COUNT, USER_ID) VALUES (?,?,?,?,?)";
+        if (bookDtos.isEmpty()) {
+            return bookDtos;
+        }
+        if (bookDtos.size() == 1) {
+            createBook(bookDtos.get(0));
+            return bookDtos;
+        }
+
+        try {
+            long[] ids = idAllocator.allocate(PooledIdAllocator.BOOK_SEQUENCE, bookDtos.size());
+            for (int i = 0; i < bookDtos.size(); i++) {
+                bookDtos.get(i).setId(ids[i]);
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, bookDtos, bookDtos.size(), (ps, bookDto) -> {
+                ps.setLong(1, bookDto.getId());
+                ps.setString(2, bookDto.getTitle());
+                ps.setString(3, bookDto.getAuthor());
+                ps.setLong(4, bookDto.getPageCount());
+                ps.setLong(5, bookDto.getUserId());
+            });
+            invalidationPublisher.usersChanged(bookDtos.stream().map(BookDto::getUserId).toList());
+        } catch (DataAccessException ex) {
+            throw new ServiceException(ex);
+        }
+
+        log.info("Created {} books", bookDtos.size());
+        return bookDtos;
+    }
+
+    /**
+     * Обновляет книгу одним запросом, который возвращает прежнего владельца: при переносе книги
+     * изменения публикуются и для прежнего, и для нового пользователя.
+     */
     @Override
     public BookDto updateBook(BookDto bookDto) {
-        final String UPDATE_SQL = "UPDATE BOOK SET TITLE=?, AUTHOR=?, PAGE_COUNT=?, USER_ID=? WHERE ID=?";
+        final String UPDATE_SQL = """
+                UPDATE ulab_edu.book b SET TITLE=?, AUTHOR=?, PAGE_COUNT=?, USER_ID=?
+                FROM (SELECT ID, USER_ID FROM ulab_edu.book WHERE ID=? FOR UPDATE) old
+                WHERE b.ID = old.ID
+                RETURNING old.USER_ID""";
 
-        int updateCount;
+        List<Long> previousOwnerIds;
         try {
-            updateCount = jdbcTemplate.update(UPDATE_SQL,
+            previousOwnerIds = jdbcTemplate.queryForList(UPDATE_SQL, Long.class,
                     bookDto.getTitle(),
                     bookDto.getAuthor(),
                     bookDto.getPageCount(),
                     bookDto.getUserId(),
                     Objects.requireNonNull(bookDto.getId()));
-
+            if (!previousOwnerIds.isEmpty()) {
+                invalidationPublisher.usersChanged(List.of(previousOwnerIds.get(0), bookDto.getUserId()));
+            }
         } catch (DataAccessException ex) {
             throw new ServiceException(ex);
         }
 
-        if (updateCount > 0) {
+        if (!previousOwnerIds.isEmpty()) {
             log.info("Updated book with id {}", bookDto.getId());
             return bookDto;
         } else {
@@ -77,9 +132,90 @@ public class BookServiceTemplateImpl implements BookService {
         }
     }
 
+    /**
+     * Обновляет книги одним JDBC batch. Прежние владельцы читаются заранее одним запросом с блокировкой строк,
+     * изменения публикуются для прежних и новых владельцев обновлённых книг.
+     */
+    @Override
+    public List<BookDto> updateBooks(List<BookDto> bookDtos) {
+        final String SELECT_OWNERS_SQL = "SELECT ID, USER_ID FROM ulab_edu.book WHERE ID = ANY(?) FOR UPDATE";
+        final String UPDATE_SQL = "UPDATE ulab_edu.book SET TITLE=?, AUTHOR=?, PAGE_COUNT=?, USER_ID=? WHERE ID=?";
+        if (bookDtos.isEmpty()) {
+            return bookDtos;
+        }
+
+        int[][] updateCounts;
+        try {
+            Map<Long, Long> previousOwnerIds = new HashMap<>();
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(SELECT_OWNERS_SQL);
+                ps.setArray(1, connection.createArrayOf("bigint",
+                        bookDtos.stream().map(BookDto::getId).map(Objects::requireNonNull).toArray()));
+                return ps;
+            }, (RowCallbackHandler) rs -> previousOwnerIds.put(rs.getLong("ID"), rs.getLong("USER_ID")));
+
+            updateCounts = jdbcTemplate.batchUpdate(UPDATE_SQL, bookDtos, bookDtos.size(), (ps, bookDto) -> {
+                ps.setString(1, bookDto.getTitle());
+                ps.setString(2, bookDto.getAuthor());
+                ps.setLong(3, bookDto.getPageCount());
+                ps.setLong(4, bookDto.getUserId());
+                ps.setLong(5, bookDto.getId());
+            });
+
+            List<Long> changedUserIds = new ArrayList<>();
+            for (int i = 0; i < bookDtos.size(); i++) {
+                if (updateCounts[0][i] != 0) {
+                    changedUserIds.add(previousOwnerIds.get(bookDtos.get(i).getId()));
+                    changedUserIds.add(bookDtos.get(i).getUserId());
+                }
+            }
+            invalidationPublisher.usersChanged(changedUserIds);
+        } catch (DataAccessException ex) {
+            throw new ServiceException(ex);
+        }
+
+        for (int i = 0; i < bookDtos.size(); i++) {
+            if (updateCounts[0][i] == 0) {
+                throw new NotFoundException("Book with id " + bookDtos.get(i).getId() + " not found");
+            }
+        }
+        log.info("Updated {} books", bookDtos.size());
+        return bookDtos;
+    }
+
+    /**
+     * Удаляет книги одним DELETE, обновления и вставки отправляет JDBC batch-ами.
+     */
+    @Override
+    public List<BookDto> applyBookDiff(Long userId, List<Long> deletedIds, List<BookDto> updated,
+                                       List<BookDto> inserted) {
+        final String DELETE_SQL = "DELETE FROM ulab_edu.book WHERE USER_ID=? AND ID = ANY(?)";
+        Objects.requireNonNull(userId);
+
+        if (!deletedIds.isEmpty()) {
+            int deleteCount;
+            try {
+                deleteCount = jdbcTemplate.update(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(DELETE_SQL);
+                    ps.setLong(1, userId);
+                    ps.setArray(2, connection.createArrayOf("bigint", deletedIds.toArray()));
+                    return ps;
+                });
+                if (deleteCount > 0) {
+                    invalidationPublisher.userChanged(userId);
+                }
+            } catch (DataAccessException ex) {
+                throw new ServiceException(ex);
+            }
+            log.info("Deleted {} books of user with id {}", deleteCount, userId);
+        }
+        updateBooks(updated);
+        return createBooks(inserted);
+    }
+
     @Override
     public BookDto getBookById(Long id) {
-        final String SELECT_SQL = "SELECT TITLE, AUTHOR, PAGE_COUNT, USER_ID, ID FROM BOOK WHERE ID=?";
+        final String SELECT_SQL = "SELECT TITLE, AUTHOR, PAGE_COUNT, USER_ID, ID FROM ulab_edu.book WHERE ID=?";
         Objects.requireNonNull(id);
 
         Book book;
@@ -93,22 +229,38 @@ public class BookServiceTemplateImpl implements BookService {
             throw new ServiceException(ex);
         }
 
-        log.info("Found book: {}", book);
+        log.debug("Found book: {}", book);
         return mapper.bookEntityToBookDto(book);
     }
 
+    @Override
+    public List<BookDto> getBooksByUserId(Long userId) {
+        final String SELECT_SQL = "SELECT TITLE, AUTHOR, PAGE_COUNT, USER_ID, ID FROM ulab_edu.book WHERE USER_ID=? ORDER BY ID";
+        Objects.requireNonNull(userId);
+
+        try {
+            return jdbcTemplate.query(SELECT_SQL, bookRowMapper, userId).stream()
+                    .map(mapper::bookEntityToBookDto)
+                    .toList();
+
+        } catch (DataAccessException ex) {
+            throw new ServiceException(ex);
+        }
+    }
+
     @Override
     public void deleteBookById(Long id) {
-        final String DELETE_SQL = "DELETE FROM BOOK WHERE ID=?";
+        final String DELETE_SQL = "DELETE FROM ulab_edu.book WHERE ID=? RETURNING USER_ID";
 
-        int updateCount;
+        List<Long> ownerIds;
         try {
-            updateCount = jdbcTemplate.update(DELETE_SQL, Objects.requireNonNull(id));
+            ownerIds = jdbcTemplate.queryForList(DELETE_SQL, Long.class, Objects.requireNonNull(id));
+            invalidationPublisher.usersChanged(ownerIds);
         } catch (DataAccessException ex) {
             throw new ServiceException(ex);
         }
 
-        if (updateCount > 0) {
+        if (!ownerIds.isEmpty()) {
             log.info("Deleted book with id {}", id);
         } else {
             log.info("Book with id {} does not exist - deleted nothing", id);
@@ -0,0 +1,61 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.cache.UserCache;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.service.UserService;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Чтение пользователей через {@link UserCache} поверх любой реализации {@link UserService}.
+ * Обновление и удаление пользователя вытесняют его из кэша этого узла,
+ * другие узлы узнают об изменении через {@link com.edu.ulab.app.cache.CacheInvalidationListener}.
+ */
+@RequiredArgsConstructor
+public class CachingUserService implements UserService {
+    private final UserService delegate;
+    private final UserCache cache;
+
+    @Override
+    public UserDto createUser(UserDto userDto) {
+        return delegate.createUser(userDto);
+    }
+
+    @Override
+    public UserDto updateUser(UserDto userDto) {
+        cache.evict(userDto.getId());
+        return delegate.updateUser(userDto);
+    }
+
+    @Override
+    public UserDto updateUserDetails(UserDto userDto) {
+        cache.evict(userDto.getId());
+        return delegate.updateUserDetails(userDto);
+    }
+
+    @Override
+    public UserDto getUserById(Long id) {
+        return cache.get(id, delegate::getUserById);
+    }
+
+    @Override
+    public void deleteUserById(Long id) {
+        cache.evict(id);
+        delegate.deleteUserById(id);
+    }
+
+    /**
+     * Закэшированные пользователи берутся из кэша, остальные загружаются одним вызовом сервиса.
+     */
+    @Override
+    public List<UserDto> getUsersByIds(Collection<Long> ids) {
+        return List.copyOf(cache.getAll(ids, delegate::getUsersByIds).values());
+    }
+
+    @Override
+    public List<UserDto> getUsersAfter(Long afterId, int limit) {
+        return delegate.getUsersAfter(afterId, limit);
+    }
+}
@@ -0,0 +1,105 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Объединяет одновременные {@link #getUserById(Long)} одного пользователя (single-flight): первый вызов
+ * загружает пользователя из {@code delegate}, остальные, пришедшие до окончания загрузки, ждут и получают
+ * копию того же результата или то же исключение. Результат не сохраняется после загрузки, это не кэш.
+ */
+public class CoalescingUserService implements UserService {
+    public static final String LOADS_COUNTER = "app.service.user.loads";
+    public static final String COALESCED_CALLERS_COUNTER = "app.service.user.coalesced.callers";
+
+    private final UserService delegate;
+    private final ConcurrentMap<Long, CompletableFuture<UserDto>> inFlight = new ConcurrentHashMap<>();
+    private final Counter loads;
+    private final Counter coalescedCallers;
+
+    public CoalescingUserService(UserService delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.loads = Counter.builder(LOADS_COUNTER)
+                .description("getUserById calls that loaded the user from the backend")
+                .register(meterRegistry);
+        this.coalescedCallers = Counter.builder(COALESCED_CALLERS_COUNTER)
+                .description("getUserById calls that waited for a load already in flight")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public UserDto createUser(UserDto userDto) {
+        return delegate.createUser(userDto);
+    }
+
+    @Override
+    public UserDto updateUser(UserDto userDto) {
+        return delegate.updateUser(userDto);
+    }
+
+    @Override
+    public UserDto updateUserDetails(UserDto userDto) {
+        return delegate.updateUserDetails(userDto);
+    }
+
+    @Override
+    public UserDto getUserById(Long id) {
+        CompletableFuture<UserDto> load = new CompletableFuture<>();
+        CompletableFuture<UserDto> inFlightLoad = inFlight.putIfAbsent(id, load);
+        if (inFlightLoad != null) {
+            coalescedCallers.increment();
+            return await(inFlightLoad).copy();
+        }
+
+        loads.increment();
+        try {
+            UserDto user = delegate.getUserById(id);
+            load.complete(user.copy());
+            return user;
+        } catch (Throwable ex) {
+            // любая ошибка, включая Error, должна завершить загрузку, иначе ожидающие вызовы не проснутся
+            load.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(id, load);
+        }
+    }
+
+    @Override
+    public void deleteUserById(Long id) {
+        delegate.deleteUserById(id);
+    }
+
+    @Override
+    public List<UserDto> getUsersByIds(Collection<Long> ids) {
+        return delegate.getUsersByIds(ids);
+    }
+
+    @Override
+    public List<UserDto> getUsersAfter(Long afterId, int limit) {
+        return delegate.getUsersAfter(afterId, limit);
+    }
+
+    private static UserDto await(CompletableFuture<UserDto> load) {
+        try {
+            return load.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
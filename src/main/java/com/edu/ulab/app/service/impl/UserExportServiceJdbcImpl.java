@@ -0,0 +1,104 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.service.UserExportService;
+import com.edu.ulab.app.web.response.UserExportRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Выгрузка одним запросом пользователей с книгами, упорядоченным по id пользователя.
+ * Postgres отдаёт строки через серверный курсор порциями по {@code fetch-size} только вне autocommit,
+ * поэтому запрос выполняется в read-only транзакции. Строки одного пользователя собираются в
+ * {@link UserExportRow} и передаются дальше сразу, в памяти держится только текущий пользователь.
+ */
+@Slf4j
+@Service
+public class UserExportServiceJdbcImpl implements UserExportService {
+    private static final String SELECT_USERS_WITH_BOOKS_SQL = "SELECT p.ID, p.FULL_NAME, p.TITLE, p.AGE, "
+            + "p.PREFERRED_GENRE, b.ID AS BOOK_ID FROM ulab_edu.person p "
+            + "LEFT JOIN ulab_edu.book b ON b.USER_ID = p.ID ORDER BY p.ID, b.ID";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+
+    public UserExportServiceJdbcImpl(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public long exportUsers(Consumer<UserExportRow> rows) {
+        long exported = Objects.requireNonNull(readOnlyTransaction.execute(status -> {
+            RowGrouper grouper = new RowGrouper(rows);
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(SELECT_USERS_WITH_BOOKS_SQL);
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, grouper::processRow);
+            return grouper.finish();
+        }));
+        log.info("Exported {} users", exported);
+        return exported;
+    }
+
+    /**
+     * Собирает подряд идущие строки одного пользователя.
+     */
+    private static class RowGrouper {
+        private final Consumer<UserExportRow> rows;
+        private UserExportRow current;
+        private long count;
+
+        private RowGrouper(Consumer<UserExportRow> rows) {
+            this.rows = rows;
+        }
+
+        private void processRow(ResultSet rs) throws SQLException {
+            long userId = rs.getLong("ID");
+            if (current == null || current.getUserId() != userId) {
+                emitCurrent();
+                current = UserExportRow.builder()
+                        .userId(userId)
+                        .fullName(rs.getString("FULL_NAME"))
+                        .title(rs.getString("TITLE"))
+                        .age(rs.getInt("AGE"))
+                        .preferredGenre(rs.getString("PREFERRED_GENRE"))
+                        .booksIdList(new ArrayList<>())
+                        .build();
+            }
+            long bookId = rs.getLong("BOOK_ID");
+            if (!rs.wasNull()) {
+                current.getBooksIdList().add(bookId);
+            }
+        }
+
+        private long finish() {
+            emitCurrent();
+            return count;
+        }
+
+        private void emitCurrent() {
+            if (current != null) {
+                rows.accept(current);
+                count++;
+                current = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.UserImportResult;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Потоковое чтение {@link UserBookRequest} из JSON-массива или NDJSON через {@link JsonParser}:
+ * в памяти держится только текущий чанк. После синтаксической ошибки позиция в потоке не восстанавливается,
+ * чтение останавливается, а ошибка доступна через {@link #failure()}.
+ */
+class UserImportReader implements Closeable {
+    private final JsonParser parser;
+    private final ObjectReader requestReader;
+    private JsonToken token;
+    private long nextIndex;
+    private UserImportResult failure;
+
+    UserImportReader(ObjectMapper objectMapper, InputStream body) throws IOException {
+        this.parser = objectMapper.getFactory().createParser(body);
+        this.requestReader = objectMapper.readerFor(UserBookRequest.class);
+        try {
+            token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * @return следующие записи, не больше {@code size}; пустой список - записей больше нет
+     */
+    List<ImportRecord> nextChunk(int size) throws IOException {
+        List<ImportRecord> chunk = new ArrayList<>(Math.min(size, 1024));
+        try {
+            while (chunk.size() < size && token != null && token != JsonToken.END_ARRAY) {
+                UserBookRequest request = requestReader.readValue(parser);
+                chunk.add(new ImportRecord(nextIndex++, request));
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException ex) {
+            fail(ex);
+        }
+        return chunk;
+    }
+
+    Optional<UserImportResult> failure() {
+        return Optional.ofNullable(failure);
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private void fail(JsonProcessingException ex) {
+        failure = UserImportResult.failed(nextIndex, "Malformed input: " + ex.getOriginalMessage());
+        token = null;
+    }
+
+    record ImportRecord(long index, UserBookRequest request) {
+    }
+}
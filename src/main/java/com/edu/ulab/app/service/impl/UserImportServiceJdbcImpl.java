@@ -0,0 +1,236 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.service.UserImportService;
+import com.edu.ulab.app.service.impl.UserImportReader.ImportRecord;
+import com.edu.ulab.app.storage.jdbc.PgCopyLoader;
+import com.edu.ulab.app.storage.jdbc.PooledIdAllocator;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserImportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Импорт чанками: id выделяются блоками заранее, пользователи и книги чанка вставляются в одной транзакции
+ * через {@link PgCopyLoader} или, если COPY отключён, двумя JDBC batch. Если чанк не вставился (например, занятый title), его записи повторяются по одной
+ * в отдельных транзакциях, чтобы вернуть ошибку только для проблемных записей.
+ */
+@Slf4j
+@Service("userImportJdbcService")
+public class UserImportServiceJdbcImpl implements UserImportService {
+    private static final String INSERT_PERSON_SQL =
+            "INSERT INTO ulab_edu.person(ID, FULL_NAME, TITLE, AGE, PREFERRED_GENRE) VALUES (?,?,?,?,?)";
+    private static final String INSERT_BOOK_SQL =
+            "INSERT INTO ulab_edu.book(ID, USER_ID, TITLE, AUTHOR, PAGE_COUNT) VALUES (?,?,?,?,?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PooledIdAllocator idAllocator;
+    private final PgCopyLoader copyLoader;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final boolean copy;
+
+    public UserImportServiceJdbcImpl(JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     PooledIdAllocator idAllocator,
+                                     PgCopyLoader copyLoader,
+                                     ObjectMapper objectMapper,
+                                     @Value("${app.import.chunk-size:1000}") int chunkSize,
+                                     @Value("${app.import.copy:true}") boolean copy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.idAllocator = idAllocator;
+        this.copyLoader = copyLoader;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.copy = copy;
+    }
+
+    @Override
+    public void importUsers(InputStream body, Consumer<List<UserImportResult>> chunkResults) throws IOException {
+        long imported = 0;
+        long failed = 0;
+        try (UserImportReader reader = new UserImportReader(objectMapper, body)) {
+            List<ImportRecord> chunk;
+            while (!(chunk = reader.nextChunk(chunkSize)).isEmpty()) {
+                List<UserImportResult> results = importChunk(chunk);
+                long chunkFailed = results.stream().filter(result -> result.getError() != null).count();
+                imported += results.size() - chunkFailed;
+                failed += chunkFailed;
+                chunkResults.accept(results);
+            }
+            if (reader.failure().isPresent()) {
+                failed++;
+                chunkResults.accept(List.of(reader.failure().get()));
+            }
+        }
+        log.info("Imported {} users, {} records failed", imported, failed);
+    }
+
+    private List<UserImportResult> importChunk(List<ImportRecord> records) {
+        UserImportResult[] results = new UserImportResult[records.size()];
+        List<PendingUser> users = new ArrayList<>(records.size());
+        for (int position = 0; position < records.size(); position++) {
+            ImportRecord record = records.get(position);
+            String error = validate(record.request());
+            if (error != null) {
+                results[position] = UserImportResult.failed(record.index(), error);
+            } else {
+                users.add(new PendingUser(position, record.index(), record.request().getUserRequest(),
+                        record.request().getBookRequests().stream().filter(Objects::nonNull).toList()));
+            }
+        }
+        if (users.isEmpty()) {
+            return Arrays.asList(results);
+        }
+        assignIds(users);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (copy) {
+                    copyLoader.load(users.stream().map(PendingUser::toPerson).toList());
+                } else {
+                    insert(users);
+                }
+            });
+            users.forEach(user -> results[user.position] = user.succeeded());
+        } catch (DataAccessException ex) {
+            log.warn("Chunk of {} users was not inserted, retrying one by one: {}", users.size(),
+                    ex.getMostSpecificCause().getMessage());
+            for (PendingUser user : users) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(user)));
+                    results[user.position] = user.succeeded();
+                } catch (DataAccessException recordEx) {
+                    results[user.position] = UserImportResult.failed(user.index,
+                            recordEx.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void assignIds(List<PendingUser> users) {
+        long[] userIds = idAllocator.allocate(PooledIdAllocator.PERSON_SEQUENCE, users.size());
+        long[] bookIds = idAllocator.allocate(PooledIdAllocator.BOOK_SEQUENCE,
+                users.stream().mapToInt(user -> user.books.size()).sum());
+        int nextBook = 0;
+        for (int i = 0; i < users.size(); i++) {
+            PendingUser user = users.get(i);
+            user.id = userIds[i];
+            user.bookIds = Arrays.copyOfRange(bookIds, nextBook, nextBook + user.books.size());
+            nextBook += user.books.size();
+        }
+    }
+
+    private void insert(List<PendingUser> users) {
+        jdbcTemplate.batchUpdate(INSERT_PERSON_SQL, users, users.size(), (ps, user) -> {
+            ps.setLong(1, user.id);
+            ps.setString(2, user.user.getFullName());
+            ps.setString(3, user.user.getTitle());
+            ps.setInt(4, user.user.getAge());
+            ps.setString(5, user.user.getPreferredGenre());
+        });
+
+        List<PendingBook> books = new ArrayList<>();
+        users.forEach(user -> {
+            for (int i = 0; i < user.books.size(); i++) {
+                books.add(new PendingBook(user.bookIds[i], user.id, user.books.get(i)));
+            }
+        });
+        if (!books.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_BOOK_SQL, books, books.size(), (ps, book) -> {
+                ps.setLong(1, book.id());
+                ps.setLong(2, book.userId());
+                ps.setString(3, book.book().getTitle());
+                ps.setString(4, book.book().getAuthor());
+                ps.setLong(5, book.book().getPageCount());
+            });
+        }
+    }
+
+    /**
+     * @return описание ошибки или {@code null}, если запись можно вставлять
+     */
+    static String validate(UserBookRequest request) {
+        if (request == null || request.getUserRequest() == null) {
+            return "userRequest is required";
+        }
+        UserRequest user = request.getUserRequest();
+        if (user.getFullName() == null || user.getTitle() == null || user.getPreferredGenre() == null) {
+            return "userRequest.fullName, title and preferredGenre are required";
+        }
+        if (request.getBookRequests() == null) {
+            request.setBookRequests(List.of());
+        }
+        for (BookRequest book : request.getBookRequests()) {
+            if (book != null && (book.getTitle() == null || book.getAuthor() == null)) {
+                return "bookRequests.title and author are required";
+            }
+        }
+        return null;
+    }
+
+    private static class PendingUser {
+        private final int position;
+        private final long index;
+        private final UserRequest user;
+        private final List<BookRequest> books;
+        private long id;
+        private long[] bookIds;
+
+        private PendingUser(int position, long index, UserRequest user, List<BookRequest> books) {
+            this.position = position;
+            this.index = index;
+            this.user = user;
+            this.books = books;
+        }
+
+        private UserImportResult succeeded() {
+            return UserImportResult.builder()
+                    .index(index)
+                    .userId(id)
+                    .booksIdList(Arrays.stream(bookIds).boxed().toList())
+                    .build();
+        }
+
+        private Person toPerson() {
+            Person person = new Person();
+            person.setId(id);
+            person.setFullName(user.getFullName());
+            person.setTitle(user.getTitle());
+            person.setAge(user.getAge());
+            person.setPreferredGenre(user.getPreferredGenre());
+            for (int i = 0; i < books.size(); i++) {
+                Book book = new Book();
+                book.setId(bookIds[i]);
+                book.setUserId(id);
+                book.setTitle(books.get(i).getTitle());
+                book.setAuthor(books.get(i).getAuthor());
+                book.setPageCount(books.get(i).getPageCount());
+                person.getBooks().add(book);
+            }
+            return person;
+        }
+    }
+
+    private record PendingBook(long id, long userId, BookRequest book) {
+    }
+}
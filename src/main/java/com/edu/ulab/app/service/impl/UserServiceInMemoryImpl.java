@@ -12,7 +12,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @Service("userInMemoryService")
@@ -32,6 +35,7 @@ public class UserServiceInMemoryImpl implements UserService {
     public UserDto updateUser(UserDto userDto) {
         try {
             Person person = mapper.userDtoToUserEntity(userDto);
+            keepBooks(person, userDto.getBookIds());
             Person updatedPerson = repository.update(person);
             return mapper.userEntityToUserDto(updatedPerson);
 
@@ -40,16 +44,37 @@ public class UserServiceInMemoryImpl implements UserService {
         }
     }
 
+    @Override
+    public UserDto updateUserDetails(UserDto userDto) {
+        try {
+            Person person = mapper.userDtoToUserEntity(userDto);
+            Person updatedPerson = repository.updateDetails(person);
+            return mapper.userEntityToUserDto(updatedPerson);
+
+        } catch (EntityDoesNotExistException ex) {
+            throw new NotFoundException(ex);
+        }
+    }
+
+    @Override
+    public List<UserDto> getUsersByIds(Collection<Long> ids) {
+        return repository.getUsersByIds(ids).stream()
+                .map(this::toUserDtoWithBookIds)
+                .toList();
+    }
+
+    @Override
+    public List<UserDto> getUsersAfter(Long afterId, int limit) {
+        return repository.getUsersAfter(afterId == null ? 0 : afterId, limit).stream()
+                .map(this::toUserDtoWithBookIds)
+                .toList();
+    }
+
     @Override
     public UserDto getUserById(Long id) {
         try {
             Person person = repository.getUserById(id).orElseThrow(() -> new NotFoundException("User with id " + id + " not found"));
-            List<Long> bookIds = person.getBooks().stream()
-                    .map(Book::getId)
-                    .toList();
-            UserDto userDto = mapper.userEntityToUserDto(person);
-            userDto.setBookIds(bookIds);
-            return userDto;
+            return toUserDtoWithBookIds(person);
 
         } catch (EntityDoesNotExistException ex) {
             throw new NotFoundException(ex);
@@ -60,4 +85,26 @@ public class UserServiceInMemoryImpl implements UserService {
     public void deleteUserById(Long id) {
         repository.deleteUserById(id);
     }
+
+    /**
+     * Переносит в обновлённого пользователя оставляемые книги, остальные хранилище отвяжет от пользователя.
+     */
+    private void keepBooks(Person person, List<Long> keptBookIds) {
+        if (keptBookIds == null || keptBookIds.isEmpty()) {
+            return;
+        }
+        Set<Long> keptIds = new HashSet<>(keptBookIds);
+        repository.getUserById(person.getId())
+                .ifPresent(storedPerson -> storedPerson.getBooks().stream()
+                        .filter(book -> keptIds.contains(book.getId()))
+                        .forEach(person.getBooks()::add));
+    }
+
+    private UserDto toUserDtoWithBookIds(Person person) {
+        UserDto userDto = mapper.userEntityToUserDto(person);
+        userDto.setBookIds(person.getBooks().stream()
+                .map(Book::getId)
+                .toList());
+        return userDto;
+    }
 }
@@ -1,52 +1,75 @@
 package com.edu.ulab.app.service.impl;
 
+import com.edu.ulab.app.cache.CacheInvalidationPublisher;
 import com.edu.ulab.app.dto.UserDto;
-import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.entity.Person;
 import com.edu.ulab.app.exception.NotFoundException;
 import com.edu.ulab.app.exception.ServiceException;
 import com.edu.ulab.app.mapper.UserMapper;
 import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.storage.jpa.BookJpaRepository;
+import com.edu.ulab.app.storage.jpa.PersonView;
 import com.edu.ulab.app.storage.jpa.UserJpaRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Objects;
 
 @Slf4j
 @Service("userJpaService")
 @RequiredArgsConstructor
 public class UserServiceJpaImpl implements UserService {
     private final UserJpaRepository repository;
+    private final BookJpaRepository bookRepository;
     private final UserMapper mapper;
+    private final CacheInvalidationPublisher invalidationPublisher;
 
     @Override
     public UserDto createUser(UserDto userDto) {
         try {
             Person person = mapper.userDtoToUserEntity(userDto);
             Person savedPerson = repository.save(person);
-            log.info("Created user jpa entity: {}", savedPerson);
+            log.debug("Created user jpa entity: {}", savedPerson);
             return mapper.userEntityToUserDto(savedPerson);
         } catch (DataAccessException ex) {
             throw new ServiceException(ex);
         }
     }
 
+    /**
+     * Обновляет поля пользователя и одним DELETE удаляет его книги, кроме перечисленных в {@link UserDto#getBookIds()}.
+     */
     @Override
     public UserDto updateUser(UserDto userDto) {
         try {
-            Person person = mapper.userDtoToUserEntity(userDto);
-            if (repository.existsById(person.getId())) {
-                Person savedPerson = repository.save(person);
-                log.info("Saved user jpa entity: {}", savedPerson);
-                return mapper.userEntityToUserDto(savedPerson);
-            } else {
-                throw new NotFoundException("User with id " + person.getId() + " not found");
-            }
+            Person person = repository.findById(userDto.getId())
+                    .orElseThrow(() -> new NotFoundException("User with id " + userDto.getId() + " not found"));
+            mapper.updateUserEntity(userDto, person);
+
+            List<Long> keptBookIds = userDto.getBookIds();
+            int deletedBooks = keptBookIds == null || keptBookIds.isEmpty()
+                    ? bookRepository.deleteAllByUserIdInBulk(person.getId())
+                    : bookRepository.deleteAllByUserIdExcept(person.getId(), keptBookIds);
+            log.debug("Saved user jpa entity: {}, deleted {} books", person, deletedBooks);
+            invalidationPublisher.userChanged(person.getId());
+            return mapper.userEntityToUserDto(person);
+        } catch (DataAccessException ex) {
+            throw new ServiceException(ex);
+        }
+    }
+
+    @Override
+    public UserDto updateUserDetails(UserDto userDto) {
+        try {
+            Person person = repository.findById(userDto.getId())
+                    .orElseThrow(() -> new NotFoundException("User with id " + userDto.getId() + " not found"));
+            mapper.updateUserEntity(userDto, person);
+            log.debug("Saved user jpa entity: {}", person);
+            invalidationPublisher.userChanged(person.getId());
+            return mapper.userEntityToUserDto(person);
         } catch (DataAccessException ex) {
             throw new ServiceException(ex);
         }
@@ -55,17 +78,9 @@ public class UserServiceJpaImpl implements UserService {
     @Override
     public UserDto getUserById(Long id) {
         try {
-            Person person = repository.findById(id).orElseThrow(() -> new NotFoundException("User with id " + id + " not found"));
-            log.info("Retrieved user jpa entity: {}", person);
-            List<Long> bookIds = person.getBooks()
-                    .stream()
-                    .filter(Objects::nonNull)
-                    .peek(book -> log.info("Retrieved book: {}", book))
-                    .map(Book::getId)
-                    .toList();
-            UserDto userDto = mapper.userEntityToUserDto(person);
-            userDto.setBookIds(bookIds);
-            return userDto;
+            PersonView person = repository.findViewById(id).orElseThrow(() -> new NotFoundException("User with id " + id + " not found"));
+            log.debug("Retrieved user view: {}", person);
+            return mapper.personViewToUserDto(person);
         } catch (DataAccessException ex) {
             throw new ServiceException(ex);
         }
@@ -73,10 +88,37 @@ public class UserServiceJpaImpl implements UserService {
 
     @Override
     public void deleteUserById(Long id) {
+        int deleteCount;
         try {
-            repository.deleteById(id);
-        } catch (EmptyResultDataAccessException ex) {
+            deleteCount = repository.deleteWithBooksById(id);
+            invalidationPublisher.userChanged(id);
+        } catch (DataAccessException ex) {
+            throw new ServiceException(ex);
+        }
+
+        if (deleteCount == 0) {
             throw new NotFoundException("User with id " + id + " does not exist - deleted nothing");
+        }
+        log.info("Deleted user with id {}", id);
+    }
+
+    @Override
+    public List<UserDto> getUsersByIds(Collection<Long> ids) {
+        try {
+            return repository.findViewsByIds(ids).stream()
+                    .map(mapper::personViewToUserDto)
+                    .toList();
+        } catch (DataAccessException ex) {
+            throw new ServiceException(ex);
+        }
+    }
+
+    @Override
+    public List<UserDto> getUsersAfter(Long afterId, int limit) {
+        try {
+            return repository.findViewsAfter(afterId == null ? 0 : afterId, limit).stream()
+                    .map(mapper::personViewToUserDto)
+                    .toList();
         } catch (DataAccessException ex) {
             throw new ServiceException(ex);
         }
@@ -0,0 +1,168 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.cache.CacheInvalidationPublisher;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.exception.ServiceException;
+import com.edu.ulab.app.service.ReactiveUserService;
+import io.r2dbc.spi.Row;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+@Slf4j
+@Service("userR2dbcService")
+@ConditionalOnProperty(prefix = "app.service.reactive", name = "enabled", havingValue = "true")
+public class UserServiceR2dbcImpl implements ReactiveUserService {
+    private static final String INSERT_SQL = """
+            INSERT INTO ulab_edu.person(ID, FULL_NAME, TITLE, AGE, PREFERRED_GENRE)
+            VALUES (nextval('ulab_edu.person_sequence'), $1, $2, $3, $4)
+            RETURNING ID""";
+    private static final String UPDATE_SQL =
+            "UPDATE ulab_edu.person SET FULL_NAME=$1, TITLE=$2, AGE=$3, PREFERRED_GENRE=$4 WHERE ID=$5";
+    private static final String DELETE_BOOKS_SQL = "DELETE FROM ulab_edu.book WHERE USER_ID=$1";
+    private static final String DELETE_OTHER_BOOKS_SQL = "DELETE FROM ulab_edu.book WHERE USER_ID=$1 AND ID <> ALL($2)";
+    private static final String SELECT_USER_SQL = """
+            SELECT p.ID, p.FULL_NAME, p.TITLE, p.AGE, p.PREFERRED_GENRE,
+                   coalesce(array_agg(b.ID ORDER BY b.ID) FILTER (WHERE b.ID IS NOT NULL), '{}') AS BOOK_IDS
+            FROM ulab_edu.person p
+                     LEFT JOIN ulab_edu.book b ON b.USER_ID = p.ID
+            WHERE p.ID = $1
+            GROUP BY p.ID""";
+    private static final String DELETE_SQL = "DELETE FROM ulab_edu.person WHERE ID=$1";
+    private static final String NOTIFY_SQL = "SELECT pg_notify($1, $2)";
+
+    private final DatabaseClient databaseClient;
+    private final boolean publishInvalidation;
+
+    public UserServiceR2dbcImpl(DatabaseClient databaseClient,
+                                @Value("${app.service.user-cache.invalidation.enabled:true}") boolean publishInvalidation,
+                                @Value("${app.service.user-cache.enabled:true}") boolean userCacheEnabled) {
+        this.databaseClient = databaseClient;
+        this.publishInvalidation = publishInvalidation && userCacheEnabled;
+    }
+
+    @Override
+    public Mono<UserDto> createUser(UserDto userDto) {
+        DatabaseClient.GenericExecuteSpec insert = databaseClient.sql(INSERT_SQL);
+        insert = bind(insert, 0, userDto.getFullName());
+        insert = bind(insert, 1, userDto.getTitle());
+        insert = insert.bind(2, userDto.getAge());
+        insert = bind(insert, 3, userDto.getPreferredGenre());
+        return insert.map(row -> row.get("ID", Long.class))
+                .one()
+                .map(id -> {
+                    userDto.setId(id);
+                    log.info("Created user with id {}", id);
+                    return userDto;
+                })
+                .onErrorMap(DataAccessException.class, ServiceException::new);
+    }
+
+    /**
+     * Удаляет книги пользователя одним DELETE и обновляет пользователя.
+     */
+    @Override
+    public Mono<UserDto> updateUser(UserDto userDto) {
+        Objects.requireNonNull(userDto.getId());
+        List<Long> keptBookIds = userDto.getBookIds();
+        Mono<Integer> deleteBooks = keptBookIds == null || keptBookIds.isEmpty()
+                ? databaseClient.sql(DELETE_BOOKS_SQL).bind(0, userDto.getId()).fetch().rowsUpdated()
+                : databaseClient.sql(DELETE_OTHER_BOOKS_SQL)
+                .bind(0, userDto.getId())
+                .bind(1, keptBookIds.toArray(Long[]::new))
+                .fetch()
+                .rowsUpdated();
+
+        DatabaseClient.GenericExecuteSpec update = databaseClient.sql(UPDATE_SQL);
+        update = bind(update, 0, userDto.getFullName());
+        update = bind(update, 1, userDto.getTitle());
+        update = update.bind(2, userDto.getAge());
+        update = bind(update, 3, userDto.getPreferredGenre());
+        Mono<Integer> updateUser = update.bind(4, userDto.getId()).fetch().rowsUpdated();
+
+        return deleteBooks
+                .doOnNext(bookCount -> log.info("Deleted {} books of user with id {}", bookCount, userDto.getId()))
+                .then(updateUser)
+                .flatMap(updateCount -> updateCount > 0
+                        ? publishChange(userDto.getId()).thenReturn(userDto)
+                        : Mono.error(new NotFoundException("User with id " + userDto.getId() + " not found")))
+                .doOnNext(updated -> log.info("Updated user with id {}", updated.getId()))
+                .onErrorMap(DataAccessException.class, ServiceException::new);
+    }
+
+    /**
+     * Пользователь с id книг одним запросом.
+     */
+    @Override
+    public Mono<UserDto> getUserById(Long id) {
+        Objects.requireNonNull(id);
+        return databaseClient.sql(SELECT_USER_SQL)
+                .bind(0, id)
+                .map(UserServiceR2dbcImpl::toUserDto)
+                .one()
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("User with id " + id + " not found")))
+                .doOnNext(user -> log.debug("Found user: {}", user))
+                .onErrorMap(DataAccessException.class, ServiceException::new);
+    }
+
+    /**
+     * Книги пользователя удаляются каскадом внешнего ключа.
+     */
+    @Override
+    public Mono<Void> deleteUserById(Long id) {
+        Objects.requireNonNull(id);
+        return databaseClient.sql(DELETE_SQL)
+                .bind(0, id)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updateCount -> {
+                    if (updateCount > 0) {
+                        log.info("Deleted user with id {}", id);
+                    } else {
+                        log.info("User with id {} does not exist - deleted nothing", id);
+                    }
+                    return publishChange(id);
+                })
+                .onErrorMap(DataAccessException.class, ServiceException::new);
+    }
+
+    /**
+     * Как {@link CacheInvalidationPublisher}, но на соединении текущей реактивной транзакции.
+     */
+    private Mono<Void> publishChange(Long userId) {
+        if (!publishInvalidation) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(NOTIFY_SQL)
+                .bind(0, CacheInvalidationPublisher.USER_CHANNEL)
+                .bind(1, userId.toString())
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, int index,
+                                                          String value) {
+        return value == null ? spec.bindNull(index, String.class) : spec.bind(index, value);
+    }
+
+    private static UserDto toUserDto(Row row) {
+        UserDto userDto = new UserDto();
+        userDto.setId(row.get("ID", Long.class));
+        userDto.setFullName(row.get("FULL_NAME", String.class));
+        userDto.setTitle(row.get("TITLE", String.class));
+        userDto.setAge(Objects.requireNonNull(row.get("AGE", Integer.class)));
+        userDto.setPreferredGenre(row.get("PREFERRED_GENRE", String.class));
+        userDto.setBookIds(Arrays.asList(Objects.requireNonNull(row.get("BOOK_IDS", Long[].class))));
+        return userDto;
+    }
+}
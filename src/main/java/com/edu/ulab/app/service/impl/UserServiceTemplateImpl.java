@@ -1,22 +1,19 @@
 package com.edu.ulab.app.service.impl;
 
+import com.edu.ulab.app.cache.CacheInvalidationPublisher;
 import com.edu.ulab.app.dto.UserDto;
-import com.edu.ulab.app.entity.Person;
 import com.edu.ulab.app.exception.NotFoundException;
 import com.edu.ulab.app.exception.ServiceException;
-import com.edu.ulab.app.mapper.UserMapper;
-import com.edu.ulab.app.service.BookService;
 import com.edu.ulab.app.service.UserService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessException;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 
 import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 
@@ -25,57 +22,91 @@ import java.util.Objects;
 public class UserServiceTemplateImpl implements UserService {
 
     private final JdbcTemplate jdbcTemplate;
-    private final UserMapper mapper;
-    private final BookService bookService;
-
-    private static final BeanPropertyRowMapper<Person> personRowMapper = new BeanPropertyRowMapper<>(Person.class);
+    private final CacheInvalidationPublisher invalidationPublisher;
+
+    private static final RowMapper<UserDto> userWithBookIdsRowMapper = (rs, rowNum) -> {
+        UserDto userDto = new UserDto();
+        userDto.setId(rs.getLong("ID"));
+        userDto.setFullName(rs.getString("FULL_NAME"));
+        userDto.setTitle(rs.getString("TITLE"));
+        userDto.setAge(rs.getInt("AGE"));
+        userDto.setPreferredGenre(rs.getString("PREFERRED_GENRE"));
+        userDto.setBookIds(Arrays.asList((Long[]) rs.getArray("BOOK_IDS").getArray()));
+        return userDto;
+    };
 
-    public UserServiceTemplateImpl(
-            JdbcTemplate jdbcTemplate,
-            UserMapper mapper,
-            @Qualifier("bookTemplateService") BookService bookService) {
+    public UserServiceTemplateImpl(JdbcTemplate jdbcTemplate, CacheInvalidationPublisher invalidationPublisher) {
         this.jdbcTemplate = jdbcTemplate;
-        this.mapper = mapper;
-        this.bookService = bookService;
+        this.invalidationPublisher = invalidationPublisher;
     }
 
+    /**
+     * Вставляет пользователя одним запросом: id берётся из {@code person_sequence} в самом INSERT.
+     */
     @Override
     public UserDto createUser(UserDto userDto) {
-        final String INSERT_SQL = "INSERT INTO PERSON(FULL_NAME, TITLE, AGE) VALUES (?,?,?)";
-        KeyHolder keyHolder = new GeneratedKeyHolder();
+        final String INSERT_SQL = """
+                INSERT INTO ulab_edu.person(ID, FULL_NAME, TITLE, AGE, PREFERRED_GENRE)
+                VALUES (nextval('ulab_edu.person_sequence'), ?, ?, ?, ?)
+                RETURNING ID""";
         try {
-            jdbcTemplate.update(
-                    connection -> {
-                        PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[]{"id"});
-                        ps.setString(1, userDto.getFullName());
-                        ps.setString(2, userDto.getTitle());
-                        ps.setLong(3, userDto.getAge());
-                        return ps;
-                    },
-                    keyHolder);
+            Long id = jdbcTemplate.queryForObject(INSERT_SQL, Long.class,
+                    userDto.getFullName(),
+                    userDto.getTitle(),
+                    userDto.getAge(),
+                    userDto.getPreferredGenre());
+            userDto.setId(id);
         } catch (DataAccessException ex) {
             throw new ServiceException(ex);
         }
 
-        userDto.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
         log.info("Created user with id {}", userDto.getId());
         return userDto;
     }
 
+    /**
+     * Обновляет пользователя и одним DELETE удаляет его книги, кроме перечисленных в {@link UserDto#getBookIds()}.
+     */
     @Override
     public UserDto updateUser(UserDto userDto) {
-        final String UPDATE_SQL = "UPDATE PERSON SET FULL_NAME=?, TITLE=?, AGE=? WHERE ID=?";
+        final String DELETE_BOOKS_SQL = "DELETE FROM ulab_edu.book WHERE USER_ID=?";
+        final String DELETE_OTHER_BOOKS_SQL = "DELETE FROM ulab_edu.book WHERE USER_ID=? AND ID <> ALL(?)";
         Objects.requireNonNull(userDto.getId());
 
-        int updateCount;
         try {
-            queryBookIds(userDto.getId()).forEach(bookService::deleteBookById);
+            List<Long> keptBookIds = userDto.getBookIds();
+            int bookCount = keptBookIds == null || keptBookIds.isEmpty()
+                    ? jdbcTemplate.update(DELETE_BOOKS_SQL, userDto.getId())
+                    : jdbcTemplate.update(connection -> {
+                        PreparedStatement ps = connection.prepareStatement(DELETE_OTHER_BOOKS_SQL);
+                        ps.setLong(1, userDto.getId());
+                        ps.setArray(2, connection.createArrayOf("bigint", keptBookIds.toArray()));
+                        return ps;
+                    });
+            log.info("Deleted {} books of user with id {}", bookCount, userDto.getId());
+        } catch (DataAccessException ex) {
+            throw new ServiceException(ex);
+        }
+
+        return updateUserDetails(userDto);
+    }
+
+    @Override
+    public UserDto updateUserDetails(UserDto userDto) {
+        final String UPDATE_SQL = "UPDATE ulab_edu.person SET FULL_NAME=?, TITLE=?, AGE=?, PREFERRED_GENRE=? WHERE ID=?";
+        Objects.requireNonNull(userDto.getId());
 
+        int updateCount;
+        try {
             updateCount = jdbcTemplate.update(UPDATE_SQL,
                     userDto.getFullName(),
                     userDto.getTitle(),
                     userDto.getAge(),
+                    userDto.getPreferredGenre(),
                     userDto.getId());
+            if (updateCount > 0) {
+                invalidationPublisher.userChanged(userDto.getId());
+            }
         } catch (DataAccessException ex) {
             throw new ServiceException(ex);
         }
@@ -88,58 +119,104 @@ public class UserServiceTemplateImpl implements UserService {
         }
     }
 
+    /**
+     * Пользователь с id книг одним запросом, как в {@link #getUsersByIds(Collection)}.
+     */
     @Override
     public UserDto getUserById(Long id) {
-        final String SELECT_USER_SQL = "SELECT ID, FULL_NAME, TITLE, AGE FROM PERSON WHERE ID=?";
+        final String SELECT_USER_SQL = """
+                SELECT p.ID, p.FULL_NAME, p.TITLE, p.AGE, p.PREFERRED_GENRE,
+                       coalesce(array_agg(b.ID ORDER BY b.ID) FILTER (WHERE b.ID IS NOT NULL), '{}') AS BOOK_IDS
+                FROM ulab_edu.person p
+                         LEFT JOIN ulab_edu.book b ON b.USER_ID = p.ID
+                WHERE p.ID = ?
+                GROUP BY p.ID""";
         Objects.requireNonNull(id);
 
-        Person user;
+        UserDto userDto;
         try {
-            user = jdbcTemplate.query(SELECT_USER_SQL, personRowMapper, id)
+            userDto = jdbcTemplate.query(SELECT_USER_SQL, userWithBookIdsRowMapper, id)
                     .stream()
                     .findFirst()
                     .orElseThrow(() -> new NotFoundException("User with id " + id + " not found"));
-            log.info("Found user: {}", user);
         } catch (DataAccessException ex) {
             throw new ServiceException(ex);
         }
 
-        UserDto userDto = mapper.userEntityToUserDto(user);
-
-        List<Long> bookIds = queryBookIds(id);
-        if (bookIds.size() > 0) {
-            log.info("Found related book ids: {}", bookIds);
-            userDto.setBookIds(bookIds);
-        }
-
+        log.debug("Found user: {}", userDto);
         return userDto;
     }
 
+    /**
+     * Книги пользователя удаляет каскад внешнего ключа ulab_edu.book.USER_ID.
+     */
     @Override
     public void deleteUserById(Long id) {
-        final String DELETE_SQL = "DELETE FROM PERSON WHERE ID=?";
+        final String DELETE_SQL = "DELETE FROM ulab_edu.person WHERE ID=?";
         Objects.requireNonNull(id);
 
         int updateCount;
         try {
-            queryBookIds(id).forEach(bookService::deleteBookById);
             updateCount = jdbcTemplate.update(DELETE_SQL, id);
+            invalidationPublisher.userChanged(id);
         } catch (DataAccessException ex) {
             throw new ServiceException(ex);
         }
 
         if (updateCount > 0) {
-            log.info("Deleted user with id {}", id);
+            log.info("Deleted user with id {} and their books", id);
         } else {
             log.info("User with id {} does not exist - deleted nothing", id);
         }
     }
 
-    private List<Long> queryBookIds(Long userId) {
-        final String SELECT_BOOK_IDS_SQL = "SELECT ID FROM BOOK WHERE USER_ID=?";
+    /**
+     * Пользователи по списку id одним запросом, id книг агрегируются в том же запросе.
+     */
+    @Override
+    public List<UserDto> getUsersByIds(Collection<Long> ids) {
+        final String SELECT_USERS_BY_IDS_SQL = """
+                SELECT p.ID, p.FULL_NAME, p.TITLE, p.AGE, p.PREFERRED_GENRE,
+                       coalesce(array_agg(b.ID ORDER BY b.ID) FILTER (WHERE b.ID IS NOT NULL), '{}') AS BOOK_IDS
+                FROM ulab_edu.person p
+                         LEFT JOIN ulab_edu.book b ON b.USER_ID = p.ID
+                WHERE p.ID = ANY(?)
+                GROUP BY p.ID""";
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        try {
+            return jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(SELECT_USERS_BY_IDS_SQL);
+                ps.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+                return ps;
+            }, userWithBookIdsRowMapper);
+        } catch (DataAccessException ex) {
+            throw new ServiceException(ex);
+        }
+    }
+
+    /**
+     * Страница пользователей одним запросом: поиск по первичному ключу с LIMIT, id книг агрегируются
+     * по индексу user_id для каждого пользователя страницы.
+     */
+    @Override
+    public List<UserDto> getUsersAfter(Long afterId, int limit) {
+        final String SELECT_USERS_AFTER_SQL = """
+                SELECT p.ID, p.FULL_NAME, p.TITLE, p.AGE, p.PREFERRED_GENRE,
+                       coalesce(b.BOOK_IDS, '{}') AS BOOK_IDS
+                FROM ulab_edu.person p
+                         LEFT JOIN LATERAL (SELECT array_agg(b.ID ORDER BY b.ID) AS BOOK_IDS
+                                            FROM ulab_edu.book b
+                                            WHERE b.USER_ID = p.ID) b ON true
+                WHERE p.ID > ?
+                ORDER BY p.ID
+                LIMIT ?""";
 
         try {
-            return jdbcTemplate.queryForList(SELECT_BOOK_IDS_SQL, Long.class, userId);
+            return jdbcTemplate.query(SELECT_USERS_AFTER_SQL, userWithBookIdsRowMapper,
+                    afterId == null ? 0 : afterId, limit);
         } catch (DataAccessException ex) {
             throw new ServiceException(ex);
         }
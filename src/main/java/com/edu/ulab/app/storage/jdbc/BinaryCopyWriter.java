@@ -0,0 +1,97 @@
+package com.edu.ulab.app.storage.jdbc;
+
+import org.postgresql.copy.CopyIn;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Кодирует строки в двоичный формат COPY и отправляет их в {@link CopyIn} порциями размером с буфер.
+ * Поле: длина (int, -1 для NULL) и значение в сетевом порядке байт, строка: количество полей (short).
+ */
+final class BinaryCopyWriter {
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final short TRAILER = -1;
+    private static final int NULL_LENGTH = -1;
+
+    private final CopyIn copyIn;
+    private final ByteBuffer buffer;
+
+    BinaryCopyWriter(CopyIn copyIn, int bufferSize) {
+        this.copyIn = copyIn;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        buffer.put(SIGNATURE).putInt(0).putInt(0);
+    }
+
+    void startRow(int fieldCount) throws SQLException {
+        ensureRemaining(Short.BYTES);
+        buffer.putShort((short) fieldCount);
+    }
+
+    void writeLong(long value) throws SQLException {
+        ensureRemaining(Integer.BYTES + Long.BYTES);
+        buffer.putInt(Long.BYTES).putLong(value);
+    }
+
+    void writeInt(int value) throws SQLException {
+        ensureRemaining(Integer.BYTES + Integer.BYTES);
+        buffer.putInt(Integer.BYTES).putInt(value);
+    }
+
+    void writeString(String value) throws SQLException {
+        if (value == null) {
+            ensureRemaining(Integer.BYTES);
+            buffer.putInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureRemaining(Integer.BYTES);
+        buffer.putInt(bytes.length);
+        if (bytes.length > buffer.capacity()) {
+            flush();
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            return;
+        }
+        ensureRemaining(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Дописывает завершающий маркер и закрывает COPY.
+     *
+     * @return количество вставленных строк
+     */
+    long finish() throws SQLException {
+        ensureRemaining(Short.BYTES);
+        buffer.putShort(TRAILER);
+        flush();
+        return copyIn.endCopy();
+    }
+
+    /**
+     * Прерывает COPY, если он ещё активен, чтобы соединение можно было вернуть в пул.
+     */
+    void cancel() {
+        try {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        } catch (SQLException e) {
+            // исходная ошибка важнее, соединение закроет пул
+        }
+    }
+
+    private void ensureRemaining(int bytes) throws SQLException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws SQLException {
+        if (buffer.position() > 0) {
+            copyIn.writeToCopy(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+    }
+}
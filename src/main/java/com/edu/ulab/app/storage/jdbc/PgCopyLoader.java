@@ -0,0 +1,103 @@
+package com.edu.ulab.app.storage.jdbc;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Загрузка пользователей с книгами через {@code COPY FROM STDIN} в двоичном формате.
+ * Id выделяет вызывающий код заранее (блоками из {@link PooledIdAllocator}), поэтому книги ссылаются
+ * на пользователей без чтения сгенерированных ключей. Обе таблицы загружаются в одной транзакции на одном соединении.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PgCopyLoader {
+    private static final String COPY_PERSON_SQL = "COPY ulab_edu.person (id, full_name, title, age, preferred_genre) "
+            + "FROM STDIN (FORMAT binary)";
+    private static final String COPY_BOOK_SQL = "COPY ulab_edu.book (id, user_id, title, author, page_count) "
+            + "FROM STDIN (FORMAT binary)";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Загружает пользователей и их книги. У всех пользователей и книг должны быть заполнены id,
+     * {@link Book#getUserId()} должен совпадать с id владельца.
+     */
+    @Transactional
+    public void load(List<Person> persons) {
+        if (persons.isEmpty()) {
+            return;
+        }
+        requireIds(persons);
+
+        long[] rows = jdbcTemplate.execute((ConnectionCallback<long[]>) connection -> {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            return new long[]{copyPersons(copyManager, persons), copyBooks(copyManager, persons)};
+        });
+        log.debug("Copied {} users and {} books", Objects.requireNonNull(rows)[0], rows[1]);
+    }
+
+    private static void requireIds(List<Person> persons) {
+        for (Person person : persons) {
+            if (person.getId() == null) {
+                throw new IllegalArgumentException("User id must be assigned before COPY");
+            }
+            for (Book book : person.getBooks()) {
+                if (book.getId() == null || !person.getId().equals(book.getUserId())) {
+                    throw new IllegalArgumentException("Book id and user id must be assigned before COPY");
+                }
+            }
+        }
+    }
+
+    private static long copyPersons(CopyManager copyManager, List<Person> persons) throws SQLException {
+        BinaryCopyWriter writer = new BinaryCopyWriter(copyManager.copyIn(COPY_PERSON_SQL), BUFFER_SIZE);
+        try {
+            for (Person person : persons) {
+                writer.startRow(5);
+                writer.writeLong(person.getId());
+                writer.writeString(person.getFullName());
+                writer.writeString(person.getTitle());
+                writer.writeInt(person.getAge());
+                writer.writeString(person.getPreferredGenre());
+            }
+            return writer.finish();
+        } catch (SQLException | RuntimeException e) {
+            writer.cancel();
+            throw e;
+        }
+    }
+
+    private static long copyBooks(CopyManager copyManager, List<Person> persons) throws SQLException {
+        BinaryCopyWriter writer = new BinaryCopyWriter(copyManager.copyIn(COPY_BOOK_SQL), BUFFER_SIZE);
+        try {
+            for (Person person : persons) {
+                for (Book book : person.getBooks()) {
+                    writer.startRow(5);
+                    writer.writeLong(book.getId());
+                    writer.writeLong(book.getUserId());
+                    writer.writeString(book.getTitle());
+                    writer.writeString(book.getAuthor());
+                    writer.writeLong(book.getPageCount());
+                }
+            }
+            return writer.finish();
+        } catch (SQLException | RuntimeException e) {
+            writer.cancel();
+            throw e;
+        }
+    }
+}
@@ -2,8 +2,42 @@ package com.edu.ulab.app.storage.jpa;
 
 import com.edu.ulab.app.entity.Book;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface BookJpaRepository extends JpaRepository<Book, Long> {
+    List<Book> findAllByUserIdOrderById(Long userId);
+
+    /**
+     * Удаляет все книги пользователя одним DELETE без загрузки сущностей.
+     *
+     * @return количество удалённых книг
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("delete from Book b where b.userId = :userId")
+    int deleteAllByUserIdInBulk(@Param("userId") Long userId);
+
+    /**
+     * Удаляет одним DELETE книги пользователя, кроме перечисленных.
+     *
+     * @return количество удалённых книг
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("delete from Book b where b.userId = :userId and b.id not in :keptIds")
+    int deleteAllByUserIdExcept(@Param("userId") Long userId, @Param("keptIds") Collection<Long> keptIds);
+
+    /**
+     * Удаляет одним DELETE перечисленные книги пользователя.
+     *
+     * @return количество удалённых книг
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("delete from Book b where b.userId = :userId and b.id in :bookIds")
+    int deleteAllByUserIdAndIdIn(@Param("userId") Long userId, @Param("bookIds") Collection<Long> bookIds);
 }
@@ -0,0 +1,18 @@
+package com.edu.ulab.app.storage.jpa;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Пользователь с идентификаторами его книг, прочитанный одним запросом без управляемых сущностей.
+ */
+@Value
+public class PersonView {
+    Long id;
+    String fullName;
+    String title;
+    int age;
+    String preferredGenre;
+    List<Long> bookIds;
+}
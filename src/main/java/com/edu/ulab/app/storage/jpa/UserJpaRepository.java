@@ -2,8 +2,20 @@ package com.edu.ulab.app.storage.jpa;
 
 import com.edu.ulab.app.entity.Person;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface UserJpaRepository extends JpaRepository<Person, Long> {
+public interface UserJpaRepository extends JpaRepository<Person, Long>, UserJpaRepositoryCustom {
+
+    /**
+     * Удаляет пользователя одним DELETE без загрузки сущностей, книги удаляет внешний ключ ON DELETE CASCADE.
+     *
+     * @return количество удалённых пользователей
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Person p where p.id = :id")
+    int deleteWithBooksById(@Param("id") Long id);
 }
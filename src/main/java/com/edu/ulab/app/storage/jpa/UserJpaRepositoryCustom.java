@@ -0,0 +1,20 @@
+package com.edu.ulab.app.storage.jpa;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserJpaRepositoryCustom {
+    Optional<PersonView> findViewById(Long id);
+
+    /**
+     * Пользователи с id книг по списку id одним запросом {@code WHERE id = ANY(?)}.
+     */
+    List<PersonView> findViewsByIds(Collection<Long> ids);
+
+    /**
+     * Страница пользователей с id книг в порядке id после {@code afterId}: поиск по первичному ключу с LIMIT
+     * и агрегация книг каждого пользователя по индексу user_id, время не зависит от глубины страницы.
+     */
+    List<PersonView> findViewsAfter(long afterId, int limit);
+}
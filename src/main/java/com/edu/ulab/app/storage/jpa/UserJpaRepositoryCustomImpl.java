@@ -0,0 +1,95 @@
+package com.edu.ulab.app.storage.jpa;
+
+import com.vladmihalcea.hibernate.type.array.LongArrayType;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.IntegerType;
+import org.hibernate.type.LongType;
+import org.hibernate.type.StringType;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public class UserJpaRepositoryCustomImpl implements UserJpaRepositoryCustom {
+    private static final String SELECT_VIEW_SQL = """
+            SELECT p.id, p.full_name, p.title, p.age, p.preferred_genre,
+                   coalesce(array_agg(b.id ORDER BY b.id) FILTER (WHERE b.id IS NOT NULL), '{}') AS book_ids
+            FROM ulab_edu.person p
+                     LEFT JOIN ulab_edu.book b ON b.user_id = p.id
+            WHERE p.id = :id
+            GROUP BY p.id""";
+
+    private static final String SELECT_VIEWS_BY_IDS_SQL = """
+            SELECT p.id, p.full_name, p.title, p.age, p.preferred_genre,
+                   coalesce(array_agg(b.id ORDER BY b.id) FILTER (WHERE b.id IS NOT NULL), '{}') AS book_ids
+            FROM ulab_edu.person p
+                     LEFT JOIN ulab_edu.book b ON b.user_id = p.id
+            WHERE p.id = ANY(:ids)
+            GROUP BY p.id""";
+
+    private static final String SELECT_VIEWS_AFTER_SQL = """
+            SELECT p.id, p.full_name, p.title, p.age, p.preferred_genre,
+                   coalesce(b.book_ids, '{}') AS book_ids
+            FROM ulab_edu.person p
+                     LEFT JOIN LATERAL (SELECT array_agg(b.id ORDER BY b.id) AS book_ids
+                                        FROM ulab_edu.book b
+                                        WHERE b.user_id = p.id) b ON true
+            WHERE p.id > :afterId
+            ORDER BY p.id
+            LIMIT :limit""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<PersonView> findViewById(Long id) {
+        Query query = entityManager.createNativeQuery(SELECT_VIEW_SQL)
+                .setParameter("id", id);
+        return queryViews(query).stream().findFirst();
+    }
+
+    @Override
+    public List<PersonView> findViewsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Query query = entityManager.createNativeQuery(SELECT_VIEWS_BY_IDS_SQL)
+                .unwrap(NativeQuery.class)
+                .setParameter("ids", ids.toArray(Long[]::new), LongArrayType.INSTANCE);
+        return queryViews(query);
+    }
+
+    @Override
+    public List<PersonView> findViewsAfter(long afterId, int limit) {
+        Query query = entityManager.createNativeQuery(SELECT_VIEWS_AFTER_SQL)
+                .setParameter("afterId", afterId)
+                .setParameter("limit", limit);
+        return queryViews(query);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<PersonView> queryViews(Query query) {
+        List<Object[]> rows = query.unwrap(NativeQuery.class)
+                .addScalar("id", LongType.INSTANCE)
+                .addScalar("full_name", StringType.INSTANCE)
+                .addScalar("title", StringType.INSTANCE)
+                .addScalar("age", IntegerType.INSTANCE)
+                .addScalar("preferred_genre", StringType.INSTANCE)
+                .addScalar("book_ids", LongArrayType.INSTANCE)
+                .getResultList();
+
+        return rows.stream()
+                .map(row -> new PersonView(
+                        (Long) row[0],
+                        (String) row[1],
+                        (String) row[2],
+                        (Integer) row[3],
+                        (String) row[4],
+                        Arrays.stream((long[]) row[5]).boxed().toList()))
+                .toList();
+    }
+}
@@ -2,14 +2,24 @@ package com.edu.ulab.app.storage.memory;
 
 import com.edu.ulab.app.entity.Book;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface BookInMemoryRepository {
     Book save(Book book);
+    List<Book> saveAll(List<Book> books);
     Book update(Book book);
     Book saveOrUpdate(Book book);
     Optional<Book> getBookById(Long id);
     List<Book> getAllBooksByUserId(Long id);
     void deleteBookById(Long id);
+
+    /**
+     * Применяет к книгам пользователя разницу одной операцией записи: удаляет книги {@code deletedIds},
+     * заменяет {@code updated} и вставляет {@code inserted}. Остальные книги пользователя не затрагиваются.
+     *
+     * @return вставленные книги с выданными id
+     */
+    List<Book> applyDiff(Long userId, Collection<Long> deletedIds, List<Book> updated, List<Book> inserted);
 }
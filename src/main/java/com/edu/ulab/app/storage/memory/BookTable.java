@@ -0,0 +1,17 @@
+package com.edu.ulab.app.storage.memory;
+
+import com.edu.ulab.app.entity.Book;
+
+import java.util.function.Consumer;
+
+/**
+ * Таблица книг, используемая {@link Storage}. Реализации не потокобезопасны:
+ * синхронизацию обеспечивает хранилище.
+ */
+public interface BookTable {
+    Book get(long id);
+    void put(Book book);
+    Book remove(long id);
+    int size();
+    void forEach(Consumer<Book> action);
+}
@@ -0,0 +1,431 @@
+package com.edu.ulab.app.storage.memory;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.exception.EntityDoesNotExistException;
+import lombok.NonNull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Хранилище в памяти без глобальной блокировки.
+ * Записи блокируют только полосы (stripes) затронутых пользователей, чтения используют оптимистичные
+ * чтения {@link StampedLock} и возвращают копии пользователей.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "app.storage.memory", name = "engine", havingValue = "concurrent")
+public class ConcurrentStorage implements UserInMemoryRepository, BookInMemoryRepository {
+    private static final String USER_ALREADY_SAVED = "User has already been saved";
+    private static final String BOOK_ALREADY_SAVED = "Book has already been saved";
+    private static final String USER_NEEDS_ID_MESSAGE = "Operation requires a user id to be provided";
+    private static final String BOOK_NEEDS_ID_MESSAGE = "Operation requires a book id to be provided";
+    private static final String BOOK_ALREADY_ASSOCIATED = "Book is already associated with a user";
+    private static final int STRIPE_COUNT = 64;
+    private static final Long UNOWNED = -1L;
+
+    private final ConcurrentNavigableMap<Long, Person> userData = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<Long, Book> bookData = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Long>> userBookIds = new ConcurrentHashMap<>();
+    private final AtomicLong nextUserId = new AtomicLong(1);
+    private final AtomicLong nextBookId = new AtomicLong(1);
+    private final StampedLock[] stripes = new StampedLock[STRIPE_COUNT];
+
+    public ConcurrentStorage() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new StampedLock();
+        }
+    }
+
+    @Override
+    public Person save(@NonNull Person person) {
+        if (person.getId() != null) {
+            throw new IllegalArgumentException(USER_ALREADY_SAVED);
+        }
+        person.getBooks().forEach(book -> {
+            if (book.getUserId() != null) {
+                throw new IllegalArgumentException(BOOK_ALREADY_ASSOCIATED);
+            }
+            if (book.getId() != null) {
+                throw new IllegalArgumentException(BOOK_ALREADY_SAVED);
+            }
+        });
+
+        long userId = nextUserId.getAndIncrement();
+        return writeLocked(() -> Set.of(userId), () -> {
+            person.setId(userId);
+            userData.put(userId, person);
+            person.getBooks().forEach(book -> {
+                book.setUserId(userId);
+                insertBook(book);
+            });
+            return person;
+        });
+    }
+
+    @Override
+    public Person update(@NonNull Person person) {
+        Objects.requireNonNull(person.getId(), USER_NEEDS_ID_MESSAGE);
+
+        return writeLocked(() -> affectedOwners(person), () -> {
+            if (userData.get(person.getId()) == null) {
+                throw new EntityDoesNotExistException("User with id " + person.getId() + " does not exist");
+            }
+            person.getBooks().stream()
+                    .map(Book::getId)
+                    .filter(Objects::nonNull)
+                    .filter(bookId -> !bookData.containsKey(bookId))
+                    .findFirst()
+                    .ifPresent(bookId -> {
+                        throw new EntityDoesNotExistException("Book with id " + bookId + " does not exist");
+                    });
+
+            Set<Long> orphanBookIds = new HashSet<>(userBookIds.getOrDefault(person.getId(), Set.of()));
+            person.getBooks().stream()
+                    .map(Book::getId)
+                    .filter(Objects::nonNull)
+                    .forEach(orphanBookIds::remove);
+            orphanBookIds.forEach(bookId -> {
+                Book book = bookData.get(bookId);
+                if (book != null && person.getId().equals(book.getUserId())) {
+                    unindexBook(book);
+                    Book orphan = EntityCopies.copyOf(book);
+                    orphan.setUserId(null);
+                    bookData.put(bookId, orphan);
+                }
+            });
+
+            userData.put(person.getId(), person);
+            person.getBooks().forEach(book -> {
+                if (book.getId() == null) {
+                    insertBook(book);
+                } else {
+                    replaceBook(book);
+                }
+            });
+            return person;
+        });
+    }
+
+    @Override
+    public Person updateDetails(@NonNull Person person) {
+        Objects.requireNonNull(person.getId(), USER_NEEDS_ID_MESSAGE);
+
+        return writeLocked(() -> Set.of(person.getId()), () -> {
+            if (userData.get(person.getId()) == null) {
+                throw new EntityDoesNotExistException("User with id " + person.getId() + " does not exist");
+            }
+            userData.put(person.getId(), person);
+            return person;
+        });
+    }
+
+    @Override
+    public Person saveOrUpdate(@NonNull Person person) {
+        return person.getId() == null ? save(person) : update(person);
+    }
+
+    @Override
+    public Optional<Person> getUserById(@NonNull Long id) {
+        return readLocked(id, () -> Optional.ofNullable(userData.get(id))
+                .map(user -> {
+                    Person copy = EntityCopies.copyOf(user);
+                    copy.setBooks(collectBooks(id).stream()
+                            .map(EntityCopies::copyOf)
+                            .collect(Collectors.toCollection(ArrayList::new)));
+                    return copy;
+                }));
+    }
+
+    /**
+     * Каждый пользователь читается под своей блокировкой, глобальной блокировки в этом хранилище нет.
+     */
+    @Override
+    public List<Person> getUsersByIds(@NonNull Collection<Long> ids) {
+        List<Person> users = new ArrayList<>(ids.size());
+        ids.forEach(id -> getUserById(id).ifPresent(users::add));
+        return users;
+    }
+
+    /**
+     * Каждый пользователь страницы читается под своей блокировкой, как в {@link #getUserById(Long)};
+     * удалённые между обходом и чтением пропускаются.
+     */
+    @Override
+    public List<Person> getUsersAfter(long afterId, int limit) {
+        List<Person> page = new ArrayList<>();
+        Iterator<Long> ids = userData.tailMap(afterId, false).keySet().iterator();
+        while (page.size() < limit && ids.hasNext()) {
+            getUserById(ids.next()).ifPresent(page::add);
+        }
+        return page;
+    }
+
+    @Override
+    public void deleteUserById(@NonNull Long id) {
+        writeLocked(() -> Set.of(id), () -> {
+            Person deletedPerson = userData.remove(id);
+            if (deletedPerson != null) {
+                collectBooks(id).forEach(book -> bookData.remove(book.getId()));
+                userBookIds.remove(id);
+            }
+            return deletedPerson;
+        });
+    }
+
+    @Override
+    public Book save(@NonNull Book book) {
+        if (book.getId() != null) {
+            throw new IllegalArgumentException(BOOK_ALREADY_SAVED);
+        }
+
+        if (book.getUserId() == null) {
+            return insertBook(book);
+        }
+        return writeLocked(() -> Set.of(book.getUserId()), () -> insertBook(book));
+    }
+
+    @Override
+    public List<Book> saveAll(@NonNull List<Book> books) {
+        books.forEach(book -> {
+            if (book.getId() != null) {
+                throw new IllegalArgumentException(BOOK_ALREADY_SAVED);
+            }
+        });
+
+        Set<Long> owners = new HashSet<>();
+        books.forEach(book -> owners.add(ownerOf(book.getUserId())));
+        return writeLocked(() -> owners, () -> {
+            books.forEach(this::insertBook);
+            return books;
+        });
+    }
+
+    @Override
+    public Book update(@NonNull Book book) {
+        Objects.requireNonNull(book.getId(), BOOK_NEEDS_ID_MESSAGE);
+
+        return writeLocked(() -> {
+            Set<Long> owners = new HashSet<>();
+            Optional.ofNullable(bookData.get(book.getId()))
+                    .map(oldBook -> ownerOf(oldBook.getUserId()))
+                    .ifPresent(owners::add);
+            owners.add(ownerOf(book.getUserId()));
+            return owners;
+        }, () -> replaceBook(book));
+    }
+
+    @Override
+    public Book saveOrUpdate(@NonNull Book book) {
+        return book.getId() == null ? save(book) : update(book);
+    }
+
+    @Override
+    public Optional<Book> getBookById(@NonNull Long id) {
+        return Optional.ofNullable(bookData.get(id));
+    }
+
+    @Override
+    public List<Book> getAllBooksByUserId(@NonNull Long id) {
+        return readLocked(id, () -> collectBooks(id));
+    }
+
+    @Override
+    public void deleteBookById(@NonNull Long id) {
+        writeLocked(() -> Optional.ofNullable(bookData.get(id))
+                .map(book -> Set.of(ownerOf(book.getUserId())))
+                .orElse(Set.of()), () -> {
+            Book deletedBook = bookData.remove(id);
+            if (deletedBook != null) {
+                unindexBook(deletedBook);
+            }
+            return deletedBook;
+        });
+    }
+
+    /**
+     * Блокирует полосы пользователя и прежних владельцев обновляемых книг. Книги {@code deletedIds}
+     * удаляются, id, не принадлежащие пользователю, пропускаются.
+     */
+    @Override
+    public List<Book> applyDiff(@NonNull Long userId, @NonNull Collection<Long> deletedIds,
+                                @NonNull List<Book> updated, @NonNull List<Book> inserted) {
+        inserted.forEach(book -> {
+            if (book.getId() != null) {
+                throw new IllegalArgumentException(BOOK_ALREADY_SAVED);
+            }
+        });
+        updated.forEach(book -> Objects.requireNonNull(book.getId(), BOOK_NEEDS_ID_MESSAGE));
+
+        return writeLocked(() -> {
+            Set<Long> owners = new HashSet<>();
+            owners.add(userId);
+            updated.forEach(book -> Optional.ofNullable(bookData.get(book.getId()))
+                    .map(oldBook -> ownerOf(oldBook.getUserId()))
+                    .ifPresent(owners::add));
+            return owners;
+        }, () -> {
+            if (userData.get(userId) == null) {
+                throw new EntityDoesNotExistException("User with id " + userId + " does not exist");
+            }
+            updated.stream()
+                    .map(Book::getId)
+                    .filter(bookId -> !bookData.containsKey(bookId))
+                    .findFirst()
+                    .ifPresent(bookId -> {
+                        throw new EntityDoesNotExistException("Book with id " + bookId + " does not exist");
+                    });
+
+            deletedIds.forEach(bookId -> {
+                Book book = bookData.get(bookId);
+                if (book != null && userId.equals(book.getUserId())) {
+                    bookData.remove(bookId);
+                    unindexBook(book);
+                }
+            });
+            updated.forEach(book -> {
+                book.setUserId(userId);
+                replaceBook(book);
+            });
+            inserted.forEach(book -> {
+                book.setUserId(userId);
+                insertBook(book);
+            });
+            return inserted;
+        });
+    }
+
+    private Book insertBook(Book book) {
+        book.setId(nextBookId.getAndIncrement());
+        bookData.put(book.getId(), book);
+        indexBook(book);
+        return book;
+    }
+
+    private Book replaceBook(Book book) {
+        Book oldBook = bookData.get(book.getId());
+        if (oldBook == null) {
+            throw new EntityDoesNotExistException("Book with id " + book.getId() + " does not exist");
+        }
+        unindexBook(oldBook);
+        bookData.put(book.getId(), book);
+        indexBook(book);
+        return book;
+    }
+
+    private List<Book> collectBooks(Long userId) {
+        return userBookIds.getOrDefault(userId, Set.of())
+                .stream()
+                .map(bookData::get)
+                .filter(book -> book != null && Objects.equals(book.getUserId(), userId))
+                .sorted(Comparator.comparing(Book::getId))
+                .toList();
+    }
+
+    private void indexBook(Book book) {
+        if (book.getUserId() != null) {
+            userBookIds.computeIfAbsent(book.getUserId(), userId -> ConcurrentHashMap.newKeySet()).add(book.getId());
+        }
+    }
+
+    private void unindexBook(Book book) {
+        if (book.getUserId() == null) {
+            return;
+        }
+        userBookIds.computeIfPresent(book.getUserId(), (userId, bookIds) -> {
+            bookIds.remove(book.getId());
+            return bookIds.isEmpty() ? null : bookIds;
+        });
+    }
+
+    private Set<Long> affectedOwners(Person person) {
+        Set<Long> owners = new HashSet<>();
+        owners.add(person.getId());
+        person.getBooks().forEach(book -> {
+            owners.add(ownerOf(book.getUserId()));
+            Optional.ofNullable(book.getId())
+                    .map(bookData::get)
+                    .map(oldBook -> ownerOf(oldBook.getUserId()))
+                    .ifPresent(owners::add);
+        });
+        return owners;
+    }
+
+    private static Long ownerOf(Long userId) {
+        return userId == null ? UNOWNED : userId;
+    }
+
+    private <T> T readLocked(Long userId, Supplier<T> action) {
+        StampedLock lock = stripeOf(userId);
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = action.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException ex) {
+                if (lock.validate(stamp)) {
+                    throw ex;
+                }
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Выполняет действие под блокировками полос всех затронутых пользователей.
+     * Владельцы книг могут измениться, пока мы ждём блокировку, поэтому после захвата набор
+     * перепроверяется, и при расхождении захват повторяется.
+     */
+    private <T> T writeLocked(Supplier<Set<Long>> owners, Supplier<T> action) {
+        while (true) {
+            int[] stripeIndexes = stripeIndexesOf(owners.get());
+            long[] stamps = new long[stripeIndexes.length];
+            for (int i = 0; i < stripeIndexes.length; i++) {
+                stamps[i] = stripes[stripeIndexes[i]].writeLock();
+            }
+            try {
+                if (Arrays.equals(stripeIndexes, stripeIndexesOf(owners.get()))) {
+                    return action.get();
+                }
+            } finally {
+                for (int i = stripeIndexes.length - 1; i >= 0; i--) {
+                    stripes[stripeIndexes[i]].unlockWrite(stamps[i]);
+                }
+            }
+        }
+    }
+
+    private int[] stripeIndexesOf(Set<Long> userIds) {
+        return userIds.stream()
+                .mapToInt(this::stripeIndexOf)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    private StampedLock stripeOf(Long userId) {
+        return stripes[stripeIndexOf(userId)];
+    }
+
+    private int stripeIndexOf(Long userId) {
+        int hash = userId.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPE_COUNT - 1);
+    }
+}
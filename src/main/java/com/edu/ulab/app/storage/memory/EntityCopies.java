@@ -0,0 +1,29 @@
+package com.edu.ulab.app.storage.memory;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+class EntityCopies {
+
+    Person copyOf(Person person) {
+        Person copy = new Person();
+        copy.setId(person.getId());
+        copy.setFullName(person.getFullName());
+        copy.setTitle(person.getTitle());
+        copy.setAge(person.getAge());
+        copy.setPreferredGenre(person.getPreferredGenre());
+        return copy;
+    }
+
+    Book copyOf(Book book) {
+        Book copy = new Book();
+        copy.setId(book.getId());
+        copy.setUserId(book.getUserId());
+        copy.setTitle(book.getTitle());
+        copy.setAuthor(book.getAuthor());
+        copy.setPageCount(book.getPageCount());
+        return copy;
+    }
+}
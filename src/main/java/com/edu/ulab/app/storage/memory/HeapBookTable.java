@@ -0,0 +1,36 @@
+package com.edu.ulab.app.storage.memory;
+
+import com.edu.ulab.app.entity.Book;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class HeapBookTable implements BookTable {
+    private final Map<Long, Book> bookData = new HashMap<>();
+
+    @Override
+    public Book get(long id) {
+        return bookData.get(id);
+    }
+
+    @Override
+    public void put(Book book) {
+        bookData.put(book.getId(), book);
+    }
+
+    @Override
+    public Book remove(long id) {
+        return bookData.remove(id);
+    }
+
+    @Override
+    public int size() {
+        return bookData.size();
+    }
+
+    @Override
+    public void forEach(Consumer<Book> action) {
+        bookData.values().forEach(action);
+    }
+}
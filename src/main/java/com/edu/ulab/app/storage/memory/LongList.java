@@ -0,0 +1,52 @@
+package com.edu.ulab.app.storage.memory;
+
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+/**
+ * Список примитивных long. Используется для индекса книг пользователя,
+ * чтобы не держать в куче по упакованному Long на каждую книгу.
+ * Удаление переносит на освободившееся место последний элемент, поэтому порядок не сохраняется.
+ */
+final class LongList {
+    private long[] values = new long[4];
+    private int size;
+
+    /**
+     * @return индекс добавленного элемента
+     */
+    int add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = value;
+        return size++;
+    }
+
+    long get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Удаляет элемент по индексу за O(1), перенося на его место последний элемент.
+     *
+     * @return перенесённый на {@code index} элемент; если удалялся последний, он сам
+     */
+    long removeAt(int index) {
+        long last = values[--size];
+        values[index] = last;
+        return last;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    LongStream stream() {
+        return Arrays.stream(values, 0, size);
+    }
+}
@@ -0,0 +1,275 @@
+package com.edu.ulab.app.storage.memory;
+
+import com.edu.ulab.app.entity.Book;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Таблица книг вне кучи.
+ * Строки книг хранятся в direct {@link ByteBuffer} слябах, индекс id -> адрес строки - открытая адресация
+ * на примитивных массивах long, авторы интернируются. Обновление записывает новую версию строки,
+ * место старых версий освобождается уплотнением.
+ */
+public class OffHeapBookTable implements BookTable {
+    public static final int DEFAULT_SLAB_SIZE = 16 * 1024 * 1024;
+
+    private static final long EMPTY = 0;
+    private static final long NULL_USER_ID = Long.MIN_VALUE;
+    private static final int NULL_REF = -1;
+    private static final int USER_ID_OFFSET = 0;
+    private static final int PAGE_COUNT_OFFSET = 8;
+    private static final int AUTHOR_OFFSET = 16;
+    private static final int TITLE_LENGTH_OFFSET = 20;
+    private static final int HEADER_SIZE = 24;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private final int slabSize;
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private int writeOffset;
+    private long liveBytes;
+    private long garbageBytes;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private long[] addresses = new long[INITIAL_CAPACITY];
+    private int size;
+
+    private final Map<String, Integer> authorRefs = new HashMap<>();
+    private final List<String> authors = new ArrayList<>();
+
+    public OffHeapBookTable() {
+        this(DEFAULT_SLAB_SIZE);
+    }
+
+    public OffHeapBookTable(int slabSize) {
+        this.slabSize = slabSize;
+    }
+
+    @Override
+    public Book get(long id) {
+        int slot = find(id);
+        return slot < 0 ? null : read(id, addresses[slot]);
+    }
+
+    @Override
+    public void put(Book book) {
+        long id = book.getId();
+        if (id <= EMPTY) {
+            throw new IllegalArgumentException("Book id must be positive: " + id);
+        }
+
+        long address = write(book);
+        int slot = find(id);
+        if (slot >= 0) {
+            release(addresses[slot]);
+            addresses[slot] = address;
+        } else {
+            if (size + 1 > keys.length * LOAD_FACTOR) {
+                resize(keys.length * 2);
+            }
+            insert(id, address);
+            size++;
+        }
+        compactIfNeeded();
+    }
+
+    @Override
+    public Book remove(long id) {
+        int slot = find(id);
+        if (slot < 0) {
+            return null;
+        }
+
+        Book book = read(id, addresses[slot]);
+        release(addresses[slot]);
+        deleteSlot(slot);
+        size--;
+        compactIfNeeded();
+        return book;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEach(Consumer<Book> action) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                action.accept(read(keys[slot], addresses[slot]));
+            }
+        }
+    }
+
+    public long offHeapBytes() {
+        return (long) slabs.size() * slabSize;
+    }
+
+    private long write(Book book) {
+        byte[] title = book.getTitle() == null ? null : book.getTitle().getBytes(StandardCharsets.UTF_8);
+        long address = allocate(align(HEADER_SIZE + (title == null ? 0 : title.length)));
+
+        ByteBuffer slab = slabs.get((int) (address >>> 32));
+        int offset = (int) address;
+        slab.putLong(offset + USER_ID_OFFSET, book.getUserId() == null ? NULL_USER_ID : book.getUserId());
+        slab.putLong(offset + PAGE_COUNT_OFFSET, book.getPageCount());
+        slab.putInt(offset + AUTHOR_OFFSET, internAuthor(book.getAuthor()));
+        slab.putInt(offset + TITLE_LENGTH_OFFSET, title == null ? NULL_REF : title.length);
+        if (title != null) {
+            slab.put(offset + HEADER_SIZE, title);
+        }
+        return address;
+    }
+
+    private long allocate(int rowSize) {
+        if (rowSize > slabSize) {
+            throw new IllegalArgumentException("Book row of " + rowSize + " bytes does not fit into a slab");
+        }
+        if (slabs.isEmpty() || writeOffset + rowSize > slabSize) {
+            slabs.add(ByteBuffer.allocateDirect(slabSize));
+            writeOffset = 0;
+        }
+
+        long address = ((long) (slabs.size() - 1) << 32) | writeOffset;
+        writeOffset += rowSize;
+        liveBytes += rowSize;
+        return address;
+    }
+
+    private Book read(long id, long address) {
+        ByteBuffer slab = slabs.get((int) (address >>> 32));
+        int offset = (int) address;
+
+        Book book = new Book();
+        book.setId(id);
+        long userId = slab.getLong(offset + USER_ID_OFFSET);
+        book.setUserId(userId == NULL_USER_ID ? null : userId);
+        book.setPageCount(slab.getLong(offset + PAGE_COUNT_OFFSET));
+        int authorRef = slab.getInt(offset + AUTHOR_OFFSET);
+        book.setAuthor(authorRef == NULL_REF ? null : authors.get(authorRef));
+        int titleLength = slab.getInt(offset + TITLE_LENGTH_OFFSET);
+        if (titleLength != NULL_REF) {
+            byte[] title = new byte[titleLength];
+            slab.get(offset + HEADER_SIZE, title);
+            book.setTitle(new String(title, StandardCharsets.UTF_8));
+        }
+        return book;
+    }
+
+    private void release(long address) {
+        int rowSize = rowSize(slabs, address);
+        liveBytes -= rowSize;
+        garbageBytes += rowSize;
+    }
+
+    private static int rowSize(List<ByteBuffer> slabs, long address) {
+        int titleLength = slabs.get((int) (address >>> 32)).getInt((int) address + TITLE_LENGTH_OFFSET);
+        return align(HEADER_SIZE + Math.max(titleLength, 0));
+    }
+
+    private int internAuthor(String author) {
+        if (author == null) {
+            return NULL_REF;
+        }
+        return authorRefs.computeIfAbsent(author, key -> {
+            authors.add(key);
+            return authors.size() - 1;
+        });
+    }
+
+    private void compactIfNeeded() {
+        if (garbageBytes > slabSize && garbageBytes > liveBytes) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        List<ByteBuffer> oldSlabs = new ArrayList<>(slabs);
+        slabs.clear();
+        writeOffset = 0;
+        liveBytes = 0;
+        garbageBytes = 0;
+
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                long oldAddress = addresses[slot];
+                int rowSize = rowSize(oldSlabs, oldAddress);
+                long address = allocate(rowSize);
+                slabs.get((int) (address >>> 32))
+                        .put((int) address, oldSlabs.get((int) (oldAddress >>> 32)), (int) oldAddress, rowSize);
+                addresses[slot] = address;
+            }
+        }
+    }
+
+    private int find(long id) {
+        int mask = keys.length - 1;
+        for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+            if (keys[slot] == id) {
+                return slot;
+            }
+            if (keys[slot] == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    private void insert(long id, long address) {
+        int mask = keys.length - 1;
+        int slot = hash(id) & mask;
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = id;
+        addresses[slot] = address;
+    }
+
+    /**
+     * Удаление с обратным сдвигом: последующие элементы цепочки переносятся на освободившееся место,
+     * поэтому надгробия не нужны.
+     */
+    private void deleteSlot(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                addresses[hole] = addresses[next];
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY;
+        addresses[hole] = 0;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldAddresses = addresses;
+        keys = new long[capacity];
+        addresses = new long[capacity];
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                insert(oldKeys[slot], oldAddresses[slot]);
+            }
+        }
+    }
+
+    private static int hash(long id) {
+        id ^= id >>> 33;
+        id *= 0xff51afd7ed558ccdL;
+        id ^= id >>> 33;
+        return (int) id;
+    }
+
+    private static int align(int size) {
+        return (size + 7) & ~7;
+    }
+}
@@ -0,0 +1,110 @@
+package com.edu.ulab.app.storage.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Неизменяемый вектор с общей структурой: префиксное дерево с 32 потомками на узел.
+ * {@link #set}, {@link #push} и {@link #pop} копируют только путь от корня до элемента - O(log32 n),
+ * остальные узлы разделяются с исходным вектором.
+ */
+final class PersistentVector<T> {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, 0, new Object[WIDTH]);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+
+    private PersistentVector(int size, int shift, Object[] root) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> PersistentVector<T> empty() {
+        return (PersistentVector<T>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+        checkIndex(index);
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return (T) node[index & MASK];
+    }
+
+    PersistentVector<T> set(int index, T value) {
+        checkIndex(index);
+        return new PersistentVector<>(size, shift, assoc(root, shift, index, value));
+    }
+
+    PersistentVector<T> push(T value) {
+        if (size == 1 << (shift + BITS)) {
+            Object[] newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            return new PersistentVector<>(size + 1, shift + BITS, assoc(newRoot, shift + BITS, size, value));
+        }
+        return new PersistentVector<>(size + 1, shift, assoc(root, shift, size, value));
+    }
+
+    PersistentVector<T> pop() {
+        if (size <= 1) {
+            checkIndex(size - 1);
+            return empty();
+        }
+        Object[] newRoot = assoc(root, shift, size - 1, null);
+        if (shift > 0 && size - 1 <= 1 << shift) {
+            return new PersistentVector<>(size - 1, shift - BITS, (Object[]) newRoot[0]);
+        }
+        return new PersistentVector<>(size - 1, shift, newRoot);
+    }
+
+    /**
+     * Удаляет элемент, перенося на его место последний, - так же, как {@link LongList#removeAt}.
+     */
+    PersistentVector<T> removeAt(int index) {
+        checkIndex(index);
+        return index == size - 1 ? pop() : set(index, get(size - 1)).pop();
+    }
+
+    <R> List<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(mapper.apply(get(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Копирует путь до элемента {@code index} и записывает в него значение. Недостающие узлы создаются,
+     * узлы, оставшиеся без элементов после записи {@code null} в последний элемент, отбрасываются.
+     */
+    private static Object[] assoc(Object[] node, int level, int index, Object value) {
+        Object[] copy = node == null ? new Object[WIDTH] : node.clone();
+        int slot = (index >>> level) & MASK;
+        if (level == 0) {
+            copy[slot] = value;
+        } else {
+            copy[slot] = assoc((Object[]) copy[slot], level - BITS, index, value);
+        }
+        boolean emptied = value == null && (index & ((1 << (level + BITS)) - 1)) == 0;
+        return emptied ? null : copy;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+}
@@ -3,26 +3,75 @@ package com.edu.ulab.app.storage.memory;
 import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.entity.Person;
 import com.edu.ulab.app.exception.EntityDoesNotExistException;
+import com.edu.ulab.app.storage.memory.journal.JournalReader;
+import com.edu.ulab.app.storage.memory.journal.JournalRecord;
+import com.edu.ulab.app.storage.memory.journal.JournalRecord.DeleteBook;
+import com.edu.ulab.app.storage.memory.journal.JournalRecord.DeleteUser;
+import com.edu.ulab.app.storage.memory.journal.JournalRecord.IdCounters;
+import com.edu.ulab.app.storage.memory.journal.JournalRecord.PutBook;
+import com.edu.ulab.app.storage.memory.journal.JournalRecord.PutUser;
+import com.edu.ulab.app.storage.memory.journal.StorageJournal;
 import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
+import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 @Repository
+@ConditionalOnProperty(prefix = "app.storage.memory", name = "engine", havingValue = "locking", matchIfMissing = true)
 public class Storage implements UserInMemoryRepository, BookInMemoryRepository {
     private static final String USER_ALREADY_SAVED = "User has already been saved";
     private static final String BOOK_ALREADY_SAVED = "Book has already been saved";
     private static final String USER_NEEDS_ID_MESSAGE = "Operation requires a user id to be provided";
     private static final String BOOK_NEEDS_ID_MESSAGE = "Operation requires a book id to be provided";
     private static final String BOOK_ALREADY_ASSOCIATED = "Book is already associated with a user";
+    private static final Comparator<Book> BY_ID = Comparator.comparing(Book::getId);
 
-    private final Map<Long, Person> userData = new HashMap<>();
-    private final Map<Long, Book> bookData = new HashMap<>();
+    private final NavigableMap<Long, Person> userData = new TreeMap<>();
+    private final BookTable bookData;
+    private final Map<Long, LongList> userBookIds = new HashMap<>();
+    private final LongIntMap bookSlots = new LongIntMap();
     private long nextUserId = 1;
     private long nextBookId = 1;
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final boolean snapshotReads;
+    private final ConcurrentMap<Long, UserSnapshot> snapshots = new ConcurrentHashMap<>();
+    /**
+     * Снимки, изменённые текущей операцией записи; {@code null} - пользователь удалён.
+     * Публикуются в {@link #snapshots} при выходе из внешней операции.
+     */
+    private final Map<Long, UserSnapshot> pendingSnapshots = new HashMap<>();
+
+    private StorageJournal journal = StorageJournal.NONE;
+    private long journalPosition;
+
+    public Storage() {
+        this(true);
+    }
+
+    public Storage(boolean snapshotReads) {
+        this(snapshotReads, new HeapBookTable());
+    }
+
+    @Autowired
+    public Storage(@Value("${app.storage.memory.snapshot-reads:true}") boolean snapshotReads,
+                   BookTable bookTable) {
+        if (snapshotReads && bookTable instanceof OffHeapBookTable) {
+            throw new IllegalArgumentException("Snapshot reads keep copies of all books on heap, "
+                    + "set app.storage.memory.snapshot-reads=false to use the off-heap book table");
+        }
+        this.snapshotReads = snapshotReads;
+        this.bookData = bookTable;
+    }
 
     @Override
     public Person save(@NonNull Person person) {
@@ -35,6 +84,8 @@ public class Storage implements UserInMemoryRepository, BookInMemoryRepository {
 
             person.setId(nextUserId++);
             userData.put(person.getId(), person);
+            putUserSnapshot(person);
+            journal(PutUser.of(person));
 
             person.getBooks().forEach(book -> {
                 if (book.getUserId() != null) {
@@ -48,7 +99,7 @@ public class Storage implements UserInMemoryRepository, BookInMemoryRepository {
             return person;
 
         } finally {
-            lock.writeLock().unlock();
+            unlockWrite();
         }
     }
 
@@ -62,17 +113,56 @@ public class Storage implements UserInMemoryRepository, BookInMemoryRepository {
             if (userData.get(person.getId()) == null) {
                 throw new EntityDoesNotExistException("User with id " + person.getId() + " does not exist");
             }
-            return userData.merge(person.getId(), person, (oldUser, newUser) -> {
-                Set<Book> orphanBooks = new HashSet<>(getAllBooksByUserId(oldUser.getId()));
-                orphanBooks.removeAll(new HashSet<>(newUser.getBooks()));
-                orphanBooks.forEach(book -> bookData.get(book.getId()).setUserId(null));
+            Person updatedPerson = userData.merge(person.getId(), person, (oldUser, newUser) -> {
+                Set<Long> orphanBookIds = new HashSet<>();
+                Optional.ofNullable(userBookIds.get(oldUser.getId()))
+                        .ifPresent(bookIds -> bookIds.stream().forEach(orphanBookIds::add));
+                newUser.getBooks().stream()
+                        .map(Book::getId)
+                        .filter(Objects::nonNull)
+                        .forEach(orphanBookIds::remove);
+                orphanBookIds.stream()
+                        .map(bookData::get)
+                        .filter(Objects::nonNull)
+                        .forEach(book -> {
+                            unindexBook(book);
+                            book.setUserId(null);
+                            bookData.put(book);
+                            journal(PutBook.of(book));
+                        });
 
                 newUser.getBooks().forEach(this::saveOrUpdate);
                 return newUser;
             });
+            putUserSnapshot(updatedPerson);
+            journal(PutUser.of(updatedPerson));
+            return updatedPerson;
 
         } finally {
-            lock.writeLock().unlock();
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Заменяет только пользователя: индекс книг не меняется, в снимке книги разделяются с прошлым.
+     */
+    @Override
+    public Person updateDetails(@NonNull Person person) {
+        Objects.requireNonNull(person.getId(), USER_NEEDS_ID_MESSAGE);
+
+        lock.writeLock().lock();
+        try {
+
+            if (userData.get(person.getId()) == null) {
+                throw new EntityDoesNotExistException("User with id " + person.getId() + " does not exist");
+            }
+            userData.put(person.getId(), person);
+            putUserSnapshot(person);
+            journal(PutUser.of(person));
+            return person;
+
+        } finally {
+            unlockWrite();
         }
     }
 
@@ -83,13 +173,61 @@ public class Storage implements UserInMemoryRepository, BookInMemoryRepository {
 
     @Override
     public Optional<Person> getUserById(@NonNull Long id) {
+        if (snapshotReads) {
+            return Optional.ofNullable(snapshots.get(id)).map(UserSnapshot::toPerson);
+        }
+
         lock.readLock().lock();
         try {
 
-            Optional<Person> userOpt = Optional.ofNullable(userData.get(id));
-            userOpt.ifPresent(user -> user.setBooks(getAllBooksByUserId(id)));
-            return userOpt;
+            return Optional.ofNullable(userData.get(id))
+                    .map(this::copyWithBooks);
+
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Читает всех пользователей под одной блокировкой чтения, поэтому результат согласован между пользователями.
+     */
+    @Override
+    public List<Person> getUsersByIds(@NonNull Collection<Long> ids) {
+        lock.readLock().lock();
+        try {
+            List<Person> users = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Person user = userData.get(id);
+                if (user != null) {
+                    users.add(snapshotReads
+                            ? snapshots.get(id).toPerson()
+                            : copyWithBooks(user));
+                }
+            }
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
 
+    /**
+     * Проходит упорядоченные id пользователей под блокировкой чтения; при чтении из снимков пользователи
+     * копируются из опубликованных снимков, которые под этой блокировкой согласованы с данными.
+     */
+    @Override
+    public List<Person> getUsersAfter(long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Person> page = new ArrayList<>(Math.min(limit, userData.size()));
+            for (Person user : userData.tailMap(afterId, false).values()) {
+                if (page.size() == limit) {
+                    break;
+                }
+                page.add(snapshotReads
+                        ? snapshots.get(user.getId()).toPerson()
+                        : copyWithBooks(user));
+            }
+            return page;
         } finally {
             lock.readLock().unlock();
         }
@@ -102,14 +240,21 @@ public class Storage implements UserInMemoryRepository, BookInMemoryRepository {
 
             Person deletedPerson = userData.remove(id);
             if (deletedPerson != null) {
+                removeUserSnapshot(id);
                 getAllBooksByUserId(deletedPerson.getId())
                         .stream()
                         .map(Book::getId)
-                        .forEach(bookData::remove);
+                        .forEach(bookId -> {
+                            bookData.remove(bookId);
+                            bookSlots.remove(bookId);
+                            journal(new DeleteBook(bookId));
+                        });
+                userBookIds.remove(deletedPerson.getId());
+                journal(new DeleteUser(id));
             }
 
         } finally {
-            lock.writeLock().unlock();
+            unlockWrite();
         }
     }
 
@@ -123,12 +268,35 @@ public class Storage implements UserInMemoryRepository, BookInMemoryRepository {
         try {
 
             book.setId(nextBookId++);
-            bookData.put(book.getId(), book);
+            bookData.put(book);
+            indexBook(book);
+            journal(PutBook.of(book));
 
             return book;
 
         } finally {
-            lock.writeLock().unlock();
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Сохраняет книги под одной блокировкой записи: снимки пользователей перестраиваются
+     * и журнал ожидается один раз на весь список.
+     */
+    @Override
+    public List<Book> saveAll(@NonNull List<Book> books) {
+        books.forEach(book -> {
+            if (book.getId() != null) {
+                throw new IllegalArgumentException(BOOK_ALREADY_SAVED);
+            }
+        });
+
+        lock.writeLock().lock();
+        try {
+            books.forEach(this::save);
+            return books;
+        } finally {
+            unlockWrite();
         }
     }
 
@@ -139,14 +307,22 @@ public class Storage implements UserInMemoryRepository, BookInMemoryRepository {
         lock.writeLock().lock();
         try {
 
-            if (bookData.get(book.getId()) == null) {
+            Book oldBook = bookData.get(book.getId());
+            if (oldBook == null) {
                 throw new EntityDoesNotExistException("Book with id " + book.getId() + " does not exist");
             }
-            bookData.put(book.getId(), book);
+            bookData.put(book);
+            if (book.getUserId() != null && book.getUserId().equals(oldBook.getUserId())) {
+                replaceIndexedBook(book);
+            } else {
+                unindexBook(oldBook);
+                indexBook(book);
+            }
+            journal(PutBook.of(book));
             return book;
 
         } finally {
-            lock.writeLock().unlock();
+            unlockWrite();
         }
     }
 
@@ -169,12 +345,7 @@ public class Storage implements UserInMemoryRepository, BookInMemoryRepository {
     public List<Book> getAllBooksByUserId(@NonNull Long id) {
         lock.readLock().lock();
         try {
-
-            return bookData.values()
-                    .stream()
-                    .filter(book -> book != null && Objects.equals(book.getUserId(), id))
-                    .toList();
-
+            return booksOf(id).stream().sorted(BY_ID).toList();
         } finally {
             lock.readLock().unlock();
         }
@@ -184,9 +355,345 @@ public class Storage implements UserInMemoryRepository, BookInMemoryRepository {
     public void deleteBookById(@NonNull Long id) {
         lock.writeLock().lock();
         try {
-            bookData.remove(id);
+            Book deletedBook = bookData.remove(id);
+            if (deletedBook != null) {
+                unindexBook(deletedBook);
+                journal(new DeleteBook(id));
+            }
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Применяет разницу под одной блокировкой записи, журнал ожидается один раз. В отличие от
+     * {@link #update(Person)}, книги {@code deletedIds} удаляются, а не отвязываются от пользователя;
+     * id, не принадлежащие пользователю, пропускаются.
+     */
+    @Override
+    public List<Book> applyDiff(@NonNull Long userId, @NonNull Collection<Long> deletedIds,
+                                @NonNull List<Book> updated, @NonNull List<Book> inserted) {
+        inserted.forEach(book -> {
+            if (book.getId() != null) {
+                throw new IllegalArgumentException(BOOK_ALREADY_SAVED);
+            }
+        });
+        updated.forEach(book -> Objects.requireNonNull(book.getId(), BOOK_NEEDS_ID_MESSAGE));
+
+        lock.writeLock().lock();
+        try {
+
+            if (userData.get(userId) == null) {
+                throw new EntityDoesNotExistException("User with id " + userId + " does not exist");
+            }
+            updated.stream()
+                    .map(Book::getId)
+                    .filter(bookId -> bookData.get(bookId) == null)
+                    .findFirst()
+                    .ifPresent(bookId -> {
+                        throw new EntityDoesNotExistException("Book with id " + bookId + " does not exist");
+                    });
+
+            deletedIds.stream()
+                    .filter(bookId -> Optional.ofNullable(bookData.get(bookId))
+                            .map(book -> userId.equals(book.getUserId()))
+                            .orElse(false))
+                    .forEach(this::deleteBookById);
+            updated.forEach(book -> {
+                book.setUserId(userId);
+                update(book);
+            });
+            inserted.forEach(book -> {
+                book.setUserId(userId);
+                save(book);
+            });
+            return inserted;
+
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Подключает журнал изменений: с этого момента каждая запись попадает в него под блокировкой записи,
+     * а операция ждёт его сохранности уже после снятия блокировки.
+     */
+    public void attachJournal(@NonNull StorageJournal journal) {
+        lock.writeLock().lock();
+        try {
+            this.journal = journal;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Восстанавливает состояние из снимка или сегмента журнала. Записи применяются как есть, без проверок
+     * и без повторной записи в журнал. Счётчики идентификаторов берутся из {@link IdCounters} снимка,
+     * записи журнала сдвигают их за максимальные восстановленные id.
+     */
+    public void restore(@NonNull JournalReader reader) throws IOException {
+        lock.writeLock().lock();
+        try {
+            reader.read(this::apply);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Выгружает текущее состояние для снимка. Под блокировкой чтения записи стоят, поэтому контрольная точка
+     * журнала, взятая в начале, точно соответствует выгруженному состоянию. Под блокировкой берутся только
+     * ссылки на неизменяемые снимки пользователей и копии книг без владельца, записи создаются уже при чтении
+     * {@link Dump#records()}, после снятия блокировки.
+     * <p>
+     * При {@code snapshot-reads: false} неизменяемых снимков нет, и все записи копируются под блокировкой:
+     * на время снимка куче нужно место под одну запись на каждого пользователя и каждую книгу.
+     */
+    public Dump dump() {
+        lock.readLock().lock();
+        try {
+            long checkpoint = journal.checkpoint();
+            IdCounters counters = new IdCounters(nextUserId, nextBookId);
+            if (!snapshotReads) {
+                List<JournalRecord> records = new ArrayList<>(userData.size() + bookData.size() + 1);
+                records.add(counters);
+                userData.values().forEach(user -> records.add(PutUser.of(user)));
+                bookData.forEach(book -> records.add(PutBook.of(book)));
+                return new Dump(checkpoint, sink -> records.forEach(sink));
+            }
+
+            List<UserSnapshot> users = new ArrayList<>(userData.size());
+            userData.keySet().forEach(id -> users.add(snapshots.get(id)));
+            List<PutBook> booksWithoutUser = new ArrayList<>();
+            bookData.forEach(book -> {
+                if (book.getUserId() == null) {
+                    booksWithoutUser.add(PutBook.of(book));
+                }
+            });
+            return new Dump(checkpoint, sink -> {
+                sink.accept(counters);
+                users.forEach(user -> sink.accept(PutUser.of(user.user())));
+                users.forEach(user -> {
+                    for (int i = 0; i < user.books().size(); i++) {
+                        sink.accept(PutBook.of(user.books().get(i)));
+                    }
+                });
+                booksWithoutUser.forEach(sink);
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(JournalRecord record) {
+        if (record instanceof IdCounters counters) {
+            nextUserId = counters.nextUserId();
+            nextBookId = counters.nextBookId();
+        } else if (record instanceof PutUser user) {
+            Person person = userData.computeIfAbsent(user.id(), id -> new Person());
+            person.setId(user.id());
+            person.setFullName(user.fullName());
+            person.setTitle(user.title());
+            person.setAge(user.age());
+            person.setPreferredGenre(user.preferredGenre());
+            nextUserId = Math.max(nextUserId, user.id() + 1);
+            putUserSnapshot(person);
+        } else if (record instanceof DeleteUser user) {
+            userData.remove(user.id());
+            removeUserSnapshot(user.id());
+        } else if (record instanceof PutBook put) {
+            Optional.ofNullable(bookData.get(put.id())).ifPresent(this::unindexBook);
+            Book book = new Book();
+            book.setId(put.id());
+            book.setUserId(put.userId());
+            book.setTitle(put.title());
+            book.setAuthor(put.author());
+            book.setPageCount(put.pageCount());
+            bookData.put(book);
+            indexBook(book);
+            nextBookId = Math.max(nextBookId, put.id() + 1);
+        } else if (record instanceof DeleteBook delete) {
+            Optional.ofNullable(bookData.remove(delete.id())).ifPresent(this::unindexBook);
+        }
+    }
+
+    private void journal(JournalRecord record) {
+        if (journal != StorageJournal.NONE) {
+            journalPosition = journal.append(record);
+        }
+    }
+
+    private void indexBook(Book book) {
+        if (book.getUserId() != null) {
+            int slot = userBookIds.computeIfAbsent(book.getUserId(), userId -> new LongList()).add(book.getId());
+            bookSlots.put(book.getId(), slot);
+            changeSnapshot(book.getUserId(), snapshot -> snapshot.withBookAdded(book));
+        }
+    }
+
+    /**
+     * Обновление книги без смены владельца: позиция в индексе сохраняется, в снимке заменяется одна книга.
+     */
+    private void replaceIndexedBook(Book book) {
+        int slot = bookSlots.get(book.getId());
+        changeSnapshot(book.getUserId(), snapshot -> snapshot.withBookReplaced(slot, book));
+    }
+
+    /**
+     * Убирает книгу из индекса владельца за O(1): позиция берётся из {@code bookSlots},
+     * на её место переносится последняя книга владельца.
+     */
+    private void unindexBook(Book book) {
+        if (book.getUserId() == null) {
+            return;
+        }
+        LongList bookIds = userBookIds.get(book.getUserId());
+        int slot = bookSlots.remove(book.getId());
+        if (bookIds == null || slot == LongIntMap.MISSING) {
+            return;
+        }
+        long movedBookId = bookIds.removeAt(slot);
+        if (slot < bookIds.size()) {
+            bookSlots.put(movedBookId, slot);
+        }
+        changeSnapshot(book.getUserId(), snapshot -> snapshot.withBookRemoved(slot));
+        if (bookIds.isEmpty()) {
+            userBookIds.remove(book.getUserId());
+        }
+    }
+
+    /**
+     * Книги в порядке индекса: удаление переставляет последнюю книгу на место удалённой,
+     * поэтому наружу книги отдаются отсортированными по id, как в других хранилищах.
+     */
+    private List<Book> booksOf(Long userId) {
+        LongList bookIds = userBookIds.get(userId);
+        if (bookIds == null) {
+            return List.of();
+        }
+        return bookIds.stream()
+                .mapToObj(bookData::get)
+                .filter(book -> book != null && Objects.equals(book.getUserId(), userId))
+                .toList();
+    }
+
+    private Person copyWithBooks(Person user) {
+        Person copy = EntityCopies.copyOf(user);
+        copy.setBooks(booksOf(user.getId()).stream()
+                .map(EntityCopies::copyOf)
+                .sorted(BY_ID)
+                .collect(Collectors.toCollection(ArrayList::new)));
+        return copy;
+    }
+
+    private void putUserSnapshot(Person user) {
+        if (!snapshotReads) {
+            return;
+        }
+        UserSnapshot snapshot = workingSnapshot(user.getId());
+        pendingSnapshots.put(user.getId(), snapshot == null
+                ? UserSnapshot.of(user, booksOf(user.getId()))
+                : snapshot.withUser(user));
+    }
+
+    private void removeUserSnapshot(Long userId) {
+        if (snapshotReads) {
+            pendingSnapshots.put(userId, null);
+        }
+    }
+
+    /**
+     * Применяет изменение книг к рабочему снимку пользователя. Позиции книг в снимке совпадают
+     * с позициями в {@code userBookIds}, поэтому изменение затрагивает одну книгу.
+     */
+    private void changeSnapshot(Long userId, UnaryOperator<UserSnapshot> change) {
+        if (!snapshotReads) {
+            return;
+        }
+        UserSnapshot snapshot = workingSnapshot(userId);
+        if (snapshot != null) {
+            pendingSnapshots.put(userId, change.apply(snapshot));
+        }
+    }
+
+    private UserSnapshot workingSnapshot(Long userId) {
+        return pendingSnapshots.containsKey(userId) ? pendingSnapshots.get(userId) : snapshots.get(userId);
+    }
+
+    /**
+     * Снимает блокировку записи. При выходе из внешней операции публикует изменённые снимки пользователей,
+     * чтобы {@link #getUserById(Long)} читал их без блокировок,
+     * и после снятия блокировки ждёт сохранности записей журнала.
+     */
+    private void unlockWrite() {
+        StorageJournal outerJournal = null;
+        long position = 0;
+        try {
+            if (lock.getWriteHoldCount() == 1) {
+                outerJournal = journal;
+                position = journalPosition;
+                pendingSnapshots.forEach((userId, snapshot) -> {
+                    if (snapshot == null) {
+                        snapshots.remove(userId);
+                    } else {
+                        snapshots.put(userId, snapshot);
+                    }
+                });
+                pendingSnapshots.clear();
+            }
         } finally {
             lock.writeLock().unlock();
         }
+        if (outerJournal != null) {
+            outerJournal.awaitDurable(position);
+        }
+    }
+
+    /**
+     * Выгрузка хранилища для снимка.
+     *
+     * @param checkpoint номер сегмента журнала, с которого продолжается журнал после снимка
+     * @param records    записи состояния на момент контрольной точки, читаются без блокировки хранилища
+     */
+    public record Dump(long checkpoint, JournalReader records) {
+    }
+
+    /**
+     * Неизменяемый снимок пользователя. Книги - копии, хранящиеся в {@link PersistentVector},
+     * поэтому изменение одной книги копирует только её и путь к ней, остальные разделяются с прошлым снимком.
+     */
+    private record UserSnapshot(Person user, PersistentVector<Book> books) {
+        static UserSnapshot of(Person user, List<Book> books) {
+            PersistentVector<Book> vector = PersistentVector.empty();
+            for (Book book : books) {
+                vector = vector.push(EntityCopies.copyOf(book));
+            }
+            return new UserSnapshot(EntityCopies.copyOf(user), vector);
+        }
+
+        UserSnapshot withUser(Person user) {
+            return new UserSnapshot(EntityCopies.copyOf(user), books);
+        }
+
+        UserSnapshot withBookAdded(Book book) {
+            return new UserSnapshot(user, books.push(EntityCopies.copyOf(book)));
+        }
+
+        UserSnapshot withBookReplaced(int slot, Book book) {
+            return new UserSnapshot(user, books.set(slot, EntityCopies.copyOf(book)));
+        }
+
+        UserSnapshot withBookRemoved(int slot) {
+            return new UserSnapshot(user, books.removeAt(slot));
+        }
+
+        Person toPerson() {
+            Person person = EntityCopies.copyOf(user);
+            List<Book> bookCopies = books.map(EntityCopies::copyOf);
+            bookCopies.sort(BY_ID);
+            person.setBooks(bookCopies);
+            return person;
+        }
     }
 }
@@ -2,12 +2,29 @@ package com.edu.ulab.app.storage.memory;
 
 import com.edu.ulab.app.entity.Person;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserInMemoryRepository {
     Person save(Person person);
     Person update(Person person);
+
+    /**
+     * Обновляет поля пользователя, не затрагивая его книги.
+     */
+    Person updateDetails(Person person);
     Person saveOrUpdate(Person person);
     Optional<Person> getUserById(Long id);
     void deleteUserById(Long id);
+
+    /**
+     * Копии найденных пользователей с книгами, отсутствующие id пропускаются.
+     */
+    List<Person> getUsersByIds(Collection<Long> ids);
+
+    /**
+     * Копии пользователей с книгами в порядке id, начиная после {@code afterId}.
+     */
+    List<Person> getUsersAfter(long afterId, int limit);
 }
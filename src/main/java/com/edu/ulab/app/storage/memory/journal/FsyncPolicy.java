@@ -0,0 +1,16 @@
+package com.edu.ulab.app.storage.memory.journal;
+
+public enum FsyncPolicy {
+    /**
+     * Запрос ждёт fsync своей записи. Ожидающие запросы объединяются в один fsync (group commit).
+     */
+    ALWAYS,
+    /**
+     * fsync после batch-size записей или по истечении flush-interval, запросы не ждут.
+     */
+    BATCH,
+    /**
+     * Записи сбрасываются в page cache раз в flush-interval, fsync выполняет ОС.
+     */
+    NONE
+}
@@ -0,0 +1,144 @@
+package com.edu.ulab.app.storage.memory.journal;
+
+import com.edu.ulab.app.storage.memory.journal.JournalRecord.DeleteBook;
+import com.edu.ulab.app.storage.memory.journal.JournalRecord.DeleteUser;
+import com.edu.ulab.app.storage.memory.journal.JournalRecord.IdCounters;
+import com.edu.ulab.app.storage.memory.journal.JournalRecord.PutBook;
+import com.edu.ulab.app.storage.memory.journal.JournalRecord.PutUser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Двоичный формат записей журнала и снимков.
+ * Кадр: длина тела (int), CRC32C тела (int), тело. Тело: тип записи (byte) и поля,
+ * строки - длина в байтах UTF-8 (-1 для null) и байты.
+ */
+final class JournalCodec {
+    static final int FRAME_HEADER_SIZE = 8;
+
+    private static final byte PUT_USER = 1;
+    private static final byte DELETE_USER = 2;
+    private static final byte PUT_BOOK = 3;
+    private static final byte DELETE_BOOK = 4;
+    private static final byte ID_COUNTERS = 5;
+    private static final int NULL_LENGTH = -1;
+
+    private JournalCodec() {
+    }
+
+    /**
+     * @return размер кадра с заголовком
+     */
+    static int encodedSize(JournalRecord record) {
+        int bodySize = 1 + Long.BYTES;
+        if (record instanceof PutUser user) {
+            bodySize += sizeOf(user.fullName()) + sizeOf(user.title()) + Integer.BYTES + sizeOf(user.preferredGenre());
+        } else if (record instanceof PutBook book) {
+            bodySize += 1 + (book.userId() == null ? 0 : Long.BYTES) + sizeOf(book.title()) + sizeOf(book.author())
+                    + Long.BYTES;
+        } else if (record instanceof IdCounters) {
+            bodySize += Long.BYTES;
+        }
+        return FRAME_HEADER_SIZE + bodySize;
+    }
+
+    /**
+     * Записывает кадр в буфер, в котором есть место под {@link #encodedSize(JournalRecord)} байт.
+     */
+    static void encode(JournalRecord record, ByteBuffer target) {
+        int frameStart = target.position();
+        target.position(frameStart + FRAME_HEADER_SIZE);
+        if (record instanceof PutUser user) {
+            target.put(PUT_USER).putLong(user.id());
+            putString(target, user.fullName());
+            putString(target, user.title());
+            target.putInt(user.age());
+            putString(target, user.preferredGenre());
+        } else if (record instanceof PutBook book) {
+            target.put(PUT_BOOK).putLong(book.id());
+            if (book.userId() == null) {
+                target.put((byte) 0);
+            } else {
+                target.put((byte) 1).putLong(book.userId());
+            }
+            putString(target, book.title());
+            putString(target, book.author());
+            target.putLong(book.pageCount());
+        } else if (record instanceof DeleteUser user) {
+            target.put(DELETE_USER).putLong(user.id());
+        } else if (record instanceof DeleteBook book) {
+            target.put(DELETE_BOOK).putLong(book.id());
+        } else if (record instanceof IdCounters counters) {
+            target.put(ID_COUNTERS).putLong(counters.nextUserId()).putLong(counters.nextBookId());
+        }
+
+        int bodyLength = target.position() - frameStart - FRAME_HEADER_SIZE;
+        target.putInt(frameStart, bodyLength);
+        target.putInt(frameStart + Integer.BYTES, checksum(target, frameStart + FRAME_HEADER_SIZE, bodyLength));
+    }
+
+    /**
+     * Читает кадр с текущей позиции буфера.
+     *
+     * @return запись или {@code null}, если кадр не помещается в буфер или повреждён (оборванный хвост журнала);
+     * в этом случае позиция буфера не меняется
+     */
+    static JournalRecord decode(ByteBuffer source) {
+        int frameStart = source.position();
+        if (source.remaining() < FRAME_HEADER_SIZE) {
+            return null;
+        }
+        int bodyLength = source.getInt(frameStart);
+        int crc = source.getInt(frameStart + Integer.BYTES);
+        if (bodyLength <= 0 || bodyLength > source.remaining() - FRAME_HEADER_SIZE
+                || crc != checksum(source, frameStart + FRAME_HEADER_SIZE, bodyLength)) {
+            return null;
+        }
+
+        source.position(frameStart + FRAME_HEADER_SIZE);
+        byte type = source.get();
+        long id = source.getLong();
+        JournalRecord record = switch (type) {
+            case PUT_USER -> new PutUser(id, getString(source), getString(source), source.getInt(), getString(source));
+            case PUT_BOOK -> new PutBook(id, source.get() == 0 ? null : source.getLong(), getString(source),
+                    getString(source), source.getLong());
+            case DELETE_USER -> new DeleteUser(id);
+            case DELETE_BOOK -> new DeleteBook(id);
+            case ID_COUNTERS -> new IdCounters(id, source.getLong());
+            default -> throw new IllegalStateException("Unknown journal record type " + type);
+        };
+        source.position(frameStart + FRAME_HEADER_SIZE + bodyLength);
+        return record;
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private static int sizeOf(String value) {
+        return Integer.BYTES + (value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static void putString(ByteBuffer target, String value) {
+        if (value == null) {
+            target.putInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        target.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer source) {
+        int length = source.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
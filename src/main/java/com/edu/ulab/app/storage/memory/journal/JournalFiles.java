@@ -0,0 +1,205 @@
+package com.edu.ulab.app.storage.memory.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Файлы каталога журнала: сегменты {@code wal-<номер>.log} и снимки {@code snapshot-<номер>.snap}.
+ * Номер снимка - первый сегмент, который нужно применить поверх него.
+ * Файлы читаются через {@link FileChannel#map}, окнами, чтобы не ограничиваться 2 ГБ.
+ */
+final class JournalFiles {
+    private static final Pattern SEGMENT_NAME = Pattern.compile("wal-(\\d+)\\.log");
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d+)\\.snap");
+    private static final String SNAPSHOT_TEMP_NAME = "snapshot.tmp";
+    private static final int SNAPSHOT_MAGIC = 0x554C534E;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER_SIZE = 16;
+    private static final int SNAPSHOT_BUFFER_SIZE = 1024 * 1024;
+    private static final long MAP_WINDOW_SIZE = 256L * 1024 * 1024;
+
+    private JournalFiles() {
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        return list(directory, SEGMENT_NAME);
+    }
+
+    static List<Path> snapshots(Path directory) throws IOException {
+        return list(directory, SNAPSHOT_NAME);
+    }
+
+    static long numberOf(Path file) {
+        String name = file.getFileName().toString();
+        Matcher matcher = SEGMENT_NAME.matcher(name);
+        if (!matcher.matches()) {
+            matcher = SNAPSHOT_NAME.matcher(name);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Not a journal file: " + file);
+            }
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    /**
+     * Читает записи сегмента до конца файла или до первого повреждённого кадра.
+     *
+     * @return количество байт корректных записей
+     */
+    static long readSegment(Path segment, Consumer<JournalRecord> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            return readRecords(channel, 0, Long.MAX_VALUE, sink);
+        }
+    }
+
+    /**
+     * Записывает снимок во временный файл и атомарно переименовывает его. Записи кодируются в буфер
+     * по мере чтения из {@code records}, в памяти не накапливаются.
+     *
+     * @param checkpoint номер сегмента, с которого продолжается журнал
+     * @param records    выгруженные записи хранилища
+     * @return файл снимка
+     */
+    static Path writeSnapshot(Path directory, long checkpoint, JournalReader records) throws IOException {
+        Path temp = directory.resolve(SNAPSHOT_TEMP_NAME);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            SnapshotWriter writer = new SnapshotWriter(channel);
+            try {
+                records.read(writer);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.finish();
+            channel.force(true);
+        }
+
+        Path snapshot = directory.resolve(String.format("snapshot-%020d.snap", checkpoint));
+        Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory(directory);
+        return snapshot;
+    }
+
+    static void readSnapshot(Path snapshot, Consumer<JournalRecord> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, SNAPSHOT_HEADER_SIZE);
+            if (header.getInt() != SNAPSHOT_MAGIC || header.getInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Unsupported snapshot format: " + snapshot);
+            }
+            long recordCount = header.getLong();
+            long[] readCount = new long[1];
+            readRecords(channel, SNAPSHOT_HEADER_SIZE, recordCount, record -> {
+                readCount[0]++;
+                sink.accept(record);
+            });
+            if (readCount[0] != recordCount) {
+                throw new IOException("Snapshot " + snapshot + " is corrupted: expected " + recordCount
+                        + " records, read " + readCount[0]);
+            }
+        }
+    }
+
+    static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // не все файловые системы позволяют открыть каталог, переименование при этом всё равно атомарно
+        }
+    }
+
+    private static long readRecords(FileChannel channel, long start, long maxRecords,
+                                    Consumer<JournalRecord> sink) throws IOException {
+        long size = channel.size();
+        long position = start;
+        long records = 0;
+        while (position < size && records < maxRecords) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(size - position, MAP_WINDOW_SIZE));
+            JournalRecord record;
+            while (records < maxRecords && (record = JournalCodec.decode(window)) != null) {
+                sink.accept(record);
+                records++;
+            }
+            if (window.position() == 0) {
+                break;
+            }
+            position += window.position();
+        }
+        return position - start;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Кодирует записи снимка в буфер и сбрасывает его в файл по заполнении. Заголовок с количеством записей
+     * пишется в {@link #finish()}, когда количество известно.
+     */
+    private static final class SnapshotWriter implements Consumer<JournalRecord> {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(SNAPSHOT_BUFFER_SIZE);
+        private long recordCount;
+
+        SnapshotWriter(FileChannel channel) {
+            this.channel = channel;
+            buffer.position(SNAPSHOT_HEADER_SIZE);
+        }
+
+        @Override
+        public void accept(JournalRecord record) {
+            try {
+                int size = JournalCodec.encodedSize(record);
+                if (buffer.remaining() < size) {
+                    writeFully(channel, buffer.flip());
+                    buffer.clear();
+                }
+                if (buffer.remaining() < size) {
+                    ByteBuffer large = ByteBuffer.allocate(size);
+                    JournalCodec.encode(record, large);
+                    writeFully(channel, large.flip());
+                } else {
+                    JournalCodec.encode(record, buffer);
+                }
+                recordCount++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            writeFully(channel, buffer.flip());
+
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_SIZE)
+                    .putInt(SNAPSHOT_MAGIC)
+                    .putInt(SNAPSHOT_VERSION)
+                    .putLong(recordCount)
+                    .flip();
+            for (long offset = 0; header.hasRemaining(); ) {
+                offset += channel.write(header, offset);
+            }
+        }
+    }
+
+    private static List<Path> list(Path directory, Pattern pattern) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> pattern.matcher(file.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+        }
+    }
+}
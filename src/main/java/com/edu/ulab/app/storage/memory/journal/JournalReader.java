@@ -0,0 +1,9 @@
+package com.edu.ulab.app.storage.memory.journal;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+@FunctionalInterface
+public interface JournalReader {
+    void read(Consumer<JournalRecord> sink) throws IOException;
+}
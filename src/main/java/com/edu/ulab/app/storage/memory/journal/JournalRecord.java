@@ -0,0 +1,37 @@
+package com.edu.ulab.app.storage.memory.journal;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+
+/**
+ * Запись журнала хранилища в памяти. Записи физические: каждая описывает итоговое состояние строки,
+ * поэтому повторное применение журнала не зависит от логики каскадов {@code Storage}.
+ */
+public sealed interface JournalRecord {
+
+    record PutUser(long id, String fullName, String title, int age, String preferredGenre) implements JournalRecord {
+        public static PutUser of(Person person) {
+            return new PutUser(person.getId(), person.getFullName(), person.getTitle(), person.getAge(),
+                    person.getPreferredGenre());
+        }
+    }
+
+    record DeleteUser(long id) implements JournalRecord {
+    }
+
+    record PutBook(long id, Long userId, String title, String author, long pageCount) implements JournalRecord {
+        public static PutBook of(Book book) {
+            return new PutBook(book.getId(), book.getUserId(), book.getTitle(), book.getAuthor(), book.getPageCount());
+        }
+    }
+
+    record DeleteBook(long id) implements JournalRecord {
+    }
+
+    /**
+     * Счётчики идентификаторов на момент снимка. После удаления последних пользователей и книг
+     * они больше максимальных сохранённых id, поэтому восстанавливаются из этой записи, а не по данным.
+     */
+    record IdCounters(long nextUserId, long nextBookId) implements JournalRecord {
+    }
+}
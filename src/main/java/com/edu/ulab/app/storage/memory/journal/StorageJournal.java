@@ -0,0 +1,38 @@
+package com.edu.ulab.app.storage.memory.journal;
+
+/**
+ * Журнал изменений хранилища. {@link #append(JournalRecord)} вызывается под блокировкой записи хранилища,
+ * {@link #awaitDurable(long)} - после её снятия, чтобы ожидание fsync не блокировало другие операции.
+ */
+public interface StorageJournal {
+    StorageJournal NONE = new StorageJournal() {
+        @Override
+        public long append(JournalRecord record) {
+            return 0;
+        }
+
+        @Override
+        public void awaitDurable(long position) {
+        }
+
+        @Override
+        public long checkpoint() {
+            return 0;
+        }
+    };
+
+    /**
+     * @return позиция журнала после записи
+     */
+    long append(JournalRecord record);
+
+    void awaitDurable(long position);
+
+    /**
+     * Начинает новый сегмент журнала: записи, добавленные после вызова, попадут в него. Вызывается под
+     * блокировкой хранилища, поэтому не должен ждать ввода-вывода.
+     *
+     * @return номер нового сегмента: снимок, снятый в этот момент, заменяет все предыдущие сегменты
+     */
+    long checkpoint();
+}
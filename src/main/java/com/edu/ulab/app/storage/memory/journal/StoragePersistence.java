@@ -0,0 +1,156 @@
+package com.edu.ulab.app.storage.memory.journal;
+
+import com.edu.ulab.app.storage.memory.Storage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сохранность {@link Storage} между перезапусками: при старте восстанавливает последний снимок и применяет
+ * поверх него хвост журнала, затем подключает {@link WriteAheadLog} и периодически снимает новые снимки,
+ * удаляя покрытые ими сегменты журнала.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.storage.memory.wal", name = "enabled", havingValue = "true")
+public class StoragePersistence {
+    private final Storage storage;
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration snapshotInterval;
+
+    private WriteAheadLog wal;
+    private ScheduledExecutorService snapshotScheduler;
+    private long snapshotPosition;
+
+    /**
+     * Журнал поддерживает только {@link Storage} ({@code app.storage.memory.engine: locking}),
+     * с другим движком контекст не стартует.
+     */
+    @Autowired
+    public StoragePersistence(ObjectProvider<Storage> storageProvider,
+                              @Value("${app.storage.memory.wal.directory:data/storage}") Path directory,
+                              @Value("${app.storage.memory.wal.fsync:batch}") FsyncPolicy fsyncPolicy,
+                              @Value("${app.storage.memory.wal.batch-size:256}") int batchSize,
+                              @Value("${app.storage.memory.wal.flush-interval:10ms}") Duration flushInterval,
+                              @Value("${app.storage.memory.wal.snapshot-interval:5m}") Duration snapshotInterval) {
+        this(storageProvider.getIfAvailable(() -> {
+            throw new IllegalStateException("app.storage.memory.wal.enabled: true requires "
+                    + "app.storage.memory.engine: locking");
+        }), directory, fsyncPolicy, batchSize, flushInterval, snapshotInterval);
+    }
+
+    public StoragePersistence(Storage storage, Path directory, FsyncPolicy fsyncPolicy, int batchSize,
+                              Duration flushInterval, Duration snapshotInterval) {
+        this.storage = storage;
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+
+        long firstSegment = 0;
+        List<Path> snapshots = JournalFiles.snapshots(directory);
+        if (!snapshots.isEmpty()) {
+            Path snapshot = snapshots.get(snapshots.size() - 1);
+            storage.restore(sink -> JournalFiles.readSnapshot(snapshot, sink));
+            firstSegment = JournalFiles.numberOf(snapshot);
+            log.info("Restored in-memory storage from snapshot {}", snapshot);
+        }
+
+        long nextSegment = firstSegment;
+        for (Path segment : JournalFiles.segments(directory)) {
+            long number = JournalFiles.numberOf(segment);
+            if (number < firstSegment) {
+                continue;
+            }
+            long[] validBytes = new long[1];
+            storage.restore(sink -> validBytes[0] = JournalFiles.readSegment(segment, sink));
+            long size = Files.size(segment);
+            if (validBytes[0] < size) {
+                log.warn("Ignored {} bytes of torn records at the end of {}", size - validBytes[0], segment);
+            }
+            nextSegment = number + 1;
+        }
+        deleteFilesBefore(firstSegment);
+
+        wal = new WriteAheadLog(directory, nextSegment, fsyncPolicy, batchSize, flushInterval);
+        storage.attachJournal(wal);
+        log.info("Write-ahead log started at segment {} with fsync policy {}", nextSegment, fsyncPolicy);
+
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "storage-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = snapshotInterval.toMillis();
+        snapshotScheduler.scheduleWithFixedDelay(this::snapshotIfChanged, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Снимает снимок хранилища и удаляет сегменты журнала и снимки, которые он заменяет.
+     * Под блокировкой хранилища берутся только контрольная точка журнала и неизменяемое представление данных
+     * ({@link Storage#dump()}), кодирование и запись на диск идут после её снятия и не задерживают операции записи.
+     */
+    public Path snapshot() throws IOException {
+        long position = wal.appendedPosition();
+        Storage.Dump dump = storage.dump();
+        Path snapshot = JournalFiles.writeSnapshot(directory, dump.checkpoint(), dump.records());
+        snapshotPosition = position;
+        deleteFilesBefore(JournalFiles.numberOf(snapshot));
+        log.info("Saved in-memory storage snapshot {}", snapshot);
+        return snapshot;
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        snapshotScheduler.shutdown();
+        snapshotScheduler.awaitTermination(1, TimeUnit.MINUTES);
+        wal.close();
+    }
+
+    private void snapshotIfChanged() {
+        try {
+            if (wal.appendedPosition() != snapshotPosition) {
+                snapshot();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to save in-memory storage snapshot", e);
+        }
+    }
+
+    private void deleteFilesBefore(long segment) throws IOException {
+        for (Path file : JournalFiles.segments(directory)) {
+            if (JournalFiles.numberOf(file) < segment) {
+                Files.delete(file);
+            }
+        }
+        for (Path file : JournalFiles.snapshots(directory)) {
+            if (JournalFiles.numberOf(file) < segment) {
+                Files.delete(file);
+            }
+        }
+    }
+}
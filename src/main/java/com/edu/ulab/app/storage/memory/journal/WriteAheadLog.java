@@ -0,0 +1,300 @@
+package com.edu.ulab.app.storage.memory.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Журнал предзаписи из сегментов {@code wal-<номер>.log}.
+ * Записи кодируются в буфер в памяти, отдельный поток сбрасывает накопленный буфер в файл одним write
+ * и, в зависимости от {@link FsyncPolicy}, одним fsync на всю пачку.
+ * Позиция журнала - количество байт, записанных с момента открытия, она растёт через границы сегментов.
+ * Контрольная точка только закрывает текущий буфер как последний в сегменте, сброс этого буфера
+ * и переход к новому файлу сегмента выполняет поток записи.
+ * <p>
+ * Блокировки захватываются в порядке {@code ioLock -> stateLock}; под {@code stateLock} не выполняется ввод-вывод.
+ */
+@Slf4j
+public class WriteAheadLog implements StorageJournal, Closeable {
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private final ReentrantLock ioLock = new ReentrantLock();
+    private FileChannel channel;
+    private long segment;
+
+    private final ReentrantLock stateLock = new ReentrantLock();
+    private final Condition flushNeeded = stateLock.newCondition();
+    private final Condition flushed = stateLock.newCondition();
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private ByteBuffer spareBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    /**
+     * Буферы, закрытые контрольными точками: каждый дописывается в свой сегмент, после чего открывается следующий.
+     */
+    private final Queue<ByteBuffer> sealedSegments = new ArrayDeque<>();
+    private long lastSegment;
+    private long appendedPosition;
+    private long durablePosition;
+    private int pendingRecords;
+    private boolean flushRequested;
+    private boolean closed;
+    private IOException failure;
+
+    private final Thread flusher;
+
+    public WriteAheadLog(Path directory, long firstSegment, FsyncPolicy fsyncPolicy, int batchSize,
+                         Duration flushInterval) throws IOException {
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.segment = firstSegment;
+        this.lastSegment = firstSegment;
+        this.channel = openSegment(firstSegment);
+        this.flusher = new Thread(this::flushLoop, "storage-wal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    @Override
+    public long append(JournalRecord record) {
+        int size = JournalCodec.encodedSize(record);
+        stateLock.lock();
+        try {
+            ensureWritable();
+            if (buffer.remaining() < size) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + size));
+                grown.put(buffer.flip());
+                buffer = grown;
+            }
+            JournalCodec.encode(record, buffer);
+            appendedPosition += size;
+            if (fsyncPolicy == FsyncPolicy.BATCH && ++pendingRecords >= batchSize) {
+                requestFlush();
+            }
+            return appendedPosition;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * Для {@link FsyncPolicy#ALWAYS} ждёт, пока запись с указанной позицией попадёт на диск.
+     * Все ожидающие потоки будятся одним fsync.
+     */
+    @Override
+    public void awaitDurable(long position) {
+        if (fsyncPolicy != FsyncPolicy.ALWAYS) {
+            return;
+        }
+        stateLock.lock();
+        try {
+            while (durablePosition < position) {
+                ensureWritable();
+                requestFlush();
+                flushed.awaitUninterruptibly();
+            }
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * Записи, добавленные до вызова, остаются в текущем сегменте, последующие попадут в новый.
+     * Ввод-вывода здесь нет, поэтому вызов под блокировкой хранилища не ждёт fsync.
+     */
+    @Override
+    public long checkpoint() {
+        stateLock.lock();
+        try {
+            ensureWritable();
+            sealedSegments.add(buffer);
+            buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+            requestFlush();
+            return ++lastSegment;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    public long appendedPosition() {
+        stateLock.lock();
+        try {
+            return appendedPosition;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        stateLock.lock();
+        try {
+            closed = true;
+            flushNeeded.signal();
+        } finally {
+            stateLock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        ioLock.lock();
+        try {
+            flush();
+            channel.close();
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    static String segmentFileName(long segment) {
+        return String.format("wal-%020d.log", segment);
+    }
+
+    private FileChannel openSegment(long segment) throws IOException {
+        return FileChannel.open(directory.resolve(segmentFileName(segment)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private void flushLoop() {
+        while (true) {
+            stateLock.lock();
+            try {
+                if (!flushRequested && !closed) {
+                    flushNeeded.awaitNanos(flushIntervalNanos);
+                }
+                if (closed || failure != null) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                stateLock.unlock();
+            }
+
+            ioLock.lock();
+            try {
+                flush();
+            } catch (IOException e) {
+                log.error("Write-ahead log flush failed, storage writes are stopped", e);
+                return;
+            } finally {
+                ioLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Сбрасывает накопленные записи: сначала буферы, закрытые контрольными точками, каждый в свой сегмент,
+     * затем текущий буфер. Вызывается под {@code ioLock}; пока идёт запись в файл, новые записи копятся
+     * во втором буфере.
+     */
+    private void flush() throws IOException {
+        List<ByteBuffer> sealed;
+        ByteBuffer batch = null;
+        long batchEnd;
+        stateLock.lock();
+        try {
+            if (failure != null) {
+                throw new IOException("Write-ahead log has failed", failure);
+            }
+            flushRequested = false;
+            pendingRecords = 0;
+            if (buffer.position() == 0 && sealedSegments.isEmpty()) {
+                return;
+            }
+            sealed = new ArrayList<>(sealedSegments);
+            sealedSegments.clear();
+            if (buffer.position() > 0) {
+                batch = buffer;
+                buffer = spareBuffer;
+                spareBuffer = null;
+            }
+            batchEnd = appendedPosition;
+        } finally {
+            stateLock.unlock();
+        }
+
+        try {
+            for (ByteBuffer segmentTail : sealed) {
+                write(segmentTail);
+                channel.close();
+                channel = openSegment(++segment);
+            }
+            if (batch != null) {
+                write(batch);
+            }
+        } catch (IOException e) {
+            fail(e);
+            throw e;
+        }
+
+        stateLock.lock();
+        try {
+            durablePosition = batchEnd;
+            if (batch != null) {
+                spareBuffer = batch.clear();
+            }
+            flushed.signalAll();
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    private void write(ByteBuffer batch) throws IOException {
+        batch.flip();
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+        if (fsyncPolicy != FsyncPolicy.NONE) {
+            channel.force(false);
+        }
+    }
+
+    private void requestFlush() {
+        if (!flushRequested) {
+            flushRequested = true;
+            flushNeeded.signal();
+        }
+    }
+
+    private void fail(IOException e) {
+        stateLock.lock();
+        try {
+            if (failure == null) {
+                failure = e;
+            }
+            flushed.signalAll();
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    private void ensureWritable() {
+        if (failure != null) {
+            throw new IllegalStateException("Write-ahead log has failed", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+    }
+}
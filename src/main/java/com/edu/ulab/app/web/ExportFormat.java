@@ -0,0 +1,21 @@
+package com.edu.ulab.app.web;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Формат выгрузки пользователей.
+ */
+public enum ExportFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    CSV(new MediaType("text", "csv"));
+
+    private final MediaType mediaType;
+
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+}
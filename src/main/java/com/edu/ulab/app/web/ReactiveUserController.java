@@ -0,0 +1,79 @@
+package com.edu.ulab.app.web;
+
+import com.edu.ulab.app.facade.ReactiveUserDataFacade;
+import com.edu.ulab.app.web.constant.WebConstant;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import javax.validation.constraints.Pattern;
+
+import static com.edu.ulab.app.web.constant.WebConstant.REQUEST_ID_PATTERN;
+import static com.edu.ulab.app.web.constant.WebConstant.RQID;
+
+/**
+ * Эндпоинты создания, чтения, обновления и удаления {@link UserController} на реактивном backend.
+ * Поток запроса освобождается сразу после вызова фасада, ответ пишется асинхронно по завершении {@link Mono}.
+ */
+@Slf4j
+@RestController
+@RequestMapping(value = WebConstant.VERSION_URL + "/reactive/user",
+        produces = MediaType.APPLICATION_JSON_VALUE)
+@ConditionalOnProperty(prefix = "app.service.reactive", name = "enabled", havingValue = "true")
+public class ReactiveUserController {
+    private final ReactiveUserDataFacade userDataFacade;
+
+    public ReactiveUserController(ReactiveUserDataFacade userDataFacade) {
+        this.userDataFacade = userDataFacade;
+    }
+
+    @PostMapping(value = "/create")
+    @Operation(summary = "Create user book row on the reactive backend.",
+            responses = {
+                    @ApiResponse(description = "User book",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = UserBookResponse.class)))})
+    public Mono<UserBookResponse> createUserWithBooks(@RequestBody UserBookRequest request,
+                                                      @RequestHeader(RQID) @Pattern(regexp = REQUEST_ID_PATTERN) final String requestId) {
+        return userDataFacade.createUserWithBooks(request)
+                .doOnNext(response -> log.debug("Response with created user and his books: {}", response));
+    }
+
+    @PutMapping(value = "/update/{userId}")
+    @Operation(summary = "Update an existing user on the reactive backend. "
+            + "Previously associated books will be changed to the provided list of books.",
+            responses = {
+                    @ApiResponse(description = "User book",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = UserBookResponse.class)))})
+    public Mono<UserBookResponse> updateUserWithBooks(@RequestBody UserBookRequest request, @PathVariable Long userId) {
+        return userDataFacade.updateUserWithBooks(request, userId)
+                .doOnNext(response -> log.debug("Response with updated user and his books: {}", response));
+    }
+
+    @GetMapping(value = "/get/{userId}")
+    @Operation(summary = "Get user with provided id from the reactive backend.",
+            responses = {
+                    @ApiResponse(description = "User book",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = UserBookResponse.class)))})
+    public Mono<UserBookResponse> getUserWithBooks(@PathVariable Long userId) {
+        return userDataFacade.getUserWithBooks(userId)
+                .doOnNext(response -> log.debug("Response with user and his books: {}", response));
+    }
+
+    @DeleteMapping(value = "/delete/{userId}")
+    @Operation(summary = "Delete user on the reactive backend if a user with provided id exists.")
+    public Mono<Void> deleteUserWithBooks(@PathVariable Long userId) {
+        log.info("Delete user and his books:  userId {}", userId);
+        return userDataFacade.deleteUserWithBooks(userId);
+    }
+}
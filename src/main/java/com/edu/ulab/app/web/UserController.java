@@ -1,18 +1,32 @@
 package com.edu.ulab.app.web;
 
 import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.service.UserExportService;
+import com.edu.ulab.app.service.UserImportService;
 import com.edu.ulab.app.web.constant.WebConstant;
 import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.UserBatchResponse;
 import com.edu.ulab.app.web.response.UserBookResponse;
+import com.edu.ulab.app.web.response.UserImportResult;
+import com.edu.ulab.app.web.response.UserPageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Pattern;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
 
 import static com.edu.ulab.app.web.constant.WebConstant.REQUEST_ID_PATTERN;
 import static com.edu.ulab.app.web.constant.WebConstant.RQID;
@@ -23,9 +37,18 @@ import static com.edu.ulab.app.web.constant.WebConstant.RQID;
         produces = MediaType.APPLICATION_JSON_VALUE)
 public class UserController {
     private final UserDataFacade userDataFacade;
+    private final UserImportService userImportService;
+    private final UserExportService userExportService;
+    private final ObjectMapper objectMapper;
 
-    public UserController(UserDataFacade userDataFacade) {
+    public UserController(UserDataFacade userDataFacade,
+                          UserImportService userImportService,
+                          UserExportService userExportService,
+                          ObjectMapper objectMapper) {
         this.userDataFacade = userDataFacade;
+        this.userImportService = userImportService;
+        this.userExportService = userExportService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping(value = "/create")
@@ -37,7 +60,7 @@ public class UserController {
     public UserBookResponse createUserWithBooks(@RequestBody UserBookRequest request,
                                                 @RequestHeader(RQID) @Pattern(regexp = REQUEST_ID_PATTERN) final String requestId) {
         UserBookResponse response = userDataFacade.createUserWithBooks(request);
-        log.info("Response with created user and his books: {}", response);
+        log.debug("Response with created user and his books: {}", response);
         return response;
     }
 
@@ -49,7 +72,7 @@ public class UserController {
                                     schema = @Schema(implementation = UserBookResponse.class)))})
     public UserBookResponse updateUserWithBooks(@RequestBody UserBookRequest request,@PathVariable Long userId) {
         UserBookResponse response = userDataFacade.updateUserWithBooks(request, userId);
-        log.info("Response with updated user and his books: {}", response);
+        log.debug("Response with updated user and his books: {}", response);
         return response;
     }
 
@@ -61,7 +84,34 @@ public class UserController {
                                     schema = @Schema(implementation = UserBookResponse.class)))})
     public UserBookResponse getUserWithBooks(@PathVariable Long userId) {
         UserBookResponse response = userDataFacade.getUserWithBooks(userId);
-        log.info("Response with user and his books: {}", response);
+        log.debug("Response with user and his books: {}", response);
+        return response;
+    }
+
+    @PostMapping(value = "/get")
+    @Operation(summary = "Get users with provided ids in one request. Ids of users that do not exist are listed "
+            + "in missingIds instead of failing the request.",
+            responses = {
+                    @ApiResponse(description = "Found users and missing ids",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = UserBatchResponse.class)))})
+    public UserBatchResponse getUsersWithBooks(@RequestBody List<Long> userIds) {
+        UserBatchResponse response = userDataFacade.getUsersWithBooks(userIds);
+        log.debug("Response with {} users, missing ids: {}", response.getUsers().size(), response.getMissingIds());
+        return response;
+    }
+
+    @GetMapping(value = "/list")
+    @Operation(summary = "Get a page of users with their book ids ordered by id. "
+            + "Pass nextCursor from the previous page to get the next one.",
+            responses = {
+                    @ApiResponse(description = "Page of users",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = UserPageResponse.class)))})
+    public UserPageResponse getUsersPage(@RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "50") int limit) {
+        UserPageResponse response = userDataFacade.getUsersPage(cursor, limit);
+        log.debug("Response with page of {} users", response.getUsers().size());
         return response;
     }
 
@@ -71,4 +121,42 @@ public class UserController {
         log.info("Delete user and his books:  userId {}", userId);
         userDataFacade.deleteUserWithBooks(userId);
     }
+
+    @PostMapping(value = "/import",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Import users with books from a JSON array or NDJSON stream. "
+            + "Responds with one NDJSON line per record: created ids or an error.")
+    public void importUsers(HttpServletRequest request,
+                            HttpServletResponse response,
+                            @RequestHeader(RQID) @Pattern(regexp = REQUEST_ID_PATTERN) final String requestId)
+            throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        userImportService.importUsers(request.getInputStream(), results -> {
+            try {
+                for (UserImportResult result : results) {
+                    out.write(objectMapper.writeValueAsBytes(result));
+                    out.write('\n');
+                }
+                out.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    @Operation(summary = "Export all users with their book ids as NDJSON or CSV, streamed in user id order.")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        StreamingResponseBody body = out -> {
+            UserExportWriter writer = new UserExportWriter(format, objectMapper, out);
+            userExportService.exportUsers(writer::write);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .body(body);
+    }
 }
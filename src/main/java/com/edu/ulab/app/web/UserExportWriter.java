@@ -0,0 +1,67 @@
+package com.edu.ulab.app.web;
+
+import com.edu.ulab.app.web.response.UserExportRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+
+/**
+ * Пишет строки выгрузки в буферизованный поток ответа: NDJSON - объект на строку,
+ * CSV - заголовок и строка на пользователя, id книг через пробел.
+ */
+class UserExportWriter {
+    private static final String CSV_HEADER = "user_id,full_name,title,age,preferred_genre,books_id_list\n";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ExportFormat format;
+    private final ObjectMapper objectMapper;
+    private final OutputStream out;
+
+    UserExportWriter(ExportFormat format, ObjectMapper objectMapper, OutputStream out) throws IOException {
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.out = new BufferedOutputStream(out, BUFFER_SIZE);
+        if (format == ExportFormat.CSV) {
+            this.out.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    void write(UserExportRow row) {
+        try {
+            if (format == ExportFormat.CSV) {
+                out.write(toCsv(row).getBytes(StandardCharsets.UTF_8));
+            } else {
+                out.write(objectMapper.writeValueAsBytes(row));
+            }
+            out.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    private static String toCsv(UserExportRow row) {
+        return row.getUserId() + ","
+                + csvField(row.getFullName()) + ","
+                + csvField(row.getTitle()) + ","
+                + row.getAge() + ","
+                + csvField(row.getPreferredGenre()) + ","
+                + row.getBooksIdList().stream().map(String::valueOf).collect(Collectors.joining(" "));
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
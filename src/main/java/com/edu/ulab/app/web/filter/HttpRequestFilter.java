@@ -20,7 +20,7 @@ public class HttpRequestFilter extends OncePerRequestFilter {
                                     final FilterChain filterChain) throws ServletException, IOException {
         String requestId = request.getHeader("rqid");
         MDC.put("requestId", requestId);
-        log.info("RequestId : {}", requestId);
+        log.debug("RequestId : {}", requestId);
         try {
             filterChain.doFilter(request, response);
         } finally {
@@ -0,0 +1,16 @@
+package com.edu.ulab.app.web.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Пользователи с id книг в порядке запроса и id, для которых пользователь не найден.
+ */
+@Data
+@Builder
+public class UserBatchResponse {
+    private List<UserBookResponse> users;
+    private List<Long> missingIds;
+}
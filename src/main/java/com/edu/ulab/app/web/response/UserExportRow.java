@@ -0,0 +1,20 @@
+package com.edu.ulab.app.web.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Пользователь с id его книг в выгрузке.
+ */
+@Data
+@Builder
+public class UserExportRow {
+    private Long userId;
+    private String fullName;
+    private String title;
+    private int age;
+    private String preferredGenre;
+    private List<Long> booksIdList;
+}
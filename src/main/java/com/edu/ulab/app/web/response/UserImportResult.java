@@ -0,0 +1,28 @@
+package com.edu.ulab.app.web.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Результат импорта одной записи: id созданных пользователя и книг или ошибка.
+ * {@code index} - номер записи во входном потоке, начиная с 0.
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResult {
+    private long index;
+    private Long userId;
+    private List<Long> booksIdList;
+    private String error;
+
+    public static UserImportResult failed(long index, String error) {
+        return UserImportResult.builder()
+                .index(index)
+                .error(error)
+                .build();
+    }
+}
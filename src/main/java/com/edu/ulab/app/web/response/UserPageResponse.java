@@ -0,0 +1,16 @@
+package com.edu.ulab.app.web.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Страница пользователей. {@code nextCursor} передаётся в следующий запрос, на последней странице он {@code null}.
+ */
+@Data
+@Builder
+public class UserPageResponse {
+    private List<UserBookResponse> users;
+    private String nextCursor;
+}
@@ -0,0 +1,16 @@
+-- Отдельные последовательности для person и book, шаг равен increment_size оптимизатора pooled-lo.
+-- Узел с pooled-lo берёт nextval = v и раздаёт id из [v, v + 49], поэтому новые последовательности
+-- начинаются выше и существующих id, и последнего значения, выданного общей последовательностью.
+-- Общая ulab_edu.sequence не меняется; узлы предыдущей версии продолжили бы брать из неё id,
+-- их нужно остановить до миграции.
+create sequence ulab_edu.person_sequence increment by 50;
+create sequence ulab_edu.book_sequence increment by 50;
+
+select setval('ulab_edu.person_sequence',
+              greatest(coalesce((select max(id) from ulab_edu.person), 0),
+                       (select last_value from ulab_edu.sequence)) + 1,
+              false);
+select setval('ulab_edu.book_sequence',
+              greatest(coalesce((select max(id) from ulab_edu.book), 0),
+                       (select last_value from ulab_edu.sequence)) + 1,
+              false);
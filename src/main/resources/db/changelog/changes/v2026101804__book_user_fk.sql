@@ -0,0 +1,18 @@
+--liquibase formatted sql
+
+-- Книги без владельца могли остаться от удалений по одной строке. Миграция их не удаляет:
+-- при таких строках она останавливается, и оператор сам решает, удалить книги или восстановить владельцев.
+-- select * from ulab_edu.book b where not exists(select 1 from ulab_edu.person p where p.id = b.user_id);
+
+--changeset ulab_edu:v2026101804-1
+--preconditions onFail:HALT onError:HALT
+--precondition-sql-check expectedResult:0 select count(*) from ulab_edu.book b where not exists(select 1 from ulab_edu.person p where p.id = b.user_id)
+-- NOT VALID не проверяет существующие строки, блокировка таблиц держится только на время изменения каталога.
+alter table ulab_edu.book
+    add constraint fk_ulab_edu_book_user_id foreign key (user_id)
+        references ulab_edu.person (id) on delete cascade not valid;
+
+--changeset ulab_edu:v2026101804-2
+-- Проверка существующих строк под SHARE UPDATE EXCLUSIVE, чтение и запись в таблицы не блокируются.
+alter table ulab_edu.book
+    validate constraint fk_ulab_edu_book_user_id;
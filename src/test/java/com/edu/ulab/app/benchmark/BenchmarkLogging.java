@@ -0,0 +1,19 @@
+package com.edu.ulab.app.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Без контекста Spring logback работает с конфигурацией по умолчанию и пишет debug фасада в консоль,
+ * что измеряется вместо самого фасада.
+ */
+final class BenchmarkLogging {
+
+    private BenchmarkLogging() {
+    }
+
+    static void warnOnly() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+}
@@ -0,0 +1,99 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.storage.memory.BookTable;
+import com.edu.ulab.app.storage.memory.HeapBookTable;
+import com.edu.ulab.app.storage.memory.OffHeapBookTable;
+import com.edu.ulab.app.storage.memory.Storage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение таблиц книг {@link HeapBookTable} и {@link OffHeapBookTable} внутри {@link Storage}:
+ * занимаемая куча после загрузки (печатается в вывод форка) и пропускная способность чтения и обновления.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx8g", "-XX:MaxDirectMemorySize=8g"})
+public class BookTableBenchmark {
+    private static final String[] AUTHORS = {"Tolkien", "Pratchett", "Le Guin", "Herbert", "Asimov"};
+
+    @Param({"heap", "offheap"})
+    private String table;
+
+    @Param({"1000000"})
+    private int totalBooks;
+
+    @Param({"10"})
+    private int booksPerUser;
+
+    private Storage storage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long heapBefore = usedHeap();
+        BookTable bookTable = "offheap".equals(table) ? new OffHeapBookTable() : new HeapBookTable();
+        storage = new Storage(false, bookTable);
+        for (int i = 0; i < totalBooks; i++) {
+            storage.save(book(null, ownerOf(i + 1)));
+        }
+        long heapAfter = usedHeap();
+        long offHeap = bookTable instanceof OffHeapBookTable offHeapTable ? offHeapTable.offHeapBytes() : 0;
+        System.out.printf("%n# %s: heap used by %d books: %d MB (%d bytes/book), off-heap slabs: %d MB%n",
+                table, totalBooks, (heapAfter - heapBefore) >> 20, (heapAfter - heapBefore) / totalBooks,
+                offHeap >> 20);
+    }
+
+    @Benchmark
+    public Optional<Book> getBookById() {
+        return storage.getBookById(randomBookId());
+    }
+
+    @Benchmark
+    public Book updateBook() {
+        long bookId = randomBookId();
+        return storage.update(book(bookId, ownerOf(bookId)));
+    }
+
+    private long ownerOf(long bookId) {
+        return (bookId - 1) / booksPerUser + 1;
+    }
+
+    private long randomBookId() {
+        return ThreadLocalRandom.current().nextLong(1, totalBooks + 1);
+    }
+
+    private static Book book(Long id, Long userId) {
+        Book book = new Book();
+        book.setId(id);
+        book.setUserId(userId);
+        book.setTitle("The book number " + ThreadLocalRandom.current().nextInt(1_000_000));
+        book.setAuthor(AUTHORS[ThreadLocalRandom.current().nextInt(AUTHORS.length)]);
+        book.setPageCount(ThreadLocalRandom.current().nextLong(50, 1500));
+        return book;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookTableBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,160 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.AppApplication;
+import com.edu.ulab.app.config.PostgresContainerConfig;
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.storage.jdbc.PgCopyLoader;
+import com.edu.ulab.app.storage.jdbc.PooledIdAllocator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Загрузка 1M книг ({@code users * booksPerUser}) в Postgres из {@link PostgresContainerConfig} одной транзакцией:
+ * <ul>
+ *     <li>{@code copy} - {@link PgCopyLoader}, двоичный COPY с заранее выделенными id;</li>
+ *     <li>{@code per-row} - INSERT на каждую строку с чтением сгенерированного id, как в template-реализации.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class CopyLoaderBenchmark {
+    private static final String INSERT_PERSON_SQL =
+            "INSERT INTO ulab_edu.person(ID, FULL_NAME, TITLE, AGE, PREFERRED_GENRE) "
+                    + "VALUES (nextval('ulab_edu.person_sequence'),?,?,?,?)";
+    private static final String INSERT_BOOK_SQL =
+            "INSERT INTO ulab_edu.book(ID, USER_ID, TITLE, AUTHOR, PAGE_COUNT) "
+                    + "VALUES (nextval('ulab_edu.book_sequence'),?,?,?,?)";
+
+    @Param({"copy", "per-row"})
+    private String method;
+
+    @Param({"10000"})
+    private int users;
+
+    @Param({"100"})
+    private int booksPerUser;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private PgCopyLoader copyLoader;
+    private PooledIdAllocator idAllocator;
+    private List<Person> persons;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(AppApplication.class, PostgresContainerConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false")
+                .run();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        copyLoader = context.getBean(PgCopyLoader.class);
+        idAllocator = context.getBean(PooledIdAllocator.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void prepareData() {
+        jdbcTemplate.execute("TRUNCATE ulab_edu.person CASCADE");
+        persons = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            Person person = new Person();
+            person.setFullName("benchmark user");
+            person.setTitle("benchmark " + i);
+            person.setAge(30);
+            person.setPreferredGenre("fantasy");
+            for (int j = 0; j < booksPerUser; j++) {
+                Book book = new Book();
+                book.setTitle("book " + j);
+                book.setAuthor("author");
+                book.setPageCount(100);
+                person.getBooks().add(book);
+            }
+            persons.add(person);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void load() {
+        if ("copy".equals(method)) {
+            assignIds();
+            copyLoader.load(persons);
+        } else {
+            transactionTemplate.executeWithoutResult(status -> persons.forEach(this::insertPerRow));
+        }
+    }
+
+    private void assignIds() {
+        long[] personIds = idAllocator.allocate(PooledIdAllocator.PERSON_SEQUENCE, persons.size());
+        long[] bookIds = idAllocator.allocate(PooledIdAllocator.BOOK_SEQUENCE, persons.size() * booksPerUser);
+        int nextBook = 0;
+        for (int i = 0; i < persons.size(); i++) {
+            Person person = persons.get(i);
+            person.setId(personIds[i]);
+            for (Book book : person.getBooks()) {
+                book.setId(bookIds[nextBook++]);
+                book.setUserId(person.getId());
+            }
+        }
+    }
+
+    private void insertPerRow(Person person) {
+        person.setId(insertReturningId(INSERT_PERSON_SQL, ps -> {
+            ps.setString(1, person.getFullName());
+            ps.setString(2, person.getTitle());
+            ps.setInt(3, person.getAge());
+            ps.setString(4, person.getPreferredGenre());
+        }));
+        for (Book book : person.getBooks()) {
+            book.setId(insertReturningId(INSERT_BOOK_SQL, ps -> {
+                ps.setLong(1, person.getId());
+                ps.setString(2, book.getTitle());
+                ps.setString(3, book.getAuthor());
+                ps.setLong(4, book.getPageCount());
+            }));
+        }
+    }
+
+    private long insertReturningId(String sql, PreparedStatementSetter setter) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, new String[]{"id"});
+            setter.setValues(ps);
+            return ps;
+        }, keyHolder);
+        return Objects.requireNonNull(keyHolder.getKey()).longValue();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CopyLoaderBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,105 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.concurrent.FanOutExecutor;
+import com.edu.ulab.app.facade.BookUpdateMode;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.impl.BookServiceInMemoryImpl;
+import com.edu.ulab.app.service.impl.UserServiceInMemoryImpl;
+import com.edu.ulab.app.storage.memory.Storage;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Время создания пользователя с сотнями книг через {@link UserDataFacade} на хранилище в памяти
+ * без {@link FanOutExecutor} ({@code parallel=false}) и с ним. Хранилище пересоздаётся на каждой итерации,
+ * чтобы не накапливать пользователей. Сопоставление книг занимает около 5% времени вызова
+ * (сравните с {@link MapperBenchmark}), поэтому распараллеливание может сэкономить не больше этой доли.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FacadeFanOutBenchmark {
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    @Param({"100", "500", "2000"})
+    private int booksPerUser;
+
+    private FanOutExecutor fanOutExecutor;
+    private UserDataFacade facade;
+    private UserBookRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkLogging.warnOnly();
+        fanOutExecutor = parallel ? new FanOutExecutor(Runtime.getRuntime().availableProcessors(), 1000, 64) : null;
+        request = request(booksPerUser);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpStorage() {
+        Storage storage = new Storage();
+        UserMapper userMapper = new UserMapperImpl();
+        BookMapper bookMapper = new BookMapperImpl();
+        facade = new UserDataFacade(new UserServiceInMemoryImpl(storage, userMapper),
+                new BookServiceInMemoryImpl(storage, bookMapper, fanOutExecutor),
+                userMapper, bookMapper, BookUpdateMode.REPLACE, fanOutExecutor);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.destroy();
+        }
+    }
+
+    @Benchmark
+    public UserBookResponse createUserWithBooks() {
+        return facade.createUserWithBooks(request);
+    }
+
+    private static UserBookRequest request(int booksPerUser) {
+        UserRequest user = new UserRequest();
+        user.setFullName("benchmark");
+        user.setTitle("benchmark");
+        user.setAge(30);
+        user.setPreferredGenre("fantasy");
+        List<BookRequest> books = IntStream.range(0, booksPerUser)
+                .mapToObj(i -> {
+                    BookRequest book = new BookRequest();
+                    book.setTitle("book " + i);
+                    book.setAuthor("author");
+                    book.setPageCount(100);
+                    return book;
+                })
+                .toList();
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(user);
+        request.setBookRequests(books);
+        return request;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FacadeFanOutBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
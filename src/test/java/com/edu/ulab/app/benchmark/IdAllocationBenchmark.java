@@ -0,0 +1,109 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.AppApplication;
+import com.edu.ulab.app.config.PostgresContainerConfig;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вставка пачки книг в Postgres из {@link PostgresContainerConfig} при выделении id
+ * по одному nextval на строку (allocationSize = 1) и блоками pooled-lo (один nextval на пачку до 50 строк).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdAllocationBenchmark {
+    private static final String NEXTVAL_SQL = "SELECT nextval('ulab_edu.book_sequence')";
+    private static final String INSERT_SQL =
+            "INSERT INTO ulab_edu.book(ID, USER_ID, TITLE, AUTHOR, PAGE_COUNT) VALUES (?,?,?,?,?)";
+
+    @Param({"sequence-per-row", "pooled-lo"})
+    private String allocation;
+
+    @Param({"50"})
+    private int booksPerRequest;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(AppApplication.class, PostgresContainerConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false")
+                .run();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        userId = jdbcTemplate.queryForObject("SELECT nextval('ulab_edu.person_sequence')", Long.class);
+        jdbcTemplate.update("INSERT INTO ulab_edu.person(ID, FULL_NAME, TITLE, AGE, PREFERRED_GENRE) "
+                + "VALUES (?, 'benchmark', ?, 30, 'fantasy')", userId, "benchmark " + userId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM ulab_edu.book WHERE USER_ID = ?", userId);
+        jdbcTemplate.update("DELETE FROM ulab_edu.person WHERE ID = ?", userId);
+        context.close();
+    }
+
+    @Benchmark
+    public int[] insertBooks() {
+        return transactionTemplate.execute(status -> {
+            long[] ids = allocateIds();
+            return jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, ids[i]);
+                    ps.setLong(2, userId);
+                    ps.setString(3, "book " + i);
+                    ps.setString(4, "author");
+                    ps.setLong(5, 100);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return ids.length;
+                }
+            });
+        });
+    }
+
+    private long[] allocateIds() {
+        long[] ids = new long[booksPerRequest];
+        if ("pooled-lo".equals(allocation)) {
+            long first = jdbcTemplate.queryForObject(NEXTVAL_SQL, Long.class);
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = first + i;
+            }
+        } else {
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = jdbcTemplate.queryForObject(NEXTVAL_SQL, Long.class);
+            }
+        }
+        return ids;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IdAllocationBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,127 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.facade.BookUpdateMode;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.impl.BookServiceInMemoryImpl;
+import com.edu.ulab.app.service.impl.UserServiceInMemoryImpl;
+import com.edu.ulab.app.storage.memory.BookInMemoryRepository;
+import com.edu.ulab.app.storage.memory.ConcurrentStorage;
+import com.edu.ulab.app.storage.memory.Storage;
+import com.edu.ulab.app.storage.memory.UserInMemoryRepository;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * {@link UserDataFacade} целиком на backend в памяти для обоих хранилищ ({@code app.storage.memory.engine}):
+ * создание, чтение и обновление пользователя с книгами. Число потоков задаётся параметром JMH {@code -t}.
+ * Хранилище пересоздаётся и заполняется на каждой итерации, чтобы создание не раздувало его.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InMemoryFacadeBenchmark {
+    @Param({"locking", "concurrent"})
+    private String engine;
+
+    @Param({"1", "10", "100"})
+    private int booksPerUser;
+
+    @Param({"10000"})
+    private int users;
+
+    private UserDataFacade facade;
+    private UserBookRequest request;
+    private long firstUserId;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        BenchmarkLogging.warnOnly();
+        UserInMemoryRepository userRepository;
+        BookInMemoryRepository bookRepository;
+        if (engine.equals("concurrent")) {
+            ConcurrentStorage storage = new ConcurrentStorage();
+            userRepository = storage;
+            bookRepository = storage;
+        } else {
+            Storage storage = new Storage();
+            userRepository = storage;
+            bookRepository = storage;
+        }
+        UserMapper userMapper = new UserMapperImpl();
+        BookMapper bookMapper = new BookMapperImpl();
+        facade = new UserDataFacade(new UserServiceInMemoryImpl(userRepository, userMapper),
+                new BookServiceInMemoryImpl(bookRepository, bookMapper, null),
+                userMapper, bookMapper, BookUpdateMode.REPLACE, null);
+
+        request = request(booksPerUser);
+        firstUserId = facade.createUserWithBooks(request).getUserId();
+        for (int i = 1; i < users; i++) {
+            facade.createUserWithBooks(request);
+        }
+    }
+
+    @Benchmark
+    public UserBookResponse createUserWithBooks() {
+        return facade.createUserWithBooks(request);
+    }
+
+    @Benchmark
+    public UserBookResponse getUserWithBooks() {
+        return facade.getUserWithBooks(randomUserId());
+    }
+
+    @Benchmark
+    public UserBookResponse updateUserWithBooks() {
+        return facade.updateUserWithBooks(request, randomUserId());
+    }
+
+    private long randomUserId() {
+        return firstUserId + ThreadLocalRandom.current().nextLong(users);
+    }
+
+    static UserBookRequest request(int booksPerUser) {
+        UserRequest user = new UserRequest();
+        user.setFullName("benchmark");
+        user.setTitle("benchmark");
+        user.setAge(30);
+        user.setPreferredGenre("fantasy");
+        List<BookRequest> books = IntStream.range(0, booksPerUser)
+                .mapToObj(i -> {
+                    BookRequest book = new BookRequest();
+                    book.setTitle("book " + i);
+                    book.setAuthor("author");
+                    book.setPageCount(100);
+                    return book;
+                })
+                .toList();
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(user);
+        request.setBookRequests(books);
+        return request;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InMemoryFacadeBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,111 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразования MapStruct {@link UserMapper} и {@link BookMapper}, которые выполняются на каждый запрос:
+ * запрос в DTO, DTO в сущность и обратно. Время преобразования книг должно расти линейно с их числом.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"1", "10", "100"})
+    private int booksPerUser;
+
+    private final UserMapper userMapper = new UserMapperImpl();
+    private final BookMapper bookMapper = new BookMapperImpl();
+
+    private UserRequest userRequest;
+    private Person person;
+    private List<BookRequest> bookRequests;
+    private List<BookDto> bookDtos;
+    private List<Book> books;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userRequest = new UserRequest();
+        userRequest.setFullName("benchmark");
+        userRequest.setTitle("benchmark");
+        userRequest.setAge(30);
+        userRequest.setPreferredGenre("fantasy");
+
+        bookRequests = new ArrayList<>();
+        for (int i = 0; i < booksPerUser; i++) {
+            BookRequest book = new BookRequest();
+            book.setTitle("book " + i);
+            book.setAuthor("author");
+            book.setPageCount(100);
+            bookRequests.add(book);
+        }
+        bookDtos = bookRequests.stream()
+                .map(bookMapper::bookRequestToBookDto)
+                .peek(book -> book.setUserId(1L))
+                .toList();
+        books = bookDtos.stream()
+                .map(bookMapper::bookDtoToBookEntity)
+                .toList();
+
+        person = userMapper.userDtoToUserEntity(userMapper.userRequestToUserDto(userRequest));
+        person.setId(1L);
+        person.getBooks().addAll(books);
+    }
+
+    @Benchmark
+    public UserDto userRequestToUserDto() {
+        return userMapper.userRequestToUserDto(userRequest);
+    }
+
+    @Benchmark
+    public UserDto userEntityToUserDto() {
+        return userMapper.userEntityToUserDto(person);
+    }
+
+    @Benchmark
+    public List<BookDto> bookRequestsToBookDtos() {
+        return bookRequests.stream()
+                .map(bookMapper::bookRequestToBookDto)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Book> bookDtosToBookEntities() {
+        return bookDtos.stream()
+                .map(bookMapper::bookDtoToBookEntity)
+                .toList();
+    }
+
+    @Benchmark
+    public List<BookDto> bookEntitiesToBookDtos() {
+        return books.stream()
+                .map(bookMapper::bookEntityToBookDto)
+                .toList();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MapperBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
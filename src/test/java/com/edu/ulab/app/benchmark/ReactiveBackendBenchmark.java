@@ -0,0 +1,116 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.AppApplication;
+import com.edu.ulab.app.facade.ReactiveUserDataFacade;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Создание пользователя с книгами через блокирующий фасад на JPA ({@code jpa}) и реактивный фасад на R2DBC
+ * ({@code r2dbc}) при 64 одновременных вызовах. Оба пула соединений по 10 соединений к одному Postgres
+ * в контейнере; реактивный вызов дожидается результата через block() только в потоке бенчмарка.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(64)
+@Fork(1)
+public class ReactiveBackendBenchmark {
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgres:13-alpine").asCompatibleSubstituteFor("postgres"));
+
+    @Param({"jpa", "r2dbc"})
+    private String backend;
+
+    @Param({"1", "10", "100"})
+    private int booksPerUser;
+
+    private ConfigurableApplicationContext context;
+    private Supplier<UserBookResponse> createUser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        POSTGRES.start();
+        context = new SpringApplicationBuilder(AppApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=" + POSTGRES.getJdbcUrl(),
+                        "spring.datasource.username=" + POSTGRES.getUsername(),
+                        "spring.datasource.password=" + POSTGRES.getPassword(),
+                        "app.service.reactive.enabled=true",
+                        "app.service.reactive.url=r2dbc:postgresql://" + POSTGRES.getHost() + ":"
+                                + POSTGRES.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/"
+                                + POSTGRES.getDatabaseName(),
+                        "app.service.reactive.username=" + POSTGRES.getUsername(),
+                        "app.service.reactive.password=" + POSTGRES.getPassword(),
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=warn",
+                        "logging.level.org.springframework.jdbc.core.JdbcTemplate=warn")
+                .run();
+
+        UserBookRequest request = request(booksPerUser);
+        if (backend.equals("jpa")) {
+            UserDataFacade facade = context.getBean(UserDataFacade.class);
+            createUser = () -> facade.createUserWithBooks(request);
+        } else {
+            ReactiveUserDataFacade facade = context.getBean(ReactiveUserDataFacade.class);
+            createUser = () -> facade.createUserWithBooks(request).block();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserBookResponse createUserWithBooks() {
+        return createUser.get();
+    }
+
+    private static UserBookRequest request(int booksPerUser) {
+        UserRequest user = new UserRequest();
+        user.setFullName("benchmark");
+        user.setTitle("benchmark");
+        user.setAge(30);
+        user.setPreferredGenre("fantasy");
+        List<BookRequest> books = IntStream.range(0, booksPerUser)
+                .mapToObj(i -> {
+                    BookRequest book = new BookRequest();
+                    book.setTitle("book " + i);
+                    book.setAuthor("author");
+                    book.setPageCount(100);
+                    return book;
+                })
+                .toList();
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(user);
+        request.setBookRequests(books);
+        return request;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ReactiveBackendBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
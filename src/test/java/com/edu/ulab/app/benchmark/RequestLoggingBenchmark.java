@@ -0,0 +1,93 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.AppApplication;
+import com.edu.ulab.app.config.PostgresContainerConfig;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Пропускная способность и скорость выделения памяти (профайлер gc) при создании пользователя с книгами
+ * в Postgres из {@link PostgresContainerConfig}:
+ * <ul>
+ *     <li>{@code default} - синхронный консольный вывод, show-sql и format_sql, DTO в логах уровня info;</li>
+ *     <li>{@code prod} - профиль prod: AsyncAppender, без SQL в выводе, одна сводная строка на запрос.</li>
+ * </ul>
+ * Для JFR запускать с {@code -jvmArgsAppend -XX:StartFlightRecording=filename=logging.jfr}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(8)
+@Fork(1)
+public class RequestLoggingBenchmark {
+    @Param({"default", "prod"})
+    private String profile;
+
+    @Param({"10"})
+    private int booksPerUser;
+
+    private ConfigurableApplicationContext context;
+    private UserDataFacade facade;
+    private UserBookRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(AppApplication.class, PostgresContainerConfig.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profile)
+                .run();
+        facade = context.getBean(UserDataFacade.class);
+
+        UserRequest user = new UserRequest();
+        user.setFullName("benchmark");
+        user.setTitle("benchmark");
+        user.setAge(30);
+        user.setPreferredGenre("fantasy");
+        List<BookRequest> books = IntStream.range(0, booksPerUser)
+                .mapToObj(i -> {
+                    BookRequest book = new BookRequest();
+                    book.setTitle("book " + i);
+                    book.setAuthor("author");
+                    book.setPageCount(100);
+                    return book;
+                })
+                .toList();
+        request = new UserBookRequest();
+        request.setUserRequest(user);
+        request.setBookRequests(books);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object createUserWithBooks() {
+        return facade.createUserWithBooks(request);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RequestLoggingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
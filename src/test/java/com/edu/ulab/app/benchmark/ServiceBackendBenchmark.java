@@ -0,0 +1,129 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.AppApplication;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.web.response.UserBatchResponse;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.edu.ulab.app.web.response.UserPageResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Чтение через {@link UserDataFacade} для каждого значения {@code app.service.backend}: пользователь по id,
+ * пакет из 100 пользователей и страница из 50. jpa и template читают из Postgres в контейнере с пулом Hikari,
+ * in-memory - из хранилища в памяти. Кэш и объединение запросов выключены, чтобы каждый вызов доходил
+ * до backend. Число потоков задаётся параметром JMH {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ServiceBackendBenchmark {
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgres:13-alpine").asCompatibleSubstituteFor("postgres"));
+    private static final int BATCH_SIZE = 100;
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"jpa", "template", "in-memory"})
+    private String backend;
+
+    @Param({"1", "10", "100"})
+    private int booksPerUser;
+
+    @Param({"10000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private UserDataFacade facade;
+    private long firstUserId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        POSTGRES.start();
+        context = new SpringApplicationBuilder(AppApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=" + POSTGRES.getJdbcUrl(),
+                        "spring.datasource.username=" + POSTGRES.getUsername(),
+                        "spring.datasource.password=" + POSTGRES.getPassword(),
+                        "app.service.backend=" + backend,
+                        "app.service.user-cache.enabled=false",
+                        "app.service.coalescing.enabled=false",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=warn",
+                        "logging.level.org.springframework.jdbc.core.JdbcTemplate=warn")
+                .run();
+        facade = context.getBean(UserDataFacade.class);
+
+        if (backend.equals("in-memory")) {
+            firstUserId = facade.createUserWithBooks(InMemoryFacadeBenchmark.request(booksPerUser)).getUserId();
+            for (int i = 1; i < users; i++) {
+                facade.createUserWithBooks(InMemoryFacadeBenchmark.request(booksPerUser));
+            }
+        } else {
+            firstUserId = seedUsers(context.getBean(JdbcTemplate.class));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserBookResponse getUserWithBooks() {
+        return facade.getUserWithBooks(firstUserId + ThreadLocalRandom.current().nextLong(users));
+    }
+
+    @Benchmark
+    public UserBatchResponse getUsersWithBooks() {
+        long from = firstUserId + ThreadLocalRandom.current().nextLong(users - BATCH_SIZE);
+        List<Long> ids = LongStream.range(from, from + BATCH_SIZE).boxed().toList();
+        return facade.getUsersWithBooks(ids);
+    }
+
+    @Benchmark
+    public UserPageResponse getUsersPage() {
+        return facade.getUsersPage(null, PAGE_SIZE);
+    }
+
+    /**
+     * Пользователи с подряд идущими id, выделенными одним блоком последовательности.
+     *
+     * @return id первого пользователя
+     */
+    private long seedUsers(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("DELETE FROM ulab_edu.person");
+        long firstId = jdbcTemplate.queryForObject(
+                "SELECT setval('ulab_edu.person_sequence', nextval('ulab_edu.person_sequence') + ?)",
+                Long.class, users) - users;
+        jdbcTemplate.update("INSERT INTO ulab_edu.person(ID, FULL_NAME, TITLE, AGE, PREFERRED_GENRE) "
+                + "SELECT ? + n, 'benchmark', 'benchmark ' || n, 30, 'fantasy' "
+                + "FROM generate_series(0, ? - 1) n", firstId, users);
+        jdbcTemplate.update("INSERT INTO ulab_edu.book(ID, USER_ID, TITLE, AUTHOR, PAGE_COUNT) "
+                + "SELECT nextval('ulab_edu.book_sequence'), p.ID, 'book ' || n, 'author', 100 "
+                + "FROM ulab_edu.person p CROSS JOIN generate_series(1, ?) n", booksPerUser);
+        return firstId;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ServiceBackendBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
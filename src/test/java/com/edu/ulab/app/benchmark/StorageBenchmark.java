@@ -0,0 +1,77 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.storage.memory.Storage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замер операций чтения {@link Storage}.
+ * Время получения пользователя должно зависеть от числа его книг, а не от общего числа книг в хранилище.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+    @Param({"1000", "1000000"})
+    private int totalBooks;
+
+    @Param({"10"})
+    private int booksPerUser;
+
+    private Storage storage;
+    private long userCount;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storage = new Storage();
+        userCount = totalBooks / booksPerUser;
+        for (long i = 0; i < userCount; i++) {
+            Person person = new Person();
+            person.setFullName("user " + i);
+            person.setTitle("reader " + i);
+            person.setAge(30);
+            person.setPreferredGenre("fantasy");
+            for (int j = 0; j < booksPerUser; j++) {
+                Book book = new Book();
+                book.setTitle("book " + j);
+                book.setAuthor("author " + j);
+                book.setPageCount(100);
+                person.getBooks().add(book);
+            }
+            storage.save(person);
+        }
+    }
+
+    @Benchmark
+    public Optional<Person> getUserById() {
+        return storage.getUserById(randomUserId());
+    }
+
+    @Benchmark
+    public List<Book> getAllBooksByUserId() {
+        return storage.getAllBooksByUserId(randomUserId());
+    }
+
+    private long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(1, userCount + 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StorageBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,103 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.storage.memory.Storage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение чтения пользователей из {@link Storage} по снимкам и под ReadWriteLock
+ * при конкурентных читателях и одном пишущем потоке, а также пропускной способности записи без читателей:
+ * при чтении из снимков запись книги не должна зависеть от числа книг пользователя.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageConcurrentReadBenchmark {
+    @Param({"true", "false"})
+    private boolean snapshotReads;
+
+    @Param({"10", "1000"})
+    private int booksPerUser;
+
+    @Param({"1000"})
+    private int userCount;
+
+    private Storage storage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storage = new Storage(snapshotReads);
+        for (int i = 0; i < userCount; i++) {
+            Person person = new Person();
+            person.setFullName("user " + i);
+            person.setTitle("reader " + i);
+            person.setAge(30);
+            person.setPreferredGenre("fantasy");
+            for (int j = 0; j < booksPerUser; j++) {
+                person.getBooks().add(book(null));
+            }
+            storage.save(person);
+        }
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(8)
+    public Optional<Person> readOnly() {
+        return storage.getUserById(randomUserId());
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(7)
+    public Optional<Person> readWhileWriting() {
+        return storage.getUserById(randomUserId());
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public Book write() {
+        Book book = storage.save(book(randomUserId()));
+        storage.deleteBookById(book.getId());
+        return book;
+    }
+
+    @Benchmark
+    @Group("writeOnly")
+    @GroupThreads(1)
+    public Book writeOnly() {
+        return write();
+    }
+
+    private long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(1, userCount + 1);
+    }
+
+    private static Book book(Long userId) {
+        Book book = new Book();
+        book.setUserId(userId);
+        book.setTitle("book");
+        book.setAuthor("author");
+        book.setPageCount(100);
+        return book;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StorageConcurrentReadBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
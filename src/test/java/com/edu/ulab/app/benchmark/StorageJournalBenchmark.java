@@ -0,0 +1,71 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.storage.memory.Storage;
+import com.edu.ulab.app.storage.memory.journal.FsyncPolicy;
+import com.edu.ulab.app.storage.memory.journal.StoragePersistence;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность записи в {@link Storage} с журналом предзаписи при разных политиках fsync.
+ * {@code off} - хранилище без журнала.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class StorageJournalBenchmark {
+    @Param({"off", "none", "batch", "always"})
+    private String fsync;
+
+    private Path directory;
+    private Storage storage;
+    private StoragePersistence persistence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        storage = new Storage();
+        if (!"off".equals(fsync)) {
+            directory = Files.createTempDirectory("storage-wal-benchmark");
+            persistence = new StoragePersistence(storage, directory, FsyncPolicy.valueOf(fsync.toUpperCase()), 256,
+                    Duration.ofMillis(10), Duration.ofHours(1));
+            persistence.start();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (persistence != null) {
+            persistence.stop();
+            FileSystemUtils.deleteRecursively(directory);
+        }
+    }
+
+    @Benchmark
+    public Book saveBook() {
+        Book book = new Book();
+        book.setTitle("book");
+        book.setAuthor("author");
+        book.setPageCount(100);
+        return storage.save(book);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StorageJournalBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,81 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.AppApplication;
+import com.edu.ulab.app.config.PostgresContainerConfig;
+import com.edu.ulab.app.facade.UserDataFacade;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Распределение задержки {@link UserDataFacade#getUserWithBooks} с кэшем пользователей и без него
+ * в Postgres из {@link PostgresContainerConfig}. Читаются случайные пользователи из {@code users} заранее
+ * созданных; p99 смотреть в выводе режима SampleTime.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(8)
+@Fork(1)
+public class UserCacheBenchmark {
+    @Param({"false", "true"})
+    private boolean cacheEnabled;
+
+    @Param({"1000"})
+    private int users;
+
+    @Param({"10"})
+    private int booksPerUser;
+
+    private ConfigurableApplicationContext context;
+    private UserDataFacade facade;
+    private long firstUserId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(AppApplication.class, PostgresContainerConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false",
+                        "logging.level.root=warn",
+                        "app.service.user-cache.enabled=" + cacheEnabled)
+                .run();
+        facade = context.getBean(UserDataFacade.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        firstUserId = jdbcTemplate.queryForObject("SELECT nextval('ulab_edu.person_sequence')", Long.class);
+        jdbcTemplate.queryForObject("SELECT setval('ulab_edu.person_sequence', ?)", Long.class, firstUserId + users);
+        jdbcTemplate.update("INSERT INTO ulab_edu.person(ID, FULL_NAME, TITLE, AGE, PREFERRED_GENRE) "
+                + "SELECT ? + n, 'benchmark', 'benchmark ' || (? + n), 30, 'fantasy' "
+                + "FROM generate_series(0, ? - 1) n", firstUserId, firstUserId, users);
+        jdbcTemplate.update("INSERT INTO ulab_edu.book(ID, USER_ID, TITLE, AUTHOR, PAGE_COUNT) "
+                + "SELECT nextval('ulab_edu.book_sequence'), ? + u, 'book ' || b, 'author', 100 "
+                + "FROM generate_series(0, ? - 1) u, generate_series(1, ?) b", firstUserId, users, booksPerUser);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object getUserWithBooks() {
+        return facade.getUserWithBooks(firstUserId + ThreadLocalRandom.current().nextInt(users));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserCacheBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
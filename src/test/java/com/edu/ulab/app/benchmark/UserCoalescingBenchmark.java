@@ -0,0 +1,101 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.AppApplication;
+import com.edu.ulab.app.config.PostgresContainerConfig;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.metrics.OperationMetricsAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 1000 потоков одновременно читают одного пользователя через {@link UserDataFacade#getUserWithBooks}
+ * в Postgres из {@link PostgresContainerConfig}, кэш пользователей выключен. После каждой итерации печатается,
+ * сколько вызовов дошло до JPA-сервиса (то есть до базы) на один вызов фасада: с объединением запросов
+ * их в разы меньше.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(1000)
+@Fork(1)
+public class UserCoalescingBenchmark {
+    @Param({"false", "true"})
+    private boolean coalescing;
+
+    @Param({"10"})
+    private int booksPerUser;
+
+    private ConfigurableApplicationContext context;
+    private UserDataFacade facade;
+    private MeterRegistry meterRegistry;
+    private long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(AppApplication.class, PostgresContainerConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false",
+                        "logging.level.root=warn",
+                        "app.service.user-cache.enabled=false",
+                        "app.service.coalescing.enabled=" + coalescing)
+                .run();
+        facade = context.getBean(UserDataFacade.class);
+        meterRegistry = context.getBean(MeterRegistry.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        userId = jdbcTemplate.queryForObject("SELECT nextval('ulab_edu.person_sequence')", Long.class);
+        jdbcTemplate.update("INSERT INTO ulab_edu.person(ID, FULL_NAME, TITLE, AGE, PREFERRED_GENRE) "
+                + "VALUES (?, 'benchmark', ?, 30, 'fantasy')", userId, "benchmark " + userId);
+        jdbcTemplate.update("INSERT INTO ulab_edu.book(ID, USER_ID, TITLE, AUTHOR, PAGE_COUNT) "
+                + "SELECT nextval('ulab_edu.book_sequence'), ?, 'book ' || n, 'author', 100 "
+                + "FROM generate_series(1, ?) n", userId, booksPerUser);
+    }
+
+    @TearDown(Level.Iteration)
+    public void printBackendLoads() {
+        long facadeCalls = countCalls("facade", "getUserWithBooks");
+        long backendLoads = countCalls("service", "UserService.getUserById");
+        System.out.printf("%nfacade calls: %d, backend loads: %d, loads per call: %.3f%n",
+                facadeCalls, backendLoads, facadeCalls == 0 ? 0.0 : (double) backendLoads / facadeCalls);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object getUserWithBooks() {
+        return facade.getUserWithBooks(userId);
+    }
+
+    private long countCalls(String layer, String operation) {
+        return meterRegistry.find(OperationMetricsAspect.OPERATION_TIMER)
+                .tag("layer", layer)
+                .tag("backend", "jpa")
+                .tag("operation", operation)
+                .timers()
+                .stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserCoalescingBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
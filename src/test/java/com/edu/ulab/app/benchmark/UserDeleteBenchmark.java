@@ -0,0 +1,91 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.AppApplication;
+import com.edu.ulab.app.config.PostgresContainerConfig;
+import com.edu.ulab.app.storage.jpa.UserJpaRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Удаление пользователя с большим числом книг в Postgres из {@link PostgresContainerConfig}:
+ * <ul>
+ *     <li>{@code entity} - {@code deleteById}: загрузка Person, коллекции books и DELETE на каждую книгу;</li>
+ *     <li>{@code cascade} - один JPQL DELETE, книги удаляет ON DELETE CASCADE;</li>
+ *     <li>{@code two-statements} - DELETE книг по user_id и DELETE пользователя, как в template-реализации.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class UserDeleteBenchmark {
+    @Param({"entity", "cascade", "two-statements"})
+    private String mode;
+
+    @Param({"1000", "10000"})
+    private int booksPerUser;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private UserJpaRepository userRepository;
+    private long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(AppApplication.class, PostgresContainerConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false")
+                .run();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        userRepository = context.getBean(UserJpaRepository.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void createUserWithBooks() {
+        userId = jdbcTemplate.queryForObject("SELECT nextval('ulab_edu.person_sequence')", Long.class);
+        jdbcTemplate.update("INSERT INTO ulab_edu.person(ID, FULL_NAME, TITLE, AGE, PREFERRED_GENRE) "
+                + "VALUES (?, 'benchmark', ?, 30, 'fantasy')", userId, "benchmark " + userId);
+        jdbcTemplate.update("INSERT INTO ulab_edu.book(ID, USER_ID, TITLE, AUTHOR, PAGE_COUNT) "
+                + "SELECT nextval('ulab_edu.book_sequence'), ?, 'book ' || n, 'author', 100 "
+                + "FROM generate_series(1, ?) n", userId, booksPerUser);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void deleteUser() {
+        transactionTemplate.executeWithoutResult(status -> {
+            switch (mode) {
+                case "entity" -> userRepository.deleteById(userId);
+                case "cascade" -> userRepository.deleteWithBooksById(userId);
+                default -> {
+                    jdbcTemplate.update("DELETE FROM ulab_edu.book WHERE USER_ID = ?", userId);
+                    jdbcTemplate.update("DELETE FROM ulab_edu.person WHERE ID = ?", userId);
+                }
+            }
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserDeleteBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
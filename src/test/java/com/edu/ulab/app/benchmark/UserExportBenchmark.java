@@ -0,0 +1,96 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.AppApplication;
+import com.edu.ulab.app.config.PostgresContainerConfig;
+import com.edu.ulab.app.service.impl.UserExportServiceJdbcImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выгрузка 10M строк соединения пользователей с книгами ({@code users * booksPerUser}) в NDJSON
+ * из Postgres из {@link PostgresContainerConfig}. Результат пишется в {@link OutputStream#nullOutputStream()},
+ * замеряется чтение курсором, группировка и сериализация при разном {@code fetchSize}.
+ * Выделяемая на пользователя память видна в {@code gc.alloc.rate.norm} профилировщика GC,
+ * удерживаемая - не зависит от размера таблицы.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx256m"})
+public class UserExportBenchmark {
+    @Param({"100", "1000", "10000"})
+    private int fetchSize;
+
+    @Param({"100000"})
+    private int users;
+
+    @Param({"100"})
+    private int booksPerUser;
+
+    private ConfigurableApplicationContext context;
+    private UserExportServiceJdbcImpl exportService;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(AppApplication.class, PostgresContainerConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false")
+                .run();
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        exportService = new UserExportServiceJdbcImpl(jdbcTemplate, context.getBean(PlatformTransactionManager.class),
+                fetchSize);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        jdbcTemplate.execute("TRUNCATE ulab_edu.person CASCADE");
+        jdbcTemplate.update("INSERT INTO ulab_edu.person(ID, FULL_NAME, TITLE, AGE, PREFERRED_GENRE) "
+                + "SELECT n, 'benchmark user', 'benchmark ' || n, 30, 'fantasy' FROM generate_series(1, ?) n", users);
+        jdbcTemplate.update("INSERT INTO ulab_edu.book(ID, USER_ID, TITLE, AUTHOR, PAGE_COUNT) "
+                + "SELECT (u - 1) * ? + b, u, 'book ' || b, 'author', 100 "
+                + "FROM generate_series(1, ?) u, generate_series(1, ?) b", booksPerUser, users, booksPerUser);
+        jdbcTemplate.execute("ANALYZE ulab_edu.person");
+        jdbcTemplate.execute("ANALYZE ulab_edu.book");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long exportUsers() {
+        OutputStream out = OutputStream.nullOutputStream();
+        return exportService.exportUsers(row -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(row));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserExportBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,103 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.AppApplication;
+import com.edu.ulab.app.config.PostgresContainerConfig;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение страницы пользователей с id книг на разной глубине в Postgres из {@link PostgresContainerConfig}:
+ * <ul>
+ *     <li>{@code keyset} - {@link UserService#getUsersAfter(Long, int)} JPA-реализации, {@code WHERE id > ?};</li>
+ *     <li>{@code offset} - тот же запрос с {@code OFFSET}, Postgres читает и отбрасывает все предыдущие строки.</li>
+ * </ul>
+ * Время keyset не зависит от {@code depth}, время offset растёт линейно.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserPageBenchmark {
+    private static final String SELECT_PAGE_WITH_OFFSET_SQL = """
+            SELECT p.id, p.full_name, p.title, p.age, p.preferred_genre,
+                   coalesce(b.book_ids, '{}') AS book_ids
+            FROM ulab_edu.person p
+                     LEFT JOIN LATERAL (SELECT array_agg(b.id ORDER BY b.id) AS book_ids
+                                        FROM ulab_edu.book b
+                                        WHERE b.user_id = p.id) b ON true
+            ORDER BY p.id
+            OFFSET ? LIMIT ?""";
+    private static final int USERS = 200_000;
+    private static final int BOOKS_PER_USER = 5;
+
+    @Param({"keyset", "offset"})
+    private String method;
+
+    @Param({"0", "10000", "100000", "190000"})
+    private int depth;
+
+    @Param({"50"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private UserService userService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(AppApplication.class, PostgresContainerConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false")
+                .run();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        userService = context.getBean("userJpaService", UserService.class);
+
+        jdbcTemplate.execute("TRUNCATE ulab_edu.person CASCADE");
+        jdbcTemplate.update("INSERT INTO ulab_edu.person(ID, FULL_NAME, TITLE, AGE, PREFERRED_GENRE) "
+                + "SELECT n, 'benchmark user', 'benchmark ' || n, 30, 'fantasy' FROM generate_series(1, ?) n", USERS);
+        jdbcTemplate.update("INSERT INTO ulab_edu.book(ID, USER_ID, TITLE, AUTHOR, PAGE_COUNT) "
+                + "SELECT (u - 1) * ? + b, u, 'book ' || b, 'author', 100 "
+                + "FROM generate_series(1, ?) u, generate_series(1, ?) b", BOOKS_PER_USER, USERS, BOOKS_PER_USER);
+        jdbcTemplate.execute("ANALYZE ulab_edu.person");
+        jdbcTemplate.execute("ANALYZE ulab_edu.book");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int readPage() {
+        if ("keyset".equals(method)) {
+            List<UserDto> page = transactionTemplate.execute(status ->
+                    userService.getUsersAfter((long) depth, pageSize));
+            return Objects.requireNonNull(page).size();
+        }
+        return jdbcTemplate.queryForList(SELECT_PAGE_WITH_OFFSET_SQL, depth, pageSize).size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserPageBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
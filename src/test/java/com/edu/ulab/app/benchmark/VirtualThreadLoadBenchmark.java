@@ -0,0 +1,188 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.AppApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Нагрузочный тест GET /api/v1/user/get/{userId}: 10 000 клиентов без пауз между запросами, приложение
+ * поднимается с пулом Hikari на Postgres в контейнере по разу для {@code app.threads.mode} platform и virtual.
+ * Печатает пропускную способность, p50 и p99 за интервал измерения.
+ * <p>
+ * Виртуальные потоки есть только на Java 21+, на более старой JVM тест не запускается
+ * (сборка на JDK 21 - профиль {@code java21}). Клиенту нужен лимит открытых файлов больше числа клиентов
+ * ({@code ulimit -n 65536}).
+ */
+public class VirtualThreadLoadBenchmark {
+    private static final int CLIENTS = 10_000;
+    private static final int USERS = 1000;
+    private static final int BOOKS_PER_USER = 10;
+    private static final Duration WARMUP = Duration.ofSeconds(30);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(60);
+    private static final int MAX_LATENCY_MILLIS = 60_000;
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgres:13-alpine").asCompatibleSubstituteFor("postgres"));
+
+    public static void main(String[] args) throws Exception {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads require Java 21+, running on Java "
+                    + Runtime.version().feature());
+        }
+        POSTGRES.start();
+        try {
+            for (String mode : List.of("platform", "virtual")) {
+                run(mode);
+            }
+        } finally {
+            POSTGRES.stop();
+        }
+    }
+
+    private static void run(String mode) throws InterruptedException {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AppApplication.class)
+                .properties("server.port=0",
+                        "spring.datasource.url=" + POSTGRES.getJdbcUrl(),
+                        "spring.datasource.username=" + POSTGRES.getUsername(),
+                        "spring.datasource.password=" + POSTGRES.getPassword(),
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=warn",
+                        "logging.level.org.springframework.jdbc.core.JdbcTemplate=warn",
+                        "app.service.user-cache.enabled=false",
+                        "app.threads.mode=" + mode)
+                .run();
+        try {
+            List<Long> userIds = seedUsers(context.getBean(JdbcTemplate.class));
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            String baseUrl = "http://localhost:" + port + "/app/api/v1/user/get/";
+
+            LoadRun load = new LoadRun(baseUrl, userIds);
+            load.start();
+            Thread.sleep(WARMUP.toMillis());
+            load.startRecording();
+            Thread.sleep(MEASUREMENT.toMillis());
+            load.stop();
+
+            System.out.printf("%nmode: %s, clients: %d, throughput: %.0f req/s, p50: %d ms, p99: %d ms, errors: %d%n",
+                    mode, CLIENTS, load.recorded() / (double) MEASUREMENT.toSeconds(),
+                    load.percentile(0.50), load.percentile(0.99), load.errors());
+        } finally {
+            context.close();
+        }
+    }
+
+    private static List<Long> seedUsers(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("DELETE FROM ulab_edu.person");
+        jdbcTemplate.update("INSERT INTO ulab_edu.person(ID, FULL_NAME, TITLE, AGE, PREFERRED_GENRE) "
+                + "SELECT nextval('ulab_edu.person_sequence'), 'load test', 'load test ' || n, 30, 'fantasy' "
+                + "FROM generate_series(1, ?) n", USERS);
+        jdbcTemplate.update("INSERT INTO ulab_edu.book(ID, USER_ID, TITLE, AUTHOR, PAGE_COUNT) "
+                + "SELECT nextval('ulab_edu.book_sequence'), p.ID, 'book ' || n, 'author', 100 "
+                + "FROM ulab_edu.person p CROSS JOIN generate_series(1, ?) n", BOOKS_PER_USER);
+        return jdbcTemplate.queryForList("SELECT ID FROM ulab_edu.person", Long.class);
+    }
+
+    /**
+     * Клиенты на асинхронном {@link HttpClient}: каждый отправляет следующий запрос, как только получил ответ.
+     * Задержки копятся в гистограмме с шагом в миллисекунду.
+     */
+    private static class LoadRun {
+        private final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        private final String baseUrl;
+        private final List<Long> userIds;
+        private final AtomicLongArray histogram = new AtomicLongArray(MAX_LATENCY_MILLIS + 1);
+        private final LongAdder errors = new LongAdder();
+        private final CountDownLatch stopped = new CountDownLatch(CLIENTS);
+        private volatile boolean recording;
+        private volatile boolean running = true;
+
+        LoadRun(String baseUrl, List<Long> userIds) {
+            this.baseUrl = baseUrl;
+            this.userIds = userIds;
+        }
+
+        void start() {
+            for (int i = 0; i < CLIENTS; i++) {
+                sendNext();
+            }
+        }
+
+        void startRecording() {
+            recording = true;
+        }
+
+        void stop() throws InterruptedException {
+            recording = false;
+            running = false;
+            stopped.await(1, TimeUnit.MINUTES);
+        }
+
+        long recorded() {
+            long count = 0;
+            for (int i = 0; i < histogram.length(); i++) {
+                count += histogram.get(i);
+            }
+            return count;
+        }
+
+        long percentile(double quantile) {
+            long threshold = (long) Math.ceil(recorded() * quantile);
+            long count = 0;
+            for (int i = 0; i < histogram.length(); i++) {
+                count += histogram.get(i);
+                if (count >= threshold) {
+                    return i;
+                }
+            }
+            return MAX_LATENCY_MILLIS;
+        }
+
+        long errors() {
+            return errors.sum();
+        }
+
+        private void sendNext() {
+            if (!running) {
+                stopped.countDown();
+                return;
+            }
+            long userId = userIds.get(ThreadLocalRandom.current().nextInt(userIds.size()));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + userId))
+                    .timeout(Duration.ofSeconds(MAX_LATENCY_MILLIS / 1000))
+                    .GET()
+                    .build();
+            long start = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        boolean measured = recording;
+                        if (failure != null || response.statusCode() != 200) {
+                            if (measured) {
+                                errors.increment();
+                            }
+                        } else if (measured) {
+                            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                            histogram.incrementAndGet((int) Math.min(millis, MAX_LATENCY_MILLIS));
+                        }
+                        sendNext();
+                    });
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.edu.ulab.app.cache;
+
+import com.edu.ulab.app.config.PostgresContainerConfig;
+import com.edu.ulab.app.dto.UserDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты межузловой инвалидации кэша через LISTEN/NOTIFY в Postgres из {@link PostgresContainerConfig}.
+ * Второй узел моделируется отдельным {@link UserCache} со своим слушателем.
+ */
+@DisplayName("Testing user cache invalidation.")
+public class CacheInvalidationListenerTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    DataSource dataSource;
+    TransactionTemplate transactionTemplate;
+    CacheInvalidationPublisher publisher;
+    UserCache otherNodeCache;
+    CacheInvalidationListener otherNodeListener;
+    AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        dataSource = new PostgresContainerConfig().dataSource();
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        publisher = new CacheInvalidationPublisher(new JdbcTemplate(dataSource), true, true);
+
+        otherNodeCache = new UserCache(100, Duration.ofHours(1), new SimpleMeterRegistry());
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("userCache", otherNodeCache);
+        otherNodeListener = new CacheInvalidationListener(dataSource, beanFactory.getBeanProvider(UserCache.class),
+                Duration.ofMillis(100), Duration.ofMillis(100));
+        otherNodeListener.start();
+        awaitUntil(otherNodeListener::isListening);
+
+        loads = new AtomicInteger();
+        otherNodeCache.get(1L, this::load);
+        otherNodeCache.get(2L, this::load);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        otherNodeListener.stop();
+    }
+
+    @Test
+    @DisplayName("Изменение пользователя в закоммиченной транзакции. Запись вытесняется из кэша другого узла.")
+    void evictOnCommit_Test() throws InterruptedException {
+        //when
+        transactionTemplate.executeWithoutResult(status -> publisher.userChanged(1L));
+
+        //then
+        awaitUntil(() -> {
+            otherNodeCache.get(1L, this::load);
+            return loads.get() == 3;
+        });
+        otherNodeCache.get(2L, this::load);
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Изменение пользователя в откаченной транзакции. Запись остаётся в кэше другого узла.")
+    void keepOnRollback_Test() throws InterruptedException {
+        //when
+        transactionTemplate.executeWithoutResult(status -> {
+            publisher.userChanged(1L);
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> publisher.userChanged(2L));
+
+        //then
+        awaitUntil(() -> {
+            otherNodeCache.get(2L, this::load);
+            return loads.get() == 3;
+        });
+        otherNodeCache.get(1L, this::load);
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Изменение нескольких пользователей одним запросом. Все записи вытесняются из кэша другого узла.")
+    void evictManyOnCommit_Test() throws InterruptedException {
+        //when
+        transactionTemplate.executeWithoutResult(status -> publisher.usersChanged(List.of(1L, 2L, 1L)));
+
+        //then
+        awaitUntil(() -> {
+            otherNodeCache.get(1L, this::load);
+            otherNodeCache.get(2L, this::load);
+            return loads.get() == 4;
+        });
+    }
+
+    private UserDto load(Long id) {
+        loads.incrementAndGet();
+        UserDto user = new UserDto();
+        user.setId(id);
+        return user;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition is not met in %s", TIMEOUT).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.edu.ulab.app.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тестирование функционала {@link FanOutExecutor}.
+ */
+@DisplayName("Testing fan-out executor functionality.")
+public class FanOutExecutorTest {
+    private final FanOutExecutor executor = new FanOutExecutor(4, 16, 10);
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    @DisplayName("Список длиннее куска. Куски обрабатываются в пуле, порядок результатов совпадает с порядком элементов.")
+    void mapPreservesOrder_Test() {
+        //given
+        List<Integer> items = IntStream.range(0, 95).boxed().toList();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        //when
+        List<String> results = executor.map(items, item -> {
+            threads.add(Thread.currentThread().getName());
+            return "item " + item;
+        });
+
+        //then
+        assertThat(results).containsExactlyElementsOf(items.stream().map(item -> "item " + item).toList());
+        assertThat(threads).anyMatch(thread -> thread.startsWith("facade-fan-out-"));
+    }
+
+    @Test
+    @DisplayName("Список короче куска. Обрабатывается в вызывающем потоке.")
+    void mapShortListInCaller_Test() {
+        //given
+        List<Integer> items = List.of(1, 2, 3);
+        String caller = Thread.currentThread().getName();
+
+        //when
+        List<String> threads = executor.map(items, item -> Thread.currentThread().getName());
+
+        //then
+        assertThat(threads).containsOnly(caller);
+    }
+
+    @Test
+    @DisplayName("Ошибка в куске. Исключение задачи выбрасывается без обёртки.")
+    void mapRethrowsTaskException_Test() {
+        //given
+        List<Integer> items = IntStream.range(0, 50).boxed().toList();
+
+        //when
+        //then
+        assertThatThrownBy(() -> executor.map(items, item -> {
+            if (item == 42) {
+                throw new IllegalArgumentException("bad item " + item);
+            }
+            return item;
+        }))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("bad item 42");
+    }
+}
@@ -7,6 +7,7 @@ import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
@@ -23,6 +24,7 @@ public class PostgresContainerConfig {
     private static final String PASSWORD = "mysecretpassword";
     private static final String POSTGRESQL_DRIVER_CLASS_NAME = "org.postgresql.Driver";
     private static final String JDBC_URL_FORMAT = "jdbc:postgresql://%s:%s/%s";
+    private static final String R2DBC_URL_FORMAT = "r2dbc:postgresql://%s:%s/%s";
 
     private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
             DockerImageName.parse(IMAGE_VERSION).asCompatibleSubstituteFor("postgres"))
@@ -50,6 +52,19 @@ public class PostgresContainerConfig {
         return proxyListenerDataSource(dataSource);
     }
 
+    /**
+     * Включает реактивный backend на той же базе контейнера.
+     */
+    public static void reactiveProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.service.reactive.enabled", () -> "true");
+        registry.add("app.service.reactive.url", () -> String.format(R2DBC_URL_FORMAT,
+                POSTGRES.getHost(),
+                POSTGRES.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT),
+                POSTGRES.getDatabaseName()));
+        registry.add("app.service.reactive.username", POSTGRES::getUsername);
+        registry.add("app.service.reactive.password", POSTGRES::getPassword);
+    }
+
     private DataSource proxyListenerDataSource(final DataSource dataSource) {
         ChainListener listener = new ChainListener();
         SLF4JQueryLoggingListener loggingListener = new SLF4JQueryLoggingListener();
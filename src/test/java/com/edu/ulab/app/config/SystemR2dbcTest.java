@@ -0,0 +1,32 @@
+package com.edu.ulab.app.config;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Аннотация для системного тестирования реактивного backend против схемы, созданной Liquibase.
+ * Тест не оборачивается в JDBC-транзакцию: данные из {@code @Sql} должны быть закоммичены,
+ * чтобы их видели соединения R2DBC. Свойства подключения задаёт тест через
+ * {@link PostgresContainerConfig#reactiveProperties}.
+ */
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@JdbcTest
+@ContextConfiguration(classes = {SystemTestingR2dbcConfig.class, PostgresContainerConfig.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SystemR2dbcTest {
+}
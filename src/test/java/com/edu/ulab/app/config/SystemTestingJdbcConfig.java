@@ -0,0 +1,14 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.cache.CacheInvalidationPublisher;
+import com.edu.ulab.app.service.impl.BookServiceTemplateImpl;
+import com.edu.ulab.app.service.impl.UserServiceTemplateImpl;
+import com.edu.ulab.app.storage.jdbc.PooledIdAllocator;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+
+@ComponentScan({"com.edu.ulab.app.mapper"})
+@Import({UserServiceTemplateImpl.class, BookServiceTemplateImpl.class,
+        CacheInvalidationPublisher.class, PooledIdAllocator.class})
+public class SystemTestingJdbcConfig {
+}
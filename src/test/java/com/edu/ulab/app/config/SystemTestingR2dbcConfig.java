@@ -0,0 +1,12 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.facade.ReactiveUserDataFacade;
+import com.edu.ulab.app.service.impl.BookServiceR2dbcImpl;
+import com.edu.ulab.app.service.impl.UserServiceR2dbcImpl;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+
+@ComponentScan({"com.edu.ulab.app.mapper"})
+@Import({R2dbcConfig.class, UserServiceR2dbcImpl.class, BookServiceR2dbcImpl.class, ReactiveUserDataFacade.class})
+public class SystemTestingR2dbcConfig {
+}
@@ -0,0 +1,71 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.dto.BookDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование {@link BookDiff}.
+ */
+@DisplayName("Testing book diff.")
+public class BookDiffTest {
+
+    @Test
+    @DisplayName("Сравнение книг. Совпавшие книги получают id сохранённых, остальные вставляются или удаляются.")
+    void diff_Test() {
+        //given
+        List<BookDto> storedBooks = List.of(
+                book(1L, "first", 100),
+                book(2L, "second", 200),
+                book(3L, "third", 300));
+        List<BookDto> requestedBooks = List.of(
+                book(null, "second", 250),
+                book(null, "fourth", 400),
+                book(null, "first", 100));
+
+        //when
+        BookDiff diff = BookDiff.of(storedBooks, requestedBooks);
+
+        //then
+        assertThat(diff.getUnchanged()).extracting(BookDto::getId).containsExactly(1L);
+        assertThat(diff.getUpdated()).extracting(BookDto::getId).containsExactly(2L);
+        assertThat(diff.getInserted()).extracting(BookDto::getTitle).containsExactly("fourth");
+        assertThat(diff.getDeleted()).extracting(BookDto::getId).containsExactly(3L);
+        assertThat(diff.deletedIds()).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Сравнение книг с повторяющимся названием и автором. Сопоставляются по одной.")
+    void diffDuplicates_Test() {
+        //given
+        List<BookDto> storedBooks = List.of(
+                book(1L, "first", 100),
+                book(2L, "first", 100));
+        List<BookDto> requestedBooks = List.of(
+                book(null, "first", 100),
+                book(null, "first", 100),
+                book(null, "first", 100));
+
+        //when
+        BookDiff diff = BookDiff.of(storedBooks, requestedBooks);
+
+        //then
+        assertThat(diff.getUnchanged()).extracting(BookDto::getId).containsExactly(1L, 2L);
+        assertThat(diff.getInserted()).hasSize(1);
+        assertThat(diff.getDeleted()).isEmpty();
+    }
+
+    private static BookDto book(Long id, String title, long pageCount) {
+        BookDto book = new BookDto();
+        book.setId(id);
+        book.setUserId(1L);
+        book.setTitle(title);
+        book.setAuthor("Test Author");
+        book.setPageCount(pageCount);
+        return book;
+    }
+}
@@ -0,0 +1,145 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.impl.BookServiceInMemoryImpl;
+import com.edu.ulab.app.service.impl.UserServiceInMemoryImpl;
+import com.edu.ulab.app.storage.memory.BookInMemoryRepository;
+import com.edu.ulab.app.storage.memory.ConcurrentStorage;
+import com.edu.ulab.app.storage.memory.Storage;
+import com.edu.ulab.app.storage.memory.UserInMemoryRepository;
+import com.edu.ulab.app.storage.memory.journal.JournalRecord;
+import com.edu.ulab.app.storage.memory.journal.JournalRecord.DeleteBook;
+import com.edu.ulab.app.storage.memory.journal.JournalRecord.PutBook;
+import com.edu.ulab.app.storage.memory.journal.JournalRecord.PutUser;
+import com.edu.ulab.app.storage.memory.journal.StorageJournal;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тестирование {@link UserDataFacade} в режиме {@link BookUpdateMode#DIFF} на хранилищах в памяти.
+ */
+@DisplayName("Testing user data facade in diff mode.")
+public class UserDataFacadeTest {
+
+    static Stream<Named<Object>> storages() {
+        return Stream.of(
+                Named.of("locking", new Storage()),
+                Named.of("locking-no-snapshots", new Storage(false)),
+                Named.of("concurrent", new ConcurrentStorage()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    @DisplayName("Обновление пользователя с разницей книг. Лишние книги удаляются, изменённые обновляются, новые вставляются.")
+    void updateUserWithBookDiff_Test(Object storage) {
+        //given
+        BookService bookService = new BookServiceInMemoryImpl((BookInMemoryRepository) storage, new BookMapperImpl(), null);
+        UserDataFacade facade = facade(storage, bookService);
+        UserBookResponse created = facade.createUserWithBooks(request("reader",
+                book("first", 100), book("second", 200), book("third", 300)));
+        List<Long> storedIds = created.getBooksIdList();
+
+        //when
+        UserBookResponse updated = facade.updateUserWithBooks(request("writer",
+                book("second", 250), book("fourth", 400), book("first", 100)), created.getUserId());
+
+        //then
+        assertThat(updated.getBooksIdList()).hasSize(3);
+        assertThat(updated.getBooksIdList().get(0)).isEqualTo(storedIds.get(1));
+        assertThat(updated.getBooksIdList().get(2)).isEqualTo(storedIds.get(0));
+        assertThat(facade.getUserWithBooks(created.getUserId()).getBooksIdList())
+                .containsExactlyInAnyOrderElementsOf(updated.getBooksIdList());
+        assertThat(bookService.getBookById(storedIds.get(1)).getPageCount()).isEqualTo(250);
+        assertThatThrownBy(() -> bookService.getBookById(storedIds.get(2))).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Обновление пользователя с разницей книг. В журнал попадают только пользователь и изменённые книги.")
+    void updateUserWithBookDiff_journalsOnlyChanges_Test() {
+        //given
+        Storage storage = new Storage();
+        UserDataFacade facade = facade(storage, new BookServiceInMemoryImpl(storage, new BookMapperImpl(), null));
+        UserBookResponse created = facade.createUserWithBooks(request("reader",
+                book("first", 100), book("second", 200), book("third", 300)));
+        List<Long> storedIds = created.getBooksIdList();
+        List<JournalRecord> records = new ArrayList<>();
+        storage.attachJournal(recordingJournal(records));
+
+        //when
+        UserBookResponse updated = facade.updateUserWithBooks(request("writer",
+                book("second", 250), book("fourth", 400), book("first", 100)), created.getUserId());
+
+        //then
+        assertThat(records).hasSize(4);
+        assertThat(records.get(0)).isInstanceOf(PutUser.class);
+        assertThat(records.get(1)).isEqualTo(new DeleteBook(storedIds.get(2)));
+        assertThat(((PutBook) records.get(2)).id()).isEqualTo(storedIds.get(1));
+        assertThat(((PutBook) records.get(3)).id()).isEqualTo(updated.getBooksIdList().get(1));
+    }
+
+    private static UserDataFacade facade(Object storage, BookService bookService) {
+        return new UserDataFacade(
+                new UserServiceInMemoryImpl((UserInMemoryRepository) storage, new UserMapperImpl()),
+                bookService,
+                new UserMapperImpl(),
+                new BookMapperImpl(),
+                BookUpdateMode.DIFF,
+                null);
+    }
+
+    private static StorageJournal recordingJournal(List<JournalRecord> records) {
+        return new StorageJournal() {
+            @Override
+            public long append(JournalRecord record) {
+                records.add(record);
+                return records.size();
+            }
+
+            @Override
+            public void awaitDurable(long position) {
+            }
+
+            @Override
+            public long checkpoint() {
+                return 0;
+            }
+        };
+    }
+
+    private static UserBookRequest request(String title, BookRequest... books) {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName("Test Test");
+        userRequest.setTitle(title);
+        userRequest.setAge(30);
+        userRequest.setPreferredGenre("fantasy");
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(List.of(books));
+        return request;
+    }
+
+    private static BookRequest book(String title, long pageCount) {
+        BookRequest book = new BookRequest();
+        book.setTitle(title);
+        book.setAuthor("Test Author");
+        book.setPageCount(pageCount);
+        return book;
+    }
+}
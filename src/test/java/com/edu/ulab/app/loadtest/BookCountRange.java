@@ -0,0 +1,23 @@
+package com.edu.ulab.app.loadtest;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Диапазон числа книг пользователя {@code min-max} или одно число.
+ */
+record BookCountRange(int min, int max) {
+
+    static BookCountRange parse(String range) {
+        int dash = range.indexOf('-');
+        if (dash < 0) {
+            int count = Integer.parseInt(range);
+            return new BookCountRange(count, count);
+        }
+        return new BookCountRange(Integer.parseInt(range.substring(0, dash)),
+                Integer.parseInt(range.substring(dash + 1)));
+    }
+
+    int next(RandomGenerator random) {
+        return min == max ? min : random.nextInt(min, max + 1);
+    }
+}
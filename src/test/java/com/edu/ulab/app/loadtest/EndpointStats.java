@@ -0,0 +1,57 @@
+package com.edu.ulab.app.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки одного эндпоинта в микросекундах и счётчики ответов за интервал измерения.
+ */
+final class EndpointStats {
+    private final Recorder recorder = new Recorder(3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+
+    void recordSuccess(long latencyNanos) {
+        recorder.recordValue(Math.max(1, latencyNanos / 1000));
+    }
+
+    void recordNotFound(long latencyNanos) {
+        notFound.increment();
+        recordSuccess(latencyNanos);
+    }
+
+    void recordError() {
+        errors.increment();
+    }
+
+    /**
+     * Сбрасывает накопленное за прогрев.
+     */
+    void reset() {
+        recorder.getIntervalHistogram();
+        errors.reset();
+        notFound.reset();
+    }
+
+    Map<String, Object> report(double seconds) {
+        Histogram histogram = recorder.getIntervalHistogram();
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("mean", histogram.getMean() / 1000);
+        latency.put("p50", histogram.getValueAtPercentile(50) / 1000.0);
+        latency.put("p99", histogram.getValueAtPercentile(99) / 1000.0);
+        latency.put("p999", histogram.getValueAtPercentile(99.9) / 1000.0);
+        latency.put("max", histogram.getMaxValue() / 1000.0);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("requests", histogram.getTotalCount());
+        report.put("throughput", histogram.getTotalCount() / seconds);
+        report.put("notFound", notFound.sum());
+        report.put("errors", errors.sum());
+        report.put("latencyMillis", latency);
+        return report;
+    }
+}
@@ -0,0 +1,65 @@
+package com.edu.ulab.app.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.random.RandomGenerator;
+
+/**
+ * Id существующих пользователей для get, update и delete: пополняется созданием, убывает удалением.
+ */
+final class UserIdPool {
+    private final ReentrantLock lock = new ReentrantLock();
+    private long[] ids = new long[1024];
+    private int size;
+
+    void add(long id) {
+        lock.lock();
+        try {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return случайный id или {@code null}, если пул пуст
+     */
+    Long random(RandomGenerator random) {
+        lock.lock();
+        try {
+            return size == 0 ? null : ids[random.nextInt(size)];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Забирает случайный id из пула, чтобы его не удалили дважды.
+     */
+    Long takeRandom(RandomGenerator random) {
+        lock.lock();
+        try {
+            if (size == 0) {
+                return null;
+            }
+            int index = random.nextInt(size);
+            long id = ids[index];
+            ids[index] = ids[--size];
+            return id;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
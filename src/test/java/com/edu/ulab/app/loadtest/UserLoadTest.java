@@ -0,0 +1,319 @@
+package com.edu.ulab.app.loadtest;
+
+import com.edu.ulab.app.AppApplication;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Нагрузочный тест REST API {@code /app/api/v1/user/*}. Для каждого backend из {@code loadtest.backends}
+ * приложение поднимается на случайном порту с Postgres из Testcontainers, заполняется пользователями,
+ * после прогрева {@code loadtest.clients} клиентов в течение {@code loadtest.duration} без пауз выполняют
+ * смесь create/get/update/delete. Задержки копятся в HdrHistogram по эндпоинтам, отчёт пишется
+ * в {@code loadtest.output-dir/<backend>.json}. Если хоть один запрос, включая прогрев, завершился ошибкой,
+ * отчёт не пишется и прогон падает.
+ * <p>
+ * Запуск: {@code mvn -Pload-test verify -Dloadtest.backends=jpa,in-memory -Dloadtest.clients=100}.
+ * Клиенты работают по замкнутому циклу (следующий запрос после ответа), поэтому при перегрузке
+ * задержки занижены (coordinated omission), а пропускная способность показывает предел сервиса.
+ */
+public class UserLoadTest {
+    private static final String BASE_PATH = "/app/api/v1/user";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    enum Operation {
+        CREATE, GET, UPDATE, DELETE
+    }
+
+    private final LoadTestSettings settings;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final AtomicLong requestIds = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicReference<String> firstError = new AtomicReference<>();
+
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final UserIdPool userIds = new UserIdPool();
+    private String baseUrl;
+    private volatile boolean running;
+
+    UserLoadTest(LoadTestSettings settings) {
+        this.settings = settings;
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+                DockerImageName.parse("postgres:13-alpine").asCompatibleSubstituteFor("postgres"))) {
+            postgres.start();
+            for (String backend : settings.backends()) {
+                UserLoadTest loadTest = new UserLoadTest(settings);
+                Map<String, Object> report = loadTest.run(postgres, backend);
+                if (loadTest.errors.get() > 0) {
+                    throw new IllegalStateException(backend + ": " + loadTest.errors.get()
+                            + " requests failed, first: " + loadTest.firstError.get());
+                }
+                Files.createDirectories(settings.outputDir());
+                Path output = settings.outputDir().resolve(backend + ".json");
+                OBJECT_MAPPER.writeValue(output.toFile(), report);
+                System.out.printf("%n%s: %s%n%s%n", backend, output.toAbsolutePath(),
+                        OBJECT_MAPPER.writeValueAsString(report.get("total")));
+            }
+        }
+    }
+
+    private Map<String, Object> run(PostgreSQLContainer<?> postgres, String backend) throws Exception {
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.datasource.url=" + postgres.getJdbcUrl(),
+                "spring.datasource.username=" + postgres.getUsername(),
+                "spring.datasource.password=" + postgres.getPassword(),
+                "app.service.backend=" + backend,
+                "spring.jpa.show-sql=false",
+                "logging.level.root=warn",
+                "logging.level.org.springframework.jdbc.core.JdbcTemplate=warn"));
+        properties.addAll(settings.appProperties());
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AppApplication.class)
+                .properties(properties.toArray(String[]::new))
+                .run();
+        try {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            baseUrl = "http://localhost:" + port + BASE_PATH;
+            context.getBean(JdbcTemplate.class).update("DELETE FROM ulab_edu.person");
+            seedUsers();
+
+            running = true;
+            List<Thread> clients = IntStream.range(0, settings.clients())
+                    .mapToObj(i -> new Thread(this::clientLoop, "load-client-" + i))
+                    .toList();
+            clients.forEach(Thread::start);
+            Thread.sleep(settings.warmup().toMillis());
+            stats.values().forEach(EndpointStats::reset);
+            long start = System.nanoTime();
+            Thread.sleep(settings.duration().toMillis());
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Map<String, Object> endpoints = new LinkedHashMap<>();
+            stats.forEach((operation, endpoint) ->
+                    endpoints.put(operation.name().toLowerCase(), endpoint.report(seconds)));
+            running = false;
+            for (Thread thread : clients) {
+                thread.join();
+            }
+            return report(backend, seconds, endpoints);
+        } finally {
+            context.close();
+        }
+    }
+
+    private void clientLoop() {
+        RandomGenerator random = ThreadLocalRandom.current();
+        while (running) {
+            Operation operation = settings.mix().next(random);
+            Long userId = switch (operation) {
+                case CREATE -> null;
+                case GET, UPDATE -> userIds.random(random);
+                case DELETE -> userIds.takeRandom(random);
+            };
+            if (operation != Operation.CREATE && userId == null) {
+                operation = Operation.CREATE;
+            }
+
+            EndpointStats endpoint = stats.get(operation);
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = client.send(request(operation, userId, random),
+                        HttpResponse.BodyHandlers.ofString());
+                long latency = System.nanoTime() - start;
+                if (response.statusCode() == 200) {
+                    endpoint.recordSuccess(latency);
+                    if (operation == Operation.CREATE) {
+                        userIds.add(OBJECT_MAPPER.readTree(response.body()).get("userId").asLong());
+                    }
+                } else if (response.statusCode() == 404) {
+                    endpoint.recordNotFound(latency);
+                } else {
+                    endpoint.recordError();
+                    recordError(operation + " HTTP " + response.statusCode() + ": " + response.body());
+                }
+            } catch (IOException e) {
+                endpoint.recordError();
+                recordError(operation + " " + e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private HttpRequest request(Operation operation, Long userId, RandomGenerator random) throws IOException {
+        return switch (operation) {
+            case CREATE -> HttpRequest.newBuilder(URI.create(baseUrl + "/create"))
+                    .header("Content-Type", "application/json")
+                    .header("rqid", "load-" + requestIds.incrementAndGet())
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(OBJECT_MAPPER.writeValueAsBytes(userBookRequest(random))))
+                    .build();
+            case GET -> HttpRequest.newBuilder(URI.create(baseUrl + "/get/" + userId))
+                    .GET()
+                    .build();
+            case UPDATE -> HttpRequest.newBuilder(URI.create(baseUrl + "/update/" + userId))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofByteArray(OBJECT_MAPPER.writeValueAsBytes(userBookRequest(random))))
+                    .build();
+            case DELETE -> HttpRequest.newBuilder(URI.create(baseUrl + "/delete/" + userId))
+                    .DELETE()
+                    .build();
+        };
+    }
+
+    private UserBookRequest userBookRequest(RandomGenerator random) {
+        UserRequest user = new UserRequest();
+        user.setFullName("load test");
+        user.setTitle("load test " + random.nextInt(1_000_000));
+        user.setAge(18 + random.nextInt(60));
+        user.setPreferredGenre("fantasy");
+        int bookCount = settings.booksPerUser().next(random).next(random);
+        List<BookRequest> books = IntStream.range(0, bookCount)
+                .mapToObj(i -> {
+                    BookRequest book = new BookRequest();
+                    book.setTitle("book " + i);
+                    book.setAuthor("author " + random.nextInt(1000));
+                    book.setPageCount(50 + random.nextInt(1000));
+                    return book;
+                })
+                .toList();
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(user);
+        request.setBookRequests(books);
+        return request;
+    }
+
+    /**
+     * Заполняет backend через API теми же запросами, что и {@link Operation#CREATE}, в {@code loadtest.clients}
+     * потоков. Первый неуспешный ответ прерывает прогон.
+     */
+    private void seedUsers() throws Exception {
+        ExecutorService seeders = Executors.newFixedThreadPool(settings.clients());
+        try {
+            List<Future<Long>> createdIds = IntStream.range(0, settings.seedUsers())
+                    .mapToObj(i -> seeders.submit(this::createSeedUser))
+                    .toList();
+            for (Future<Long> createdId : createdIds) {
+                userIds.add(createdId.get());
+            }
+        } finally {
+            seeders.shutdownNow();
+        }
+    }
+
+    private Long createSeedUser() throws Exception {
+        HttpResponse<String> response = client.send(request(Operation.CREATE, null, ThreadLocalRandom.current()),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Seeding failed with HTTP " + response.statusCode() + ": " + response.body());
+        }
+        return OBJECT_MAPPER.readTree(response.body()).get("userId").asLong();
+    }
+
+    private void recordError(String description) {
+        errors.incrementAndGet();
+        firstError.compareAndSet(null, description);
+    }
+
+    private Map<String, Object> report(String backend, double seconds, Map<String, Object> endpoints) {
+        long requests = 0;
+        long errors = 0;
+        for (Object endpoint : endpoints.values()) {
+            Map<?, ?> values = (Map<?, ?>) endpoint;
+            requests += (Long) values.get("requests");
+            errors += (Long) values.get("errors");
+        }
+        Map<String, Object> total = new LinkedHashMap<>();
+        total.put("requests", requests);
+        total.put("throughput", requests / seconds);
+        total.put("errors", errors);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("backend", backend);
+        report.put("clients", settings.clients());
+        report.put("warmupSeconds", settings.warmup().toSeconds());
+        report.put("durationSeconds", seconds);
+        report.put("seedUsers", settings.seedUsers());
+        report.put("mix", settings.mix().weights());
+        report.put("booksPerUser", settings.booksPerUser().weights());
+        report.put("appProperties", settings.appProperties());
+        report.put("usersAtEnd", userIds.size());
+        report.put("total", total);
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    /**
+     * Параметры из системных свойств {@code loadtest.*}.
+     *
+     * @param mix           веса операций, например {@code create:10,get:70,update:15,delete:5}
+     * @param booksPerUser  веса диапазонов числа книг, например {@code 0:10,1-3:35,4-10:35,11-50:15,51-200:5}
+     * @param appProperties дополнительные свойства приложения через запятую, например
+     *                      {@code app.service.user-cache.enabled=false}
+     */
+    record LoadTestSettings(List<String> backends, int clients, Duration warmup, Duration duration, int seedUsers,
+                            WeightedChoice<Operation> mix, WeightedChoice<BookCountRange> booksPerUser,
+                            List<String> appProperties, Path outputDir) {
+
+        static LoadTestSettings fromSystemProperties() {
+            return new LoadTestSettings(
+                    split(System.getProperty("loadtest.backends", "jpa,template,in-memory")),
+                    Integer.getInteger("loadtest.clients", 64),
+                    Duration.ofSeconds(Long.getLong("loadtest.warmup", 30)),
+                    Duration.ofSeconds(Long.getLong("loadtest.duration", 60)),
+                    Integer.getInteger("loadtest.seed-users", 10_000),
+                    WeightedChoice.parse(System.getProperty("loadtest.mix", "create:10,get:70,update:15,delete:5"),
+                            ":", key -> Operation.valueOf(key.toUpperCase())),
+                    WeightedChoice.parse(System.getProperty("loadtest.books", "0:10,1-3:35,4-10:35,11-50:15,51-200:5"),
+                            ":", BookCountRange::parse),
+                    split(System.getProperty("loadtest.app-properties", "")),
+                    Path.of(System.getProperty("loadtest.output-dir", "target/load-test")));
+        }
+
+        private static List<String> split(String value) {
+            return Arrays.stream(value.split(","))
+                    .map(String::trim)
+                    .filter(item -> !item.isEmpty())
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.edu.ulab.app.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Случайный выбор по весам из строки вида {@code ключ:вес,ключ:вес}.
+ */
+final class WeightedChoice<T> {
+    private final List<T> values = new ArrayList<>();
+    private final List<Integer> cumulativeWeights = new ArrayList<>();
+    private final Map<String, Integer> weights = new LinkedHashMap<>();
+    private int totalWeight;
+
+    private WeightedChoice() {
+    }
+
+    interface KeyParser<T> {
+        T parse(String key);
+    }
+
+    static <T> WeightedChoice<T> parse(String spec, String separator, KeyParser<T> keyParser) {
+        WeightedChoice<T> choice = new WeightedChoice<>();
+        for (String entry : spec.split(",")) {
+            int split = entry.lastIndexOf(separator);
+            if (split < 0) {
+                throw new IllegalArgumentException("Expected key" + separator + "weight, got '" + entry + "'");
+            }
+            String key = entry.substring(0, split).trim();
+            int weight = Integer.parseInt(entry.substring(split + separator.length()).trim());
+            if (weight <= 0) {
+                continue;
+            }
+            choice.totalWeight += weight;
+            choice.values.add(keyParser.parse(key));
+            choice.cumulativeWeights.add(choice.totalWeight);
+            choice.weights.put(key, weight);
+        }
+        if (choice.values.isEmpty()) {
+            throw new IllegalArgumentException("No positive weights in '" + spec + "'");
+        }
+        return choice;
+    }
+
+    T next(RandomGenerator random) {
+        int point = random.nextInt(totalWeight);
+        for (int i = 0; i < values.size(); i++) {
+            if (point < cumulativeWeights.get(i)) {
+                return values.get(i);
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    Map<String, Integer> weights() {
+        return weights;
+    }
+}
@@ -0,0 +1,81 @@
+package com.edu.ulab.app.metrics;
+
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.ServiceBackend;
+import com.edu.ulab.app.service.impl.BookServiceInMemoryImpl;
+import com.edu.ulab.app.storage.memory.BookInMemoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование {@link OperationMetricsAspect}.
+ */
+@ExtendWith(SpringExtension.class)
+@DisplayName("Testing operation metrics.")
+public class OperationMetricsAspectTest {
+    @Mock
+    BookInMemoryRepository bookRepository;
+
+    @Mock
+    BookMapper bookMapper;
+
+    SimpleMeterRegistry registry;
+    BookService bookService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new BookServiceInMemoryImpl(bookRepository, bookMapper, null));
+        proxyFactory.addAspect(new OperationMetricsAspect(registry, ServiceBackend.JPA));
+        bookService = proxyFactory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Вызов сервиса. Таймер помечается слоем, реализацией и операцией.")
+    void timeServiceOperation_Test() {
+        //given
+        when(bookRepository.getAllBooksByUserId(1L)).thenReturn(List.of());
+
+        //when
+        bookService.getBooksByUserId(1L);
+
+        //then
+        assertThat(registry.get(OperationMetricsAspect.OPERATION_TIMER)
+                .tag("layer", "service")
+                .tag("backend", "inmemory")
+                .tag("operation", "BookService.getBooksByUserId")
+                .tag("exception", "none")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Вызов сервиса с ошибкой. Таймер помечается типом исключения.")
+    void timeFailedServiceOperation_Test() {
+        //given
+        when(bookRepository.getBookById(1L)).thenReturn(Optional.empty());
+
+        //when
+        assertThatThrownBy(() -> bookService.getBookById(1L)).isInstanceOf(NotFoundException.class);
+
+        //then
+        assertThat(registry.get(OperationMetricsAspect.OPERATION_TIMER)
+                .tag("operation", "BookService.getBookById")
+                .tag("exception", "NotFoundException")
+                .timer().count()).isEqualTo(1);
+    }
+}
@@ -1,5 +1,6 @@
 package com.edu.ulab.app.service;
 
+import com.edu.ulab.app.cache.CacheInvalidationPublisher;
 import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.entity.Person;
@@ -12,16 +13,16 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.doThrow;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
 
 /**
  * Тестирование функционала {@link com.edu.ulab.app.service.impl.BookServiceJpaImpl}.
@@ -39,6 +40,9 @@ public class BookServiceJpaImplTest {
     @Mock
     BookMapper bookMapper;
 
+    @Mock
+    CacheInvalidationPublisher invalidationPublisher;
+
     @Test
     @DisplayName("Создание книги. Должно пройти успешно.")
     void saveBook_Test() {
@@ -84,6 +88,47 @@ public class BookServiceJpaImplTest {
         assertEquals(1L, bookDtoResult.getId());
     }
 
+    @Test
+    @DisplayName("Создание списка книг. Репозиторий вызывается один раз на весь список.")
+    void saveBooks_Test() {
+        //given
+        BookDto firstDto = new BookDto();
+        firstDto.setUserId(1L);
+        firstDto.setTitle("first title");
+        BookDto secondDto = new BookDto();
+        secondDto.setUserId(1L);
+        secondDto.setTitle("second title");
+
+        Book first = new Book();
+        first.setTitle("first title");
+        Book second = new Book();
+        second.setTitle("second title");
+
+        Book savedFirst = new Book();
+        savedFirst.setId(1L);
+        Book savedSecond = new Book();
+        savedSecond.setId(2L);
+
+        BookDto firstResult = new BookDto();
+        firstResult.setId(1L);
+        BookDto secondResult = new BookDto();
+        secondResult.setId(2L);
+
+        //when
+
+        when(bookMapper.bookDtoToBookEntity(firstDto)).thenReturn(first);
+        when(bookMapper.bookDtoToBookEntity(secondDto)).thenReturn(second);
+        when(bookRepository.saveAll(List.of(first, second))).thenReturn(List.of(savedFirst, savedSecond));
+        when(bookMapper.bookEntityToBookDto(savedFirst)).thenReturn(firstResult);
+        when(bookMapper.bookEntityToBookDto(savedSecond)).thenReturn(secondResult);
+
+
+        //then
+        List<BookDto> result = bookService.createBooks(List.of(firstDto, secondDto));
+        assertEquals(List.of(1L, 2L), result.stream().map(BookDto::getId).toList());
+        verify(bookRepository, times(1)).saveAll(anyList());
+    }
+
     @Test
     @DisplayName("Обновление книги. Должно пройти успешно.")
     void updateBook_Test() {
@@ -122,7 +167,7 @@ public class BookServiceJpaImplTest {
         //when
 
         when(bookMapper.bookDtoToBookEntity(bookDto)).thenReturn(book);
-        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(savedBook));
         when(bookRepository.save(book)).thenReturn(savedBook);
         when(bookMapper.bookEntityToBookDto(savedBook)).thenReturn(result);
 
@@ -168,7 +213,7 @@ public class BookServiceJpaImplTest {
         long searchBookId = 1L;
 
         //when
-        doThrow(new EmptyResultDataAccessException(1)).when(bookRepository).deleteById(searchBookId);
+        when(bookRepository.findById(searchBookId)).thenReturn(Optional.empty());
 
         //then
         assertThatThrownBy(() -> bookService.deleteBookById(searchBookId))
@@ -0,0 +1,150 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.cache.CacheInvalidationPublisher;
+import com.edu.ulab.app.config.SystemJdbcTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.service.impl.BookServiceTemplateImpl;
+import com.edu.ulab.app.service.impl.UserServiceTemplateImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Тестирование {@link BookServiceTemplateImpl} на схеме ulab_edu.
+ */
+@SystemJdbcTest
+@DisplayName("Testing book template service.")
+@Sql({"classpath:sql/1_clear_schema.sql",
+        "classpath:sql/2_insert_person_data.sql",
+        "classpath:sql/3_insert_book_data.sql",
+        "classpath:sql/4_advance_sequences.sql"
+})
+public class BookServiceTemplateImplTest {
+    @Autowired
+    BookServiceTemplateImpl bookService;
+    @Autowired
+    UserServiceTemplateImpl userService;
+    @SpyBean
+    CacheInvalidationPublisher invalidationPublisher;
+
+    @Test
+    @DisplayName("Создание книг одним вызовом. Книги получают разные id и принадлежат пользователю.")
+    void createBooks_Test() {
+        //given
+        List<BookDto> books = IntStream.range(0, 60)
+                .mapToObj(i -> book("book " + i))
+                .toList();
+
+        //when
+        List<BookDto> created = bookService.createBooks(books);
+
+        //then
+        assertThat(created).extracting(BookDto::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(bookService.getBooksByUserId(1001L)).hasSize(62);
+    }
+
+    @Test
+    @DisplayName("Создание одной книги. Книгу можно прочитать по выданному id.")
+    void createBook_Test() {
+        //given
+        BookDto book = book("single book");
+
+        //when
+        BookDto created = bookService.createBook(book);
+
+        //then
+        BookDto found = bookService.getBookById(created.getId());
+        assertThat(found.getTitle()).isEqualTo("single book");
+        assertThat(found.getUserId()).isEqualTo(1001L);
+    }
+
+    @Test
+    @DisplayName("Создание одной книги списком. Книга вставляется с id из последовательности, изменение публикуется.")
+    void createBooks_single_Test() {
+        //given
+        List<BookDto> books = List.of(book("single listed book"));
+
+        //when
+        List<BookDto> created = bookService.createBooks(books);
+
+        //then
+        assertThat(created).singleElement().extracting(BookDto::getId).isNotNull();
+        assertThat(bookService.getBookById(created.get(0).getId()).getTitle()).isEqualTo("single listed book");
+        verify(invalidationPublisher).userChanged(1001L);
+    }
+
+    @Test
+    @DisplayName("Перенос книги другому пользователю. Изменения публикуются для прежнего и нового владельца.")
+    void updateBook_notifiesBothOwners_Test() {
+        //given
+        Long newOwnerId = createUser("new owner");
+        BookDto book = bookService.getBookById(2002L);
+        book.setUserId(newOwnerId);
+
+        //when
+        bookService.updateBook(book);
+
+        //then
+        assertThat(bookService.getBookById(2002L).getUserId()).isEqualTo(newOwnerId);
+        verify(invalidationPublisher).usersChanged(argThat(ids -> ids.containsAll(List.of(1001L, newOwnerId))));
+    }
+
+    @Test
+    @DisplayName("Перенос книг пакетом. Изменения публикуются для прежних и новых владельцев.")
+    void updateBooks_notifiesBothOwners_Test() {
+        //given
+        Long newOwnerId = createUser("batch owner");
+        List<BookDto> books = List.of(bookService.getBookById(2002L), bookService.getBookById(3003L));
+        books.forEach(book -> book.setUserId(newOwnerId));
+
+        //when
+        bookService.updateBooks(books);
+
+        //then
+        assertThat(bookService.getBooksByUserId(newOwnerId)).extracting(BookDto::getId).containsExactly(2002L, 3003L);
+        verify(invalidationPublisher).usersChanged(argThat(ids -> ids.containsAll(List.of(1001L, newOwnerId))));
+    }
+
+    @Test
+    @DisplayName("Обновление отсутствующей книги. Ничего не публикуется.")
+    void updateBook_notFound_Test() {
+        //given
+        BookDto book = book("missing book");
+        book.setId(-1L);
+
+        //when
+        assertThatThrownBy(() -> bookService.updateBook(book)).isInstanceOf(NotFoundException.class);
+
+        //then
+        verify(invalidationPublisher, never()).userChanged(any());
+        verify(invalidationPublisher, never()).usersChanged(any());
+    }
+
+    private Long createUser(String title) {
+        UserDto userDto = UserServiceTemplateImplTest.user(title);
+        return userService.createUser(userDto).getId();
+    }
+
+    static BookDto book(String title) {
+        BookDto book = new BookDto();
+        book.setUserId(1001L);
+        book.setTitle(title);
+        book.setAuthor("Test Author");
+        book.setPageCount(100);
+        return book;
+    }
+}
@@ -0,0 +1,105 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.cache.UserCache;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.service.impl.CachingUserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование функционала {@link CachingUserService}.
+ */
+@ExtendWith(SpringExtension.class)
+@DisplayName("Testing user cache functionality.")
+public class CachingUserServiceTest {
+    @Mock
+    UserService delegate;
+
+    SimpleMeterRegistry meterRegistry;
+    CachingUserService userService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userService = new CachingUserService(delegate, new UserCache(100, Duration.ofMinutes(1), meterRegistry));
+    }
+
+    @Test
+    @DisplayName("Повторное получение пользователя. Должно обратиться к сервису один раз.")
+    void getByIdCached_Test() {
+        //given
+        when(delegate.getUserById(1L)).thenReturn(user(1L));
+
+        //when
+        UserDto first = userService.getUserById(1L);
+        UserDto second = userService.getUserById(1L);
+
+        //then
+        verify(delegate, times(1)).getUserById(1L);
+        assertThat(second).isEqualTo(first).isNotSameAs(first);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", UserCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Получение пользователя после обновления. Должно снова обратиться к сервису.")
+    void getByIdAfterUpdate_Test() {
+        //given
+        UserDto user = user(1L);
+        when(delegate.getUserById(1L)).thenReturn(user);
+        userService.getUserById(1L);
+
+        //when
+        userService.updateUser(user);
+        userService.getUserById(1L);
+
+        //then
+        verify(delegate).updateUser(user);
+        verify(delegate, times(2)).getUserById(1L);
+    }
+
+    @Test
+    @DisplayName("Получение нескольких пользователей. Из сервиса загружаются только отсутствующие в кэше.")
+    void getByIdsLoadsOnlyMissing_Test() {
+        //given
+        when(delegate.getUserById(1L)).thenReturn(user(1L));
+        when(delegate.getUsersByIds(List.of(2L, 3L))).thenReturn(List.of(user(2L)));
+        userService.getUserById(1L);
+
+        //when
+        List<UserDto> users = userService.getUsersByIds(List.of(1L, 2L, 3L));
+        List<UserDto> cachedUsers = userService.getUsersByIds(List.of(1L, 2L));
+
+        //then
+        assertThat(users).extracting(UserDto::getId).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(cachedUsers).extracting(UserDto::getId).containsExactlyInAnyOrder(1L, 2L);
+        verify(delegate, times(1)).getUserById(1L);
+        verify(delegate, times(1)).getUsersByIds(List.of(2L, 3L));
+        verifyNoMoreInteractions(delegate);
+    }
+
+    private static UserDto user(Long id) {
+        UserDto user = new UserDto();
+        user.setId(id);
+        user.setFullName("test name");
+        user.setTitle("test title");
+        user.setAge(11);
+        user.setPreferredGenre("fantasy");
+        user.setBookIds(List.of(2L, 3L));
+        return user;
+    }
+}
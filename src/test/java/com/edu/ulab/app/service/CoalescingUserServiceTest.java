@@ -0,0 +1,158 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.service.impl.CoalescingUserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование функционала {@link CoalescingUserService}.
+ */
+@ExtendWith(SpringExtension.class)
+@DisplayName("Testing user request coalescing functionality.")
+public class CoalescingUserServiceTest {
+    private static final int CALLERS = 8;
+
+    @Mock
+    UserService delegate;
+
+    SimpleMeterRegistry meterRegistry;
+    CoalescingUserService userService;
+    ExecutorService executor;
+    CountDownLatch loadStarted;
+    CountDownLatch releaseLoad;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userService = new CoalescingUserService(delegate, meterRegistry);
+        executor = Executors.newFixedThreadPool(CALLERS);
+        loadStarted = new CountDownLatch(1);
+        releaseLoad = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Одновременное получение одного пользователя. Сервис вызывается один раз, все получают результат.")
+    void concurrentGetById_Test() throws Exception {
+        //given
+        when(delegate.getUserById(1L)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            releaseLoad.await(1, TimeUnit.MINUTES);
+            return user(1L);
+        });
+
+        //when
+        List<Future<UserDto>> results = callConcurrently(() -> userService.getUserById(1L));
+
+        //then
+        for (Future<UserDto> result : results) {
+            assertThat(result.get(1, TimeUnit.MINUTES).getBookIds()).containsExactly(2L, 3L);
+        }
+        verify(delegate, times(1)).getUserById(1L);
+        assertThat(meterRegistry.get(CoalescingUserService.LOADS_COUNTER).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Ошибка загрузки. Ожидавшие вызовы получают то же исключение, следующий вызов загружает заново.")
+    void concurrentGetByIdFailure_Test() throws Exception {
+        //given
+        when(delegate.getUserById(1L)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            releaseLoad.await(1, TimeUnit.MINUTES);
+            throw new NotFoundException("User with id 1 not found");
+        });
+
+        //when
+        List<Future<UserDto>> results = callConcurrently(() -> userService.getUserById(1L));
+
+        //then
+        for (Future<UserDto> result : results) {
+            assertThat(result).failsWithin(1, TimeUnit.MINUTES)
+                    .withThrowableOfType(ExecutionException.class)
+                    .withCauseInstanceOf(NotFoundException.class);
+        }
+        doReturn(user(1L)).when(delegate).getUserById(1L);
+        assertThat(userService.getUserById(1L).getId()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Error при загрузке. Ожидавшие вызовы не зависают и получают тот же Error.")
+    void concurrentGetByIdError_Test() throws Exception {
+        //given
+        when(delegate.getUserById(1L)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            releaseLoad.await(1, TimeUnit.MINUTES);
+            throw new StackOverflowError("load failed");
+        });
+
+        //when
+        List<Future<UserDto>> results = callConcurrently(() -> userService.getUserById(1L));
+
+        //then
+        for (Future<UserDto> result : results) {
+            assertThat(result).failsWithin(1, TimeUnit.MINUTES)
+                    .withThrowableOfType(ExecutionException.class)
+                    .withCauseInstanceOf(StackOverflowError.class);
+        }
+        doReturn(user(1L)).when(delegate).getUserById(1L);
+        assertThat(userService.getUserById(1L).getId()).isEqualTo(1L);
+    }
+
+    /**
+     * Запускает первый вызов, дожидается начала загрузки и остальных вызовов, затем отпускает загрузку.
+     */
+    private List<Future<UserDto>> callConcurrently(Callable<UserDto> call) throws Exception {
+        List<Future<UserDto>> results = new ArrayList<>();
+        results.add(executor.submit(call));
+        assertThat(loadStarted.await(1, TimeUnit.MINUTES)).isTrue();
+        for (int i = 1; i < CALLERS; i++) {
+            results.add(executor.submit(call));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        while (meterRegistry.get(CoalescingUserService.COALESCED_CALLERS_COUNTER).counter().count() < CALLERS - 1
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        releaseLoad.countDown();
+        return results;
+    }
+
+    private static UserDto user(Long id) {
+        UserDto user = new UserDto();
+        user.setId(id);
+        user.setFullName("test name");
+        user.setTitle("test title");
+        user.setAge(11);
+        user.setPreferredGenre("fantasy");
+        user.setBookIds(List.of(2L, 3L));
+        return user;
+    }
+}
@@ -0,0 +1,79 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.service.impl.UserExportServiceJdbcImpl;
+import com.edu.ulab.app.web.response.UserExportRow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тестирование функционала {@link UserExportServiceJdbcImpl}.
+ */
+@ExtendWith(SpringExtension.class)
+@DisplayName("Testing user export functionality.")
+public class UserExportServiceJdbcImplTest {
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    Connection connection;
+
+    @Mock
+    PreparedStatement preparedStatement;
+
+    @Mock
+    ResultSet resultSet;
+
+    @Test
+    @DisplayName("Выгрузка пользователей. Строки соединения группируются по пользователю, курсор читается порциями.")
+    void exportUsers_Test() throws Exception {
+        //given
+        UserExportServiceJdbcImpl exportService = new UserExportServiceJdbcImpl(jdbcTemplate, transactionManager, 500);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(resultSet.getLong("ID")).thenReturn(1L, 1L, 2L, 3L);
+        when(resultSet.getLong("BOOK_ID")).thenReturn(10L, 11L, 0L, 30L);
+        when(resultSet.wasNull()).thenReturn(false, false, true, false);
+        when(resultSet.getString("TITLE")).thenReturn("first", "second", "third");
+        doAnswer(invocation -> {
+            invocation.<PreparedStatementCreator>getArgument(0).createPreparedStatement(connection);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int i = 0; i < 4; i++) {
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        List<UserExportRow> rows = new ArrayList<>();
+
+        //when
+        long exported = exportService.exportUsers(rows::add);
+
+        //then
+        assertThat(exported).isEqualTo(3);
+        assertThat(rows).extracting(UserExportRow::getUserId).containsExactly(1L, 2L, 3L);
+        assertThat(rows).extracting(UserExportRow::getTitle).containsExactly("first", "second", "third");
+        assertThat(rows.get(0).getBooksIdList()).containsExactly(10L, 11L);
+        assertThat(rows.get(1).getBooksIdList()).isEmpty();
+        assertThat(rows.get(2).getBooksIdList()).containsExactly(30L);
+        verify(preparedStatement).setFetchSize(500);
+    }
+}
@@ -0,0 +1,171 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.service.impl.UserImportServiceJdbcImpl;
+import com.edu.ulab.app.storage.jdbc.PgCopyLoader;
+import com.edu.ulab.app.storage.jdbc.PooledIdAllocator;
+import com.edu.ulab.app.web.response.UserImportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тестирование функционала {@link UserImportServiceJdbcImpl}.
+ */
+@ExtendWith(SpringExtension.class)
+@DisplayName("Testing user import functionality.")
+public class UserImportServiceJdbcImplTest {
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    PooledIdAllocator idAllocator;
+
+    @Mock
+    PgCopyLoader copyLoader;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    UserImportServiceJdbcImpl importService;
+    List<List<UserImportResult>> chunks;
+
+    @BeforeEach
+    void setUp() {
+        AtomicLong nextId = new AtomicLong(100);
+        when(idAllocator.allocate(anyString(), anyInt())).thenAnswer(invocation ->
+                LongStream.range(0, invocation.<Integer>getArgument(1)).map(i -> nextId.getAndIncrement()).toArray());
+        importService = importService(false);
+        chunks = new ArrayList<>();
+    }
+
+    @Test
+    @DisplayName("Импорт NDJSON. Записи вставляются чанками, каждой возвращаются id.")
+    void importNdjson_Test() throws Exception {
+        //given
+        String body = user("first", 2) + "\n" + user("second", 0) + "\n" + user("third", 1) + "\n";
+
+        //when
+        importService.importUsers(stream(body), chunks::add);
+
+        //then
+        assertThat(chunks).hasSize(2);
+        List<UserImportResult> results = chunks.stream().flatMap(List::stream).toList();
+        assertThat(results).extracting(UserImportResult::getIndex).containsExactly(0L, 1L, 2L);
+        assertThat(results).allMatch(result -> result.getError() == null && result.getUserId() != null);
+        assertThat(results.get(0).getBooksIdList()).hasSize(2);
+        verify(jdbcTemplate, times(2)).batchUpdate(contains("ulab_edu.person"), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    @DisplayName("Импорт JSON-массива с ошибочными записями. Ошибка возвращается только для них.")
+    void importArrayWithFailures_Test() throws Exception {
+        //given
+        String body = "[" + user("first", 1) + "," + user("duplicate", 1) + ","
+                + "{\"userRequest\":{\"fullName\":\"no title\"}}]";
+        DuplicateKeyException duplicate = new DuplicateKeyException("duplicate title");
+        doThrow(duplicate).doReturn(new int[][]{}).doThrow(duplicate)
+                .when(jdbcTemplate).batchUpdate(contains("ulab_edu.person"), anyCollection(), anyInt(),
+                        any(ParameterizedPreparedStatementSetter.class));
+
+        //when
+        importService.importUsers(stream(body), chunks::add);
+
+        //then
+        List<UserImportResult> results = chunks.stream().flatMap(List::stream).toList();
+        assertThat(results).extracting(UserImportResult::getIndex).containsExactly(0L, 1L, 2L);
+        assertThat(results.get(0).getError()).isNull();
+        assertThat(results.get(1).getError()).contains("duplicate title");
+        assertThat(results.get(2).getError()).contains("required");
+    }
+
+    @Test
+    @DisplayName("Импорт оборванного JSON. Вставляются записи до ошибки, затем возвращается ошибка разбора.")
+    void importMalformed_Test() throws Exception {
+        //given
+        String body = user("first", 0) + "\n{\"userRequest\":";
+
+        //when
+        importService.importUsers(stream(body), chunks::add);
+
+        //then
+        List<UserImportResult> results = chunks.stream().flatMap(List::stream).toList();
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).getUserId()).isNotNull();
+        assertThat(results.get(1).getIndex()).isEqualTo(1L);
+        assertThat(results.get(1).getError()).startsWith("Malformed input");
+        verify(jdbcTemplate, never()).batchUpdate(contains("ulab_edu.book"), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    @DisplayName("Импорт через COPY. Загрузчику передаются пользователи и книги с заранее выделенными id.")
+    void importWithCopy_Test() throws Exception {
+        //given
+        importService = importService(true);
+        String body = user("first", 2) + "\n" + user("second", 1) + "\n";
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Person>> persons = ArgumentCaptor.forClass(List.class);
+
+        //when
+        importService.importUsers(stream(body), chunks::add);
+
+        //then
+        verify(copyLoader).load(persons.capture());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        List<UserImportResult> results = chunks.get(0);
+        assertThat(persons.getValue()).extracting(Person::getId)
+                .containsExactly(results.get(0).getUserId(), results.get(1).getUserId());
+        assertThat(persons.getValue().get(0).getBooks()).extracting(Book::getId)
+                .containsExactlyElementsOf(results.get(0).getBooksIdList());
+        assertThat(persons.getValue().get(0).getBooks()).allMatch(book ->
+                book.getUserId().equals(results.get(0).getUserId()));
+    }
+
+    private UserImportServiceJdbcImpl importService(boolean copy) {
+        return new UserImportServiceJdbcImpl(jdbcTemplate, new TransactionTemplate(transactionManager),
+                idAllocator, copyLoader, new ObjectMapper(), 2, copy);
+    }
+
+    private static String user(String title, int books) {
+        StringBuilder json = new StringBuilder("{\"userRequest\":{\"fullName\":\"Test Test\",\"title\":\"")
+                .append(title)
+                .append("\",\"age\":30,\"preferredGenre\":\"fantasy\"},\"bookRequests\":[");
+        for (int i = 0; i < books; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"title\":\"book ").append(i).append("\",\"author\":\"author\",\"pageCount\":100}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
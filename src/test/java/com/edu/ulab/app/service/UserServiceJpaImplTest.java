@@ -1,17 +1,19 @@
 package com.edu.ulab.app.service;
 
+import com.edu.ulab.app.cache.CacheInvalidationPublisher;
 import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.entity.Person;
 import com.edu.ulab.app.exception.ServiceException;
 import com.edu.ulab.app.mapper.UserMapper;
 import com.edu.ulab.app.service.impl.UserServiceJpaImpl;
+import com.edu.ulab.app.storage.jpa.BookJpaRepository;
+import com.edu.ulab.app.storage.jpa.PersonView;
 import com.edu.ulab.app.storage.jpa.UserJpaRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -20,7 +22,7 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -36,9 +38,15 @@ public class UserServiceJpaImplTest {
     @Mock
     UserJpaRepository userRepository;
 
+    @Mock
+    BookJpaRepository bookRepository;
+
     @Mock
     UserMapper userMapper;
 
+    @Mock
+    CacheInvalidationPublisher invalidationPublisher;
+
     @Test
     @DisplayName("Создание пользователя. Должно пройти успешно.")
     void savePerson_Test() {
@@ -98,18 +106,11 @@ public class UserServiceJpaImplTest {
 
         Person person  = new Person();
         person.setId(1L);
-        person.setFullName("test name");
-        person.setAge(11);
-        person.setTitle("test title");
+        person.setFullName("old name");
+        person.setAge(10);
+        person.setTitle("old title");
         person.setPreferredGenre("fantasy");
 
-        Person savedPerson  = new Person();
-        savedPerson.setId(1L);
-        savedPerson.setFullName("test name");
-        savedPerson.setAge(11);
-        savedPerson.setTitle("test title");
-        savedPerson.setPreferredGenre("fantasy");
-
         UserDto result = new UserDto();
         result.setId(1L);
         result.setAge(11);
@@ -120,16 +121,18 @@ public class UserServiceJpaImplTest {
 
         //when
 
-        when(userMapper.userDtoToUserEntity(userDto)).thenReturn(person);
-        when(userRepository.existsById(savedPerson.getId())).thenReturn(true);
-        when(userRepository.save(person)).thenReturn(savedPerson);
-        when(userMapper.userEntityToUserDto(savedPerson)).thenReturn(result);
+        when(userRepository.findById(userDto.getId())).thenReturn(Optional.of(person));
+        when(bookRepository.deleteAllByUserIdInBulk(person.getId())).thenReturn(2);
+        when(userMapper.userEntityToUserDto(person)).thenReturn(result);
 
 
         //then
 
         UserDto userDtoResult = userService.updateUser(userDto);
         assertEquals(1L, userDtoResult.getId());
+        verify(userMapper).updateUserEntity(userDto, person);
+        verify(bookRepository).deleteAllByUserIdInBulk(1L);
+        verify(invalidationPublisher).userChanged(1L);
     }
 
     @Test
@@ -146,13 +149,7 @@ public class UserServiceJpaImplTest {
         userDto.setTitle("test title");
         userDto.setPreferredGenre("fantasy");
 
-        Person person  = new Person();
-        person.setId(1L);
-        person.setFullName("test name");
-        person.setAge(11);
-        person.setTitle("test title");
-        person.setPreferredGenre("fantasy");
-        person.setBooks(List.of());
+        PersonView person = new PersonView(1L, "test name", "test title", 11, "fantasy", List.of(2L, 3L));
 
         UserDto result = new UserDto();
         result.setId(1L);
@@ -160,18 +157,20 @@ public class UserServiceJpaImplTest {
         result.setFullName("test name");
         result.setTitle("test title");
         result.setPreferredGenre("fantasy");
+        result.setBookIds(List.of(2L, 3L));
 
 
         //when
 
-        when(userRepository.findById(searchUserId)).thenReturn(Optional.of(person));
-        when(userMapper.userEntityToUserDto(person)).thenReturn(result);
+        when(userRepository.findViewById(searchUserId)).thenReturn(Optional.of(person));
+        when(userMapper.personViewToUserDto(person)).thenReturn(result);
 
 
         //then
 
         UserDto userDtoResult = userService.getUserById(searchUserId);
         assertEquals(searchUserId, userDtoResult.getId());
+        assertEquals(List.of(2L, 3L), userDtoResult.getBookIds());
     }
 
     @Test
@@ -181,7 +180,7 @@ public class UserServiceJpaImplTest {
         long userId = 1L;
 
         //when
-        doThrow(new EmptyResultDataAccessException(1)).when(userRepository).deleteById(userId);
+        when(userRepository.deleteWithBooksById(userId)).thenReturn(0);
 
         //then
         assertThatThrownBy(() -> userService.deleteUserById(userId))
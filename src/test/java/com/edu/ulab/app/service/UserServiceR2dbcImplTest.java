@@ -0,0 +1,170 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.config.PostgresContainerConfig;
+import com.edu.ulab.app.config.SystemR2dbcTest;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.exception.ServiceException;
+import com.edu.ulab.app.facade.ReactiveUserDataFacade;
+import com.edu.ulab.app.service.impl.BookServiceR2dbcImpl;
+import com.edu.ulab.app.service.impl.UserServiceR2dbcImpl;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тестирование {@link UserServiceR2dbcImpl}, {@link BookServiceR2dbcImpl} и {@link ReactiveUserDataFacade}
+ * на схеме ulab_edu.
+ */
+@SystemR2dbcTest
+@DisplayName("Testing reactive user service.")
+@Sql({"classpath:sql/1_clear_schema.sql",
+        "classpath:sql/2_insert_person_data.sql",
+        "classpath:sql/3_insert_book_data.sql",
+        "classpath:sql/4_advance_sequences.sql"
+})
+public class UserServiceR2dbcImplTest {
+    @Autowired
+    UserServiceR2dbcImpl userService;
+    @Autowired
+    ReactiveUserDataFacade facade;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void reactiveProperties(DynamicPropertyRegistry registry) {
+        PostgresContainerConfig.reactiveProperties(registry);
+    }
+
+    @Test
+    @DisplayName("Создание пользователя с книгами. Книги вставляются одним statement, id книг читаются массивом.")
+    void createUserWithBooks_Test() {
+        //given
+        UserBookRequest request = request("reactive reader", book("first"), book("second"), book("third"));
+
+        //when
+        UserBookResponse created = facade.createUserWithBooks(request).block();
+
+        //then
+        assertThat(created).isNotNull();
+        assertThat(created.getBooksIdList()).hasSize(3).doesNotHaveDuplicates();
+        UserDto found = userService.getUserById(created.getUserId()).block();
+        assertThat(found).isNotNull();
+        assertThat(found.getTitle()).isEqualTo("reactive reader");
+        assertThat(found.getBookIds()).containsExactlyElementsOf(created.getBooksIdList().stream().sorted().toList());
+        assertThat(jdbcTemplate.queryForList("SELECT TITLE FROM ulab_edu.book WHERE USER_ID=? ORDER BY ID",
+                String.class, created.getUserId())).containsExactly("first", "second", "third");
+    }
+
+    @Test
+    @DisplayName("Получение пользователя. Id книг упорядочены, у пользователя без книг список пустой.")
+    void getUserById_Test() {
+        //given
+        Long createdId = facade.createUserWithBooks(request("reactive no books")).block().getUserId();
+
+        //when
+        UserDto withBooks = userService.getUserById(1001L).block();
+        UserDto withoutBooks = userService.getUserById(createdId).block();
+
+        //then
+        assertThat(withBooks.getBookIds()).containsExactly(2002L, 3003L);
+        assertThat(withoutBooks.getBookIds()).isEmpty();
+        assertThatThrownBy(() -> userService.getUserById(-1L).block()).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Обновление пользователя. Книги не из списка оставляемых удаляются.")
+    void updateUser_keepsListedBooks_Test() {
+        //given
+        UserDto userDto = userService.getUserById(1001L).block();
+        userDto.setPreferredGenre("horror");
+        userDto.setBookIds(List.of(2002L));
+
+        //when
+        userService.updateUser(userDto).block();
+
+        //then
+        UserDto found = userService.getUserById(1001L).block();
+        assertThat(found.getPreferredGenre()).isEqualTo("horror");
+        assertThat(found.getBookIds()).containsExactly(2002L);
+    }
+
+    @Test
+    @DisplayName("Обновление пользователя с книгами. Прежние книги заменяются книгами запроса.")
+    void updateUserWithBooks_Test() {
+        //when
+        UserBookResponse updated = facade.updateUserWithBooks(request("reactive writer", book("new")), 1001L).block();
+
+        //then
+        assertThat(updated.getBooksIdList()).hasSize(1);
+        UserDto found = userService.getUserById(1001L).block();
+        assertThat(found.getTitle()).isEqualTo("reactive writer");
+        assertThat(found.getBookIds()).isEqualTo(updated.getBooksIdList());
+        assertThatThrownBy(() -> facade.updateUserWithBooks(request("missing"), -1L).block())
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Удаление пользователя. Книги удаляются каскадом внешнего ключа.")
+    void deleteUserWithBooks_Test() {
+        //when
+        facade.deleteUserWithBooks(1001L).block();
+
+        //then
+        assertThatThrownBy(() -> userService.getUserById(1001L).block()).isInstanceOf(NotFoundException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM ulab_edu.book WHERE USER_ID=?", Long.class, 1001L))
+                .isZero();
+    }
+
+    @Test
+    @DisplayName("Ошибка вставки книги. Транзакция откатывается вместе с пользователем.")
+    void createUserWithBooks_rollback_Test() {
+        //given
+        BookRequest invalidBook = book(null);
+        UserBookRequest request = request("reactive rollback", book("valid"), invalidBook);
+
+        //when
+        assertThatThrownBy(() -> facade.createUserWithBooks(request).block()).isInstanceOf(ServiceException.class);
+
+        //then
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM ulab_edu.person WHERE TITLE=?", Long.class,
+                "reactive rollback")).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM ulab_edu.book WHERE TITLE='valid'", Long.class))
+                .isZero();
+    }
+
+    private static UserBookRequest request(String title, BookRequest... books) {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName("Test Test");
+        userRequest.setTitle(title);
+        userRequest.setAge(30);
+        userRequest.setPreferredGenre("fantasy");
+
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(Arrays.asList(books));
+        return request;
+    }
+
+    private static BookRequest book(String title) {
+        BookRequest book = new BookRequest();
+        book.setTitle(title);
+        book.setAuthor("Test Author");
+        book.setPageCount(100);
+        return book;
+    }
+}
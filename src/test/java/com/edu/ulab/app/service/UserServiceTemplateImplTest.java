@@ -0,0 +1,150 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.config.SystemJdbcTest;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.service.impl.UserServiceTemplateImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тестирование {@link UserServiceTemplateImpl} на схеме ulab_edu.
+ */
+@SystemJdbcTest
+@DisplayName("Testing user template service.")
+@Sql({"classpath:sql/1_clear_schema.sql",
+        "classpath:sql/2_insert_person_data.sql",
+        "classpath:sql/3_insert_book_data.sql",
+        "classpath:sql/4_advance_sequences.sql"
+})
+public class UserServiceTemplateImplTest {
+    @Autowired
+    UserServiceTemplateImpl userService;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Создание пользователя. Id выделяется из последовательности, все поля сохраняются.")
+    void createUser_Test() {
+        //given
+        UserDto userDto = user("template reader");
+
+        //when
+        UserDto created = userService.createUser(userDto);
+
+        //then
+        assertThat(created.getId()).isNotNull();
+        UserDto found = userService.getUserById(created.getId());
+        assertThat(found.getTitle()).isEqualTo("template reader");
+        assertThat(found.getPreferredGenre()).isEqualTo("fantasy");
+        assertThat(found.getAge()).isEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("Получение пользователя. Id книг упорядочены, у пользователя без книг список пустой, как в пакете по id.")
+    void getUserById_Test() {
+        //given
+        Long createdId = userService.createUser(user("template no books")).getId();
+
+        //when
+        UserDto withBooks = userService.getUserById(1001L);
+        UserDto withoutBooks = userService.getUserById(createdId);
+
+        //then
+        assertThat(withBooks.getBookIds()).containsExactly(2002L, 3003L);
+        assertThat(withoutBooks.getBookIds()).isEmpty();
+        assertThat(userService.getUsersByIds(List.of(1001L, createdId)))
+                .containsExactlyInAnyOrder(withBooks, withoutBooks);
+        assertThatThrownBy(() -> userService.getUserById(-1L)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Обновление пользователя. Книги не из списка оставляемых удаляются.")
+    void updateUser_Test() {
+        //given
+        UserDto userDto = userService.getUserById(1001L);
+        userDto.setPreferredGenre("horror");
+        userDto.setBookIds(List.of(2002L));
+
+        //when
+        userService.updateUser(userDto);
+
+        //then
+        UserDto found = userService.getUserById(1001L);
+        assertThat(found.getPreferredGenre()).isEqualTo("horror");
+        assertThat(found.getBookIds()).containsExactly(2002L);
+    }
+
+    @Test
+    @DisplayName("Удаление пользователя. Книги удаляются каскадом внешнего ключа.")
+    void deleteUserById_Test() {
+        //given
+        Long userId = 1001L;
+
+        //when
+        userService.deleteUserById(userId);
+
+        //then
+        assertThatThrownBy(() -> userService.getUserById(userId)).isInstanceOf(NotFoundException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM ulab_edu.book WHERE USER_ID=?", Long.class, userId))
+                .isZero();
+    }
+
+    @Test
+    @DisplayName("Страница пользователей. Пользователи упорядочены по id, у каждого свои id книг.")
+    void getUsersAfter_Test() {
+        //given
+        Long createdId = userService.createUser(user("template pager")).getId();
+
+        //when
+        List<UserDto> page = userService.getUsersAfter(null, 10);
+        List<UserDto> afterFirst = userService.getUsersAfter(page.get(0).getId(), 10);
+
+        //then
+        assertThat(page).extracting(UserDto::getId).containsExactlyInAnyOrder(1001L, createdId).isSorted();
+        assertThat(page).filteredOn(u -> u.getId().equals(1001L))
+                .singleElement()
+                .extracting(UserDto::getBookIds)
+                .isEqualTo(List.of(2002L, 3003L));
+        assertThat(page).filteredOn(u -> u.getId().equals(createdId))
+                .singleElement()
+                .extracting(UserDto::getBookIds)
+                .isEqualTo(List.of());
+        assertThat(afterFirst).extracting(UserDto::getId).containsExactly(page.get(1).getId());
+    }
+
+    @Test
+    @DisplayName("Пакет пользователей по id. Отсутствующие id пропускаются, id книг агрегируются.")
+    void getUsersByIds_Test() {
+        //given
+        Long createdId = userService.createUser(user("template batch")).getId();
+
+        //when
+        List<UserDto> users = userService.getUsersByIds(List.of(1001L, createdId, -1L));
+
+        //then
+        assertThat(users).extracting(UserDto::getId).containsExactlyInAnyOrder(1001L, createdId);
+        assertThat(users).filteredOn(u -> u.getId().equals(1001L))
+                .singleElement()
+                .extracting(UserDto::getBookIds)
+                .isEqualTo(List.of(2002L, 3003L));
+        assertThat(userService.getUsersByIds(List.of())).isEmpty();
+    }
+
+    static UserDto user(String title) {
+        UserDto userDto = new UserDto();
+        userDto.setFullName("Test Test");
+        userDto.setTitle(title);
+        userDto.setAge(30);
+        userDto.setPreferredGenre("fantasy");
+        return userDto;
+    }
+}
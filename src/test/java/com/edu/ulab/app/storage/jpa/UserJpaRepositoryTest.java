@@ -8,6 +8,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.jdbc.Sql;
 
@@ -20,11 +21,15 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Тесты репозитория {@link UserJpaRepository}.
+ * Оптимизатор pooled-lo держит выделенный блок id в памяти, поэтому nextval считается только в тестах
+ * с пересозданием контекста, остальные тесты сбрасывают счётчик запросов после подготовки данных.
  */
 @SystemJpaTest
 public class UserJpaRepositoryTest {
     @Autowired
     UserJpaRepository userRepository;
+    @Autowired
+    BookJpaRepository bookRepository;
 
     @BeforeEach
     void setUp() {
@@ -34,6 +39,7 @@ public class UserJpaRepositoryTest {
     @DisplayName("Сохранить пользователя. Число select должно равняться 1")
     @Test
     @Rollback
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
     @Sql({"classpath:sql/1_clear_schema.sql",
             "classpath:sql/2_insert_person_data.sql",
             "classpath:sql/3_insert_book_data.sql"
@@ -57,7 +63,7 @@ public class UserJpaRepositoryTest {
         assertDeleteCount(0);
     }
 
-    @DisplayName("Обновить пользователя. Должно выполниться по одной операции select, insert и update")
+    @DisplayName("Обновить пользователя. Должно выполниться по одной операции insert и update")
     @Test
     @Rollback
     @Sql({"classpath:sql/1_clear_schema.sql",
@@ -73,6 +79,7 @@ public class UserJpaRepositoryTest {
         person.setPreferredGenre("old genre");
         Person savedPerson = userRepository.save(person);
         long savedPersonId = savedPerson.getId();
+        SQLStatementCountValidator.reset();
 
         //When
         savedPerson.setAge(90);
@@ -89,13 +96,13 @@ public class UserJpaRepositoryTest {
         assertThat(result.getFullName()).isEqualTo("updated full name");
         assertThat(result.getPreferredGenre()).isEqualTo("updated genre");
 
-        assertSelectCount(1);
+        assertSelectCount(0);
         assertInsertCount(1);
         assertUpdateCount(1);
         assertDeleteCount(0);
     }
 
-    @DisplayName("Получить пользователя по id. Число select должно равняться 1")
+    @DisplayName("Получить сохранённого пользователя по id. Пользователь берётся из контекста без select")
     @Test
     @Rollback
     @Sql({"classpath:sql/1_clear_schema.sql",
@@ -111,6 +118,7 @@ public class UserJpaRepositoryTest {
         person.setPreferredGenre("old genre");
         Person savedPerson = userRepository.save(person);
         long savedPersonId = savedPerson.getId();
+        SQLStatementCountValidator.reset();
 
         //When
         Optional<Person> resultOpt = userRepository.findById(savedPersonId);
@@ -124,12 +132,101 @@ public class UserJpaRepositoryTest {
         assertThat(result.getFullName()).isEqualTo("old full name");
         assertThat(result.getPreferredGenre()).isEqualTo("old genre");
 
+        assertSelectCount(0);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
+    @DisplayName("Получить пользователя с id книг. Должен выполниться один select без загрузки сущностей")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void getPersonView_thenAssertDmlCount() {
+        //When
+        Optional<PersonView> resultOpt = userRepository.findViewById(1001L);
+
+        //Then
+        assertThat(resultOpt).isPresent();
+        PersonView result = resultOpt.get();
+        assertThat(result.getTitle()).isEqualTo("reader");
+        assertThat(result.getFullName()).isEqualTo("default user");
+        assertThat(result.getBookIds()).containsExactly(2002L, 3003L);
+
         assertSelectCount(1);
         assertInsertCount(0);
         assertUpdateCount(0);
         assertDeleteCount(0);
     }
 
+    @DisplayName("Получить пользователей по списку id. Один запрос, отсутствующие id пропущены")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void getPersonViewsByIds_thenAssertDmlCount() {
+        //When
+        List<PersonView> result = userRepository.findViewsByIds(List.of(1001L, -1L));
+
+        //Then
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getBookIds()).containsExactly(2002L, 3003L);
+
+        assertSelectCount(1);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
+    @DisplayName("Получить страницу пользователей после id. Один запрос, id книг агрегированы")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void getPersonViewsAfter_thenAssertDmlCount() {
+        //When
+        List<PersonView> firstPage = userRepository.findViewsAfter(0, 10);
+        List<PersonView> nextPage = userRepository.findViewsAfter(1001L, 10);
+
+        //Then
+        assertThat(firstPage).hasSize(1);
+        assertThat(firstPage.get(0).getId()).isEqualTo(1001L);
+        assertThat(firstPage.get(0).getBookIds()).containsExactly(2002L, 3003L);
+        assertThat(nextPage).isEmpty();
+
+        assertSelectCount(2);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
+    @DisplayName("Получить пользователя без книг. Список id книг пустой")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql"
+    })
+    void getPersonViewWithoutBooks_thenAssertDmlCount() {
+        //When
+        Optional<PersonView> resultOpt = userRepository.findViewById(1001L);
+
+        //Then
+        assertThat(resultOpt).hasValueSatisfying(result -> assertThat(result.getBookIds()).isEmpty());
+        assertThat(userRepository.findViewById(-1L)).isEmpty();
+
+        assertSelectCount(2);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
     @DisplayName("Получить всех пользователей")
     @Test
     @Rollback
@@ -149,6 +246,7 @@ public class UserJpaRepositoryTest {
         person2.setFullName("name2");
         person2.setPreferredGenre("genre2");
         userRepository.save(person2);
+        SQLStatementCountValidator.reset();
 
         //When
         List<Person> personList = userRepository.findAll();
@@ -156,8 +254,8 @@ public class UserJpaRepositoryTest {
         //Then
         assertThat(personList.size()).isEqualTo(2);
 
-        assertSelectCount(3);
-        assertInsertCount(2);
+        assertSelectCount(1);
+        assertInsertCount(1);
         assertUpdateCount(0);
         assertDeleteCount(0);
     }
@@ -174,14 +272,37 @@ public class UserJpaRepositoryTest {
         person1.setFullName("name1");
         person1.setPreferredGenre("genre1");
         Person savedPerson = userRepository.saveAndFlush(person1);
+        SQLStatementCountValidator.reset();
 
         //When
         userRepository.delete(savedPerson);
         userRepository.flush();
 
         //Then
-        assertSelectCount(1);
-        assertInsertCount(1);
+        assertSelectCount(0);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(1);
+    }
+
+    @DisplayName("Удалить пользователя с книгами. Должен выполниться один delete, книги удаляются каскадно")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void deletePersonWithBooks_thenAssertDmlCount() {
+        //When
+        int deleteCount = userRepository.deleteWithBooksById(1001L);
+
+        //Then
+        assertThat(deleteCount).isEqualTo(1);
+        assertThat(userRepository.findViewById(1001L)).isEmpty();
+        assertThat(bookRepository.findAllById(List.of(2002L, 3003L))).isEmpty();
+
+        assertSelectCount(2);
+        assertInsertCount(0);
         assertUpdateCount(0);
         assertDeleteCount(1);
     }
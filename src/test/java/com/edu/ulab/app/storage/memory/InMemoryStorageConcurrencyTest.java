@@ -0,0 +1,336 @@
+package com.edu.ulab.app.storage.memory;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Многопоточные тесты хранилищ в памяти {@link Storage} и {@link ConcurrentStorage}.
+ */
+@DisplayName("Testing in-memory storage under concurrent access.")
+public class InMemoryStorageConcurrencyTest {
+    private static final int THREADS = 8;
+
+    static Stream<Named<Supplier<Repositories>>> storages() {
+        return Stream.of(
+                Named.of("locking", () -> Repositories.of(new Storage())),
+                Named.of("locking-offheap", () -> Repositories.of(new Storage(false, new OffHeapBookTable(64 * 1024)))),
+                Named.of("concurrent", () -> Repositories.of(new ConcurrentStorage())));
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    @DisplayName("Параллельное сохранение пользователей с книгами. Идентификаторы уникальны, книги привязаны к владельцам.")
+    void concurrentUserSaves_Test(Supplier<Repositories> factory) throws Exception {
+        //given
+        Repositories storage = factory.get();
+        int usersPerThread = 200;
+        int booksPerUser = 5;
+        Set<Long> userIds = ConcurrentHashMap.newKeySet();
+
+        //when
+        runConcurrently(thread -> {
+            for (int i = 0; i < usersPerThread; i++) {
+                Person person = person("user " + thread + "-" + i);
+                for (int j = 0; j < booksPerUser; j++) {
+                    person.getBooks().add(book("book " + j));
+                }
+                userIds.add(storage.users().save(person).getId());
+            }
+        });
+
+        //then
+        assertThat(userIds).hasSize(THREADS * usersPerThread);
+        Set<Long> bookIds = new HashSet<>();
+        userIds.forEach(userId -> {
+            Person person = storage.users().getUserById(userId).orElseThrow();
+            assertThat(person.getBooks()).hasSize(booksPerUser)
+                    .allMatch(book -> userId.equals(book.getUserId()));
+            person.getBooks().forEach(book -> bookIds.add(book.getId()));
+        });
+        assertThat(bookIds).hasSize(THREADS * usersPerThread * booksPerUser);
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    @DisplayName("Параллельное сохранение книг одного пользователя. Все книги должны попасть в индекс.")
+    void concurrentBookSavesForSameUser_Test(Supplier<Repositories> factory) throws Exception {
+        //given
+        Repositories storage = factory.get();
+        Long userId = storage.users().save(person("owner")).getId();
+        int booksPerThread = 500;
+
+        //when
+        runConcurrently(thread -> {
+            for (int i = 0; i < booksPerThread; i++) {
+                Book book = book("book " + thread + "-" + i);
+                book.setUserId(userId);
+                storage.books().save(book);
+            }
+        });
+
+        //then
+        List<Book> books = storage.books().getAllBooksByUserId(userId);
+        assertThat(books).hasSize(THREADS * booksPerThread);
+        assertThat(books.stream().map(Book::getId).distinct().count()).isEqualTo(THREADS * booksPerThread);
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    @DisplayName("Перенос книг между пользователями во время чтения. Читатели видят только книги запрошенного пользователя.")
+    void readersDuringBookTransfers_Test(Supplier<Repositories> factory) throws Exception {
+        //given
+        Repositories storage = factory.get();
+        Long firstUserId = storage.users().save(person("first")).getId();
+        Long secondUserId = storage.users().save(person("second")).getId();
+        int bookCount = 100;
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < bookCount; i++) {
+            Book book = book("book " + i);
+            book.setUserId(firstUserId);
+            bookIds.add(storage.books().save(book).getId());
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<String> violations = Collections.synchronizedList(new ArrayList<>());
+
+        //when
+        runConcurrently(thread -> {
+            if (thread % 2 == 0) {
+                Random random = new Random(thread);
+                for (int i = 0; i < 5_000; i++) {
+                    Long bookId = bookIds.get(random.nextInt(bookCount));
+                    Book book = book("moved " + i);
+                    book.setId(bookId);
+                    book.setUserId(random.nextBoolean() ? firstUserId : secondUserId);
+                    storage.books().update(book);
+                }
+                running.set(false);
+            } else {
+                while (running.get()) {
+                    Long userId = thread % 4 == 1 ? firstUserId : secondUserId;
+                    storage.users().getUserById(userId).orElseThrow().getBooks().stream()
+                            .filter(book -> !userId.equals(book.getUserId()))
+                            .forEach(book -> violations.add("user " + userId + " got book " + book));
+                }
+            }
+        });
+
+        //then
+        assertThat(violations).isEmpty();
+        int firstCount = storage.books().getAllBooksByUserId(firstUserId).size();
+        int secondCount = storage.books().getAllBooksByUserId(secondUserId).size();
+        assertThat(firstCount + secondCount).isEqualTo(bookCount);
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    @DisplayName("Параллельное удаление пользователей. Книги удалённых пользователей удаляются, остальные остаются.")
+    void concurrentUserDeletes_Test(Supplier<Repositories> factory) throws Exception {
+        //given
+        Repositories storage = factory.get();
+        int userCount = 400;
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < userCount; i++) {
+            Person person = person("user " + i);
+            person.getBooks().add(book("first"));
+            person.getBooks().add(book("second"));
+            persons.add(storage.users().save(person));
+        }
+        Map<Long, List<Long>> booksByUser = new HashMap<>();
+        persons.forEach(person -> booksByUser.put(person.getId(),
+                person.getBooks().stream().map(Book::getId).toList()));
+
+        //when
+        runConcurrently(thread -> {
+            for (int i = thread; i < userCount; i += THREADS) {
+                if (i % 2 == 0) {
+                    storage.users().deleteUserById(persons.get(i).getId());
+                }
+            }
+        });
+
+        //then
+        for (int i = 0; i < userCount; i++) {
+            Long userId = persons.get(i).getId();
+            boolean deleted = i % 2 == 0;
+            assertThat(storage.users().getUserById(userId).isPresent()).isEqualTo(!deleted);
+            booksByUser.get(userId).forEach(bookId ->
+                    assertThat(storage.books().getBookById(bookId).isPresent()).isEqualTo(!deleted));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    @DisplayName("Обновление пользователя. Книги, отсутствующие в новом списке, остаются без владельца.")
+    void updateOrphansBooks_Test(Supplier<Repositories> factory) {
+        //given
+        Repositories storage = factory.get();
+        Person person = person("reader");
+        person.getBooks().add(book("kept"));
+        person.getBooks().add(book("orphaned"));
+        Person savedPerson = storage.users().save(person);
+        Long keptBookId = savedPerson.getBooks().get(0).getId();
+        Long orphanedBookId = savedPerson.getBooks().get(1).getId();
+
+        Person update = person("updated reader");
+        update.setId(savedPerson.getId());
+        Book keptBook = book("kept");
+        keptBook.setId(keptBookId);
+        keptBook.setUserId(savedPerson.getId());
+        update.getBooks().add(keptBook);
+        update.getBooks().add(book("new"));
+
+        //when
+        storage.users().update(update);
+
+        //then
+        Person result = storage.users().getUserById(savedPerson.getId()).orElseThrow();
+        assertThat(result.getTitle()).isEqualTo("updated reader");
+        assertThat(result.getBooks()).extracting(Book::getId).contains(keptBookId).doesNotContain(orphanedBookId);
+        assertThat(storage.books().getBookById(orphanedBookId)).isPresent()
+                .hasValueSatisfying(book -> assertThat(book.getUserId()).isNull());
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    @DisplayName("Постраничное чтение пользователей. Страницы идут по возрастанию id без пропусков и повторов.")
+    void usersAfterPages_Test(Supplier<Repositories> factory) {
+        //given
+        Repositories storage = factory.get();
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Person person = person("reader " + i);
+            person.getBooks().add(book("book " + i));
+            userIds.add(storage.users().save(person).getId());
+        }
+        storage.users().deleteUserById(userIds.remove(3));
+
+        //when
+        List<Person> firstPage = storage.users().getUsersAfter(0, 4);
+        List<Person> secondPage = storage.users().getUsersAfter(firstPage.get(3).getId(), 4);
+
+        //then
+        assertThat(firstPage).extracting(Person::getId).containsExactlyElementsOf(userIds.subList(0, 4));
+        assertThat(secondPage).extracting(Person::getId).containsExactlyElementsOf(userIds.subList(4, 6));
+        assertThat(secondPage).allSatisfy(person -> assertThat(person.getBooks()).hasSize(1)
+                .allMatch(book -> person.getId().equals(book.getUserId())));
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    @DisplayName("Получение нескольких пользователей. Отсутствующие id пропускаются.")
+    void usersByIds_Test(Supplier<Repositories> factory) {
+        //given
+        Repositories storage = factory.get();
+        Person reader = person("reader");
+        reader.getBooks().add(book("first"));
+        Long readerId = storage.users().save(reader).getId();
+        Long writerId = storage.users().save(person("writer")).getId();
+
+        //when
+        List<Person> users = storage.users().getUsersByIds(List.of(writerId, -1L, readerId));
+
+        //then
+        assertThat(users).extracting(Person::getId).containsExactly(writerId, readerId);
+        assertThat(users.get(1).getBooks()).extracting(Book::getTitle).containsExactly("first");
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    @DisplayName("Изменение полученного пользователя. Книги в хранилище не меняются.")
+    void userBooksAreCopies_Test(Supplier<Repositories> factory) {
+        //given
+        Repositories storage = factory.get();
+        Person reader = person("reader");
+        reader.getBooks().add(book("first"));
+        Long readerId = storage.users().save(reader).getId();
+        Person found = storage.users().getUserById(readerId).orElseThrow();
+
+        //when
+        found.getBooks().get(0).setTitle("changed");
+        found.getBooks().get(0).setUserId(null);
+
+        //then
+        assertThat(storage.users().getUserById(readerId).orElseThrow().getBooks())
+                .extracting(Book::getTitle).containsExactly("first");
+        assertThat(storage.books().getAllBooksByUserId(readerId)).extracting(Book::getTitle).containsExactly("first");
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    @DisplayName("Удаление книги пользователя. Оставшиеся книги возвращаются по возрастанию id.")
+    void userBooksOrderedById_Test(Supplier<Repositories> factory) {
+        //given
+        Repositories storage = factory.get();
+        Person reader = person("reader");
+        reader.getBooks().addAll(List.of(book("first"), book("second"), book("third"), book("fourth")));
+        Person saved = storage.users().save(reader);
+        List<Long> bookIds = saved.getBooks().stream().map(Book::getId).toList();
+
+        //when
+        storage.books().deleteBookById(bookIds.get(0));
+
+        //then
+        assertThat(storage.users().getUserById(saved.getId()).orElseThrow().getBooks())
+                .extracting(Book::getId).containsExactlyElementsOf(bookIds.subList(1, 4));
+        assertThat(storage.books().getAllBooksByUserId(saved.getId()))
+                .extracting(Book::getId).containsExactlyElementsOf(bookIds.subList(1, 4));
+    }
+
+    private static void runConcurrently(IntConsumer task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.accept(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Person person(String title) {
+        Person person = new Person();
+        person.setFullName("Test Test");
+        person.setTitle(title);
+        person.setAge(30);
+        person.setPreferredGenre("fantasy");
+        return person;
+    }
+
+    private static Book book(String title) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Test Author");
+        book.setPageCount(100);
+        return book;
+    }
+
+    record Repositories(UserInMemoryRepository users, BookInMemoryRepository books) {
+        static <T extends UserInMemoryRepository & BookInMemoryRepository> Repositories of(T storage) {
+            return new Repositories(storage, storage);
+        }
+    }
+}
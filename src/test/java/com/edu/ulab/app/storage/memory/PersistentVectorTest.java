@@ -0,0 +1,74 @@
+package com.edu.ulab.app.storage.memory;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование {@link PersistentVector}.
+ */
+@DisplayName("Testing persistent vector.")
+public class PersistentVectorTest {
+
+    @Test
+    @DisplayName("Случайные операции через границы уровней дерева. Содержимое совпадает со списком.")
+    void randomOperations_Test() {
+        //given
+        Random random = new Random(42);
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        List<Integer> expected = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < 20_000; i++) {
+            int operation = random.nextInt(10);
+            if (operation < 6 || expected.isEmpty()) {
+                vector = vector.push(i);
+                expected.add(i);
+            } else if (operation < 8) {
+                int index = random.nextInt(expected.size());
+                vector = vector.set(index, -i);
+                expected.set(index, -i);
+            } else {
+                int index = random.nextInt(expected.size());
+                vector = vector.removeAt(index);
+                Integer last = expected.remove(expected.size() - 1);
+                if (index < expected.size()) {
+                    expected.set(index, last);
+                }
+            }
+        }
+
+        //then
+        assertThat(vector.size()).isEqualTo(expected.size());
+        assertThat(vector.map(Function.identity())).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Изменение вектора. Исходная версия не меняется.")
+    void previousVersionIsUnchanged_Test() {
+        //given
+        PersistentVector<Integer> original = PersistentVector.empty();
+        for (int i = 0; i < 1100; i++) {
+            original = original.push(i);
+        }
+
+        //when
+        PersistentVector<Integer> changed = original.set(5, -5).removeAt(0).push(2000);
+        while (changed.size() > 1) {
+            changed = changed.pop();
+        }
+
+        //then
+        assertThat(original.size()).isEqualTo(1100);
+        assertThat(original.get(0)).isZero();
+        assertThat(original.get(5)).isEqualTo(5);
+        assertThat(original.get(1099)).isEqualTo(1099);
+        assertThat(changed.map(Function.identity())).containsExactly(1099);
+    }
+}
@@ -0,0 +1,203 @@
+package com.edu.ulab.app.storage.memory.journal;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.storage.memory.Storage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты восстановления {@link Storage} из снимков и журнала предзаписи.
+ */
+@DisplayName("Testing in-memory storage persistence.")
+public class StoragePersistenceTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Восстановление из журнала. Пользователи, книги и счётчики id восстанавливаются.")
+    void recoverFromLog_Test() throws Exception {
+        //given
+        Storage storage = new Storage();
+        StoragePersistence persistence = start(storage);
+        Person reader = storage.save(person("reader", book("first"), book("second")));
+        Person writer = storage.save(person("writer", book("third")));
+        Long orphanedBookId = reader.getBooks().get(1).getId();
+
+        Person update = person("updated reader", reader.getBooks().get(0));
+        update.setId(reader.getId());
+        storage.update(update);
+        storage.deleteUserById(writer.getId());
+        persistence.stop();
+
+        //when
+        Storage recovered = new Storage();
+        StoragePersistence recoveredPersistence = start(recovered);
+
+        //then
+        Person recoveredReader = recovered.getUserById(reader.getId()).orElseThrow();
+        assertThat(recoveredReader.getTitle()).isEqualTo("updated reader");
+        assertThat(recoveredReader.getBooks()).extracting(Book::getTitle).containsExactly("first");
+        assertThat(recovered.getBookById(orphanedBookId)).hasValueSatisfying(book ->
+                assertThat(book.getUserId()).isNull());
+        assertThat(recovered.getUserById(writer.getId())).isEmpty();
+        assertThat(recovered.getBookById(writer.getBooks().get(0).getId())).isEmpty();
+
+        Person next = recovered.save(person("next", book("fourth")));
+        assertThat(next.getId()).isGreaterThan(writer.getId());
+        assertThat(next.getBooks().get(0).getId()).isGreaterThan(writer.getBooks().get(0).getId());
+        recoveredPersistence.stop();
+    }
+
+    @Test
+    @DisplayName("Восстановление из снимка и хвоста журнала. Покрытые снимком сегменты удаляются.")
+    void recoverFromSnapshotAndTail_Test() throws Exception {
+        //given
+        Storage storage = new Storage();
+        StoragePersistence persistence = start(storage);
+        Person beforeSnapshot = storage.save(person("before", book("first")));
+        Book orphan = storage.save(book("orphan"));
+        Path snapshot = persistence.snapshot();
+        Person afterSnapshot = storage.save(person("after", book("second")));
+        persistence.stop();
+
+        //when
+        Storage recovered = new Storage();
+        StoragePersistence recoveredPersistence = start(recovered);
+
+        //then
+        assertThat(JournalFiles.snapshots(directory)).containsExactly(snapshot);
+        assertThat(JournalFiles.segments(directory)).allMatch(segment ->
+                JournalFiles.numberOf(segment) >= JournalFiles.numberOf(snapshot));
+        assertThat(recovered.getUserById(beforeSnapshot.getId())).hasValueSatisfying(person ->
+                assertThat(person.getBooks()).extracting(Book::getTitle).containsExactly("first"));
+        assertThat(recovered.getUserById(afterSnapshot.getId())).hasValueSatisfying(person ->
+                assertThat(person.getBooks()).extracting(Book::getTitle).containsExactly("second"));
+        assertThat(recovered.getBookById(orphan.getId())).hasValueSatisfying(book ->
+                assertThat(book.getTitle()).isEqualTo("orphan"));
+        recoveredPersistence.stop();
+    }
+
+    @Test
+    @DisplayName("Снимок без snapshot-reads. Записи копируются под блокировкой, состояние восстанавливается.")
+    void recoverFromSnapshotWithoutSnapshotReads_Test() throws Exception {
+        //given
+        Storage storage = new Storage(false);
+        StoragePersistence persistence = start(storage);
+        Person reader = storage.save(person("reader", book("first"), book("second")));
+        Book orphan = storage.save(book("orphan"));
+        persistence.snapshot();
+        persistence.stop();
+
+        //when
+        Storage recovered = new Storage(false);
+        StoragePersistence recoveredPersistence = start(recovered);
+
+        //then
+        assertThat(recovered.getUserById(reader.getId())).hasValueSatisfying(person ->
+                assertThat(person.getBooks()).extracting(Book::getTitle).containsExactly("first", "second"));
+        assertThat(recovered.getBookById(orphan.getId())).hasValueSatisfying(book ->
+                assertThat(book.getUserId()).isNull());
+        recoveredPersistence.stop();
+    }
+
+    @Test
+    @DisplayName("Восстановление из снимка после удаления последних записей. Удалённые id не выдаются повторно.")
+    void recoverIdCountersFromSnapshot_Test() throws Exception {
+        //given
+        Storage storage = new Storage();
+        StoragePersistence persistence = start(storage);
+        Person reader = storage.save(person("reader", book("first"), book("second")));
+        Person writer = storage.save(person("writer", book("third")));
+        Long lastReaderBookId = reader.getBooks().get(1).getId();
+        storage.deleteUserById(writer.getId());
+        storage.deleteBookById(lastReaderBookId);
+        persistence.snapshot();
+        persistence.stop();
+
+        //when
+        Storage recovered = new Storage();
+        StoragePersistence recoveredPersistence = start(recovered);
+
+        //then
+        assertThat(recovered.getUserById(writer.getId())).isEmpty();
+        assertThat(recovered.getBookById(lastReaderBookId)).isEmpty();
+        Person next = recovered.save(person("next", book("fourth")));
+        assertThat(next.getId()).isEqualTo(writer.getId() + 1);
+        assertThat(next.getBooks().get(0).getId()).isEqualTo(writer.getBooks().get(0).getId() + 1);
+        recoveredPersistence.stop();
+    }
+
+    @Test
+    @DisplayName("Оборванная последняя запись журнала. Она отбрасывается, предыдущие записи восстанавливаются.")
+    void recoverWithTornTail_Test() throws Exception {
+        //given
+        Storage storage = new Storage();
+        StoragePersistence persistence = start(storage);
+        Person person = storage.save(person("reader", book("first")));
+        persistence.stop();
+        List<Path> segments = JournalFiles.segments(directory);
+        Files.write(segments.get(segments.size() - 1), new byte[]{0, 0, 0, 42, 1, 2, 3},
+                StandardOpenOption.APPEND);
+
+        //when
+        Storage recovered = new Storage();
+        StoragePersistence recoveredPersistence = start(recovered);
+
+        //then
+        assertThat(recovered.getUserById(person.getId())).hasValueSatisfying(user ->
+                assertThat(user.getBooks()).hasSize(1));
+        recoveredPersistence.stop();
+    }
+
+    @Test
+    @DisplayName("Журнал без Storage (engine: concurrent). Создание завершается понятной ошибкой конфигурации.")
+    void requireLockingEngine_Test() {
+        //given
+        ObjectProvider<Storage> noStorage = new StaticListableBeanFactory().getBeanProvider(Storage.class);
+
+        //when
+        assertThatThrownBy(() -> new StoragePersistence(noStorage, directory, FsyncPolicy.ALWAYS, 256,
+                Duration.ofMillis(10), Duration.ofHours(1)))
+                //then
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("app.storage.memory.engine: locking");
+    }
+
+    private StoragePersistence start(Storage storage) throws Exception {
+        StoragePersistence persistence = new StoragePersistence(storage, directory, FsyncPolicy.ALWAYS, 256,
+                Duration.ofMillis(10), Duration.ofHours(1));
+        persistence.start();
+        return persistence;
+    }
+
+    private static Person person(String title, Book... books) {
+        Person person = new Person();
+        person.setFullName("Test Test");
+        person.setTitle(title);
+        person.setAge(30);
+        person.setPreferredGenre("fantasy");
+        person.getBooks().addAll(List.of(books));
+        return person;
+    }
+
+    private static Book book(String title) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Test Author");
+        book.setPageCount(100);
+        return book;
+    }
+}
@@ -0,0 +1,4 @@
+select setval('ulab_edu.person_sequence', 10001)
+where (select last_value from ulab_edu.person_sequence) < 10001;
+select setval('ulab_edu.book_sequence', 10001)
+where (select last_value from ulab_edu.book_sequence) < 10001;